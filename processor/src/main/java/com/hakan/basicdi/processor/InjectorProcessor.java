@@ -0,0 +1,502 @@
+package com.hakan.basicdi.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * InjectorProcessor is an annotation processor that
+ * generates a factory class for every component which
+ * is annotated with @Component or @Service, and a binding
+ * index for the components and the @Provide and @Runner
+ * methods of the modules.
+ * <p>
+ * Generated factories call the constructor, set the
+ * fields and call the post construct methods directly,
+ * so the injector does not need to scan the classes
+ * with reflection. Components with private members
+ * cannot be created from generated code, they are
+ * skipped and created with reflection at runtime.
+ */
+@SupportedAnnotationTypes({
+        InjectorProcessor.COMPONENT,
+        InjectorProcessor.SERVICE,
+        InjectorProcessor.AUTOWIRED,
+        InjectorProcessor.POST_CONSTRUCT,
+        InjectorProcessor.PROVIDE,
+        InjectorProcessor.RUNNER,
+})
+public class InjectorProcessor extends AbstractProcessor {
+
+    static final String COMPONENT = "com.hakan.basicdi.annotations.Component";
+    static final String SERVICE = "com.hakan.basicdi.annotations.Service";
+    static final String AUTOWIRED = "com.hakan.basicdi.annotations.Autowired";
+    static final String POST_CONSTRUCT = "com.hakan.basicdi.annotations.PostConstruct";
+    static final String PROVIDE = "com.hakan.basicdi.annotations.Provide";
+    static final String RUNNER = "com.hakan.basicdi.annotations.Runner";
+    static final String LAZY = "com.hakan.basicdi.annotations.Lazy";
+    static final String QUALIFIER = "com.hakan.basicdi.annotations.Qualifier";
+    static final String PROVIDER = "com.hakan.basicdi.provider.Provider";
+    static final String SUPPLIER = "java.util.function.Supplier";
+    static final List<String> MULTIBINDINGS = Arrays.asList("java.util.List", "java.util.Set", "java.util.Map");
+
+    private static final String FACTORY_SUFFIX = "$BasicDiFactory";
+    private static final String FACTORIES = "META-INF/basicdi/factories";
+    private static final String MODULES = "META-INF/basicdi/modules";
+
+    private final Set<String> factories = new LinkedHashSet<>();
+    private final Set<String> runners = new LinkedHashSet<>();
+    private final Set<String> providers = new LinkedHashSet<>();
+    private final Set<String> skippedModules = new LinkedHashSet<>();
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+        for (TypeElement annotation : annotations) {
+            String name = annotation.getQualifiedName().toString();
+
+            for (Element element : round.getElementsAnnotatedWith(annotation)) {
+                if ((name.equals(COMPONENT) || name.equals(SERVICE)) && element.getKind() == ElementKind.CLASS)
+                    this.processComponent((TypeElement) element, this.findAnnotation(element, name));
+                else if (name.equals(RUNNER) && element.getKind() == ElementKind.METHOD)
+                    this.processMethod((ExecutableElement) element, this.runners);
+                else if (name.equals(PROVIDE) && element.getKind() == ElementKind.METHOD)
+                    this.processMethod((ExecutableElement) element, this.providers);
+            }
+        }
+
+        if (round.processingOver())
+            this.writeIndex();
+        return false;
+    }
+
+
+
+    /**
+     * Generates the factory of the given component
+     * if all of its injected members are reachable
+     * from the same package.
+     *
+     * @param type       component type
+     * @param annotation @Component or @Service annotation
+     */
+    private void processComponent(TypeElement type, AnnotationMirror annotation) {
+        if (!this.isReachable(type) || type.getModifiers().contains(Modifier.ABSTRACT) || !type.getTypeParameters().isEmpty()) {
+            this.skip(type, "type is not reachable from generated code");
+            return;
+        }
+
+        ExecutableElement constructor = null;
+        for (ExecutableElement candidate : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (this.hasAnnotation(candidate, AUTOWIRED)) {
+                constructor = candidate;
+                break;
+            } else if (candidate.getParameters().isEmpty()) {
+                constructor = candidate;
+            }
+        }
+
+        if (constructor == null || constructor.getModifiers().contains(Modifier.PRIVATE)) {
+            this.skip(type, "constructor is not reachable from generated code");
+            return;
+        }
+
+        for (VariableElement parameter : constructor.getParameters()) {
+            if (this.isDeferred(parameter)) {
+                this.skip(type, "parameter " + parameter.getSimpleName() + " is deferred");
+                return;
+            }
+            if (this.isQualified(parameter)) {
+                this.skip(type, "parameter " + parameter.getSimpleName() + " is qualified");
+                return;
+            }
+            if (this.isGeneric(parameter)) {
+                this.skip(type, "parameter " + parameter.getSimpleName() + " is generic");
+                return;
+            }
+        }
+
+        List<VariableElement> fields = new ArrayList<>();
+        for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+            if (!this.hasAnnotation(field, AUTOWIRED)) continue;
+            if (!this.isAccessible(field) || field.getModifiers().contains(Modifier.FINAL)) {
+                this.skip(type, "field " + field.getSimpleName() + " is not writable from generated code");
+                return;
+            }
+            if (this.isDeferred(field)) {
+                this.skip(type, "field " + field.getSimpleName() + " is deferred");
+                return;
+            }
+            if (this.isQualified(field)) {
+                this.skip(type, "field " + field.getSimpleName() + " is qualified");
+                return;
+            }
+            if (this.isGeneric(field)) {
+                this.skip(type, "field " + field.getSimpleName() + " is generic");
+                return;
+            }
+            fields.add(field);
+        }
+
+        List<ExecutableElement> methods = new ArrayList<>();
+        for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+            if (!this.hasAnnotation(method, POST_CONSTRUCT)) continue;
+            if (!this.isAccessible(method) || !method.getParameters().isEmpty()) {
+                this.skip(type, "method " + method.getSimpleName() + " is not callable from generated code");
+                return;
+            }
+            methods.add(method);
+        }
+
+        try {
+            this.writeFactory(type, this.findScope(annotation), constructor, fields, methods);
+            this.factories.add(this.binaryName(type));
+        } catch (IOException e) {
+            this.processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "could not generate factory: " + e.getMessage(), type);
+        }
+    }
+
+    /**
+     * Adds the given @Provide or @Runner method
+     * to the module index. If one of the methods of
+     * a module cannot be indexed, the module is not
+     * indexed at all and it is scanned at runtime.
+     *
+     * @param method method
+     * @param lines  index lines
+     */
+    private void processMethod(ExecutableElement method, Set<String> lines) {
+        TypeElement module = (TypeElement) method.getEnclosingElement();
+        String moduleName = this.binaryName(module);
+
+        StringBuilder line = new StringBuilder(moduleName).append(' ').append(method.getSimpleName());
+        for (VariableElement parameter : method.getParameters()) {
+            String parameterName = this.binaryName(parameter.asType());
+            if (parameterName == null) {
+                this.skippedModules.add(moduleName);
+                return;
+            }
+            line.append(' ').append(parameterName);
+        }
+
+        lines.add(line.toString());
+    }
+
+
+    /**
+     * Writes the source of the factory class.
+     *
+     * @param type        component type
+     * @param scope       scope name
+     * @param constructor constructor
+     * @param fields      fields to inject
+     * @param methods     post construct methods
+     * @throws IOException if the source cannot be written
+     */
+    private void writeFactory(TypeElement type,
+                              String scope,
+                              ExecutableElement constructor,
+                              List<VariableElement> fields,
+                              List<ExecutableElement> methods) throws IOException {
+        String packageName = this.processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        String binaryName = this.binaryName(type);
+        String factoryName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1)) + FACTORY_SUFFIX;
+        String typeName = type.getQualifiedName().toString();
+
+        StringBuilder arguments = new StringBuilder();
+        StringBuilder dependencies = new StringBuilder();
+        for (VariableElement parameter : constructor.getParameters()) {
+            if (arguments.length() > 0) arguments.append(", ");
+            if (dependencies.length() > 0) dependencies.append(", ");
+            arguments.append("get(module, ").append(this.classLiteral(parameter.asType())).append(")");
+            dependencies.append(this.classLiteral(parameter.asType()));
+        }
+        String constructorDependencies = dependencies.toString();
+        for (VariableElement field : fields) {
+            if (dependencies.length() > 0) dependencies.append(", ");
+            dependencies.append(this.classLiteral(field.asType()));
+        }
+
+        StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty())
+            source.append("package ").append(packageName).append(";\n\n");
+
+        source.append("/**\n")
+                .append(" * Factory of {@link ").append(typeName).append("}\n")
+                .append(" * which is generated by ").append(InjectorProcessor.class.getName()).append(".\n")
+                .append(" */\n")
+                .append("public final class ").append(factoryName)
+                .append(" implements com.hakan.basicdi.generated.ComponentFactory<").append(typeName).append("> {\n\n");
+
+        source.append("    @Override\n")
+                .append("    public com.hakan.basicdi.entity.Scope getScope() {\n")
+                .append("        return com.hakan.basicdi.entity.Scope.").append(scope).append(";\n")
+                .append("    }\n\n");
+
+        source.append("    @Override\n")
+                .append("    public java.util.List<Class<?>> getDependencies() {\n")
+                .append("        return java.util.Arrays.<Class<?>>asList(").append(dependencies).append(");\n")
+                .append("    }\n\n");
+
+        source.append("    @Override\n")
+                .append("    public java.util.List<Class<?>> getConstructorDependencies() {\n")
+                .append("        return java.util.Arrays.<Class<?>>asList(").append(constructorDependencies).append(");\n")
+                .append("    }\n\n");
+
+        source.append("    @Override\n")
+                .append("    public ").append(typeName).append(" construct(com.hakan.basicdi.module.Module module) {\n")
+                .append("        return new ").append(typeName).append("(").append(arguments).append(");\n")
+                .append("    }\n\n");
+
+        source.append("    @Override\n")
+                .append("    public void initialize(com.hakan.basicdi.module.Module module, ").append(typeName).append(" instance) {\n");
+        for (VariableElement field : fields)
+            source.append("        instance.").append(field.getSimpleName())
+                    .append(" = get(module, ").append(this.classLiteral(field.asType())).append(");\n");
+        for (ExecutableElement method : methods)
+            source.append("        instance.").append(method.getSimpleName()).append("();\n");
+        source.append("    }\n\n");
+
+        source.append("    @SuppressWarnings(\"unchecked\")\n")
+                .append("    private static <T> T get(com.hakan.basicdi.module.Module module, Class<?> type) {\n")
+                .append("        return (T) module.getEntity(type).getInstance();\n")
+                .append("    }\n")
+                .append("}\n");
+
+        String qualifiedName = packageName.isEmpty() ? factoryName : packageName + "." + factoryName;
+        try (Writer writer = this.processingEnv.getFiler().createSourceFile(qualifiedName, type).openWriter()) {
+            writer.write(source.toString());
+        }
+    }
+
+    /**
+     * Writes the factory and module indexes.
+     */
+    private void writeIndex() {
+        List<String> modules = new ArrayList<>();
+        for (String line : this.runners)
+            if (!this.skippedModules.contains(line.substring(0, line.indexOf(' ')))) modules.add(line);
+        for (String line : this.providers)
+            if (!this.skippedModules.contains(line.substring(0, line.indexOf(' ')))) modules.add(line);
+
+        this.writeResource(FACTORIES, new ArrayList<>(this.factories));
+        this.writeResource(MODULES, modules);
+    }
+
+    /**
+     * Writes the given lines to the resource.
+     *
+     * @param name  resource name
+     * @param lines lines
+     */
+    private void writeResource(String name, List<String> lines) {
+        if (lines.isEmpty()) return;
+
+        try {
+            FileObject resource = this.processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", name);
+            try (Writer writer = resource.openWriter()) {
+                for (String line : lines)
+                    writer.write(line + "\n");
+            }
+        } catch (IOException e) {
+            this.processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "could not write " + name + ": " + e.getMessage());
+        }
+    }
+
+
+    /**
+     * Checks if the type and all of its enclosing
+     * types can be used from the same package.
+     *
+     * @param type type
+     * @return true if it is reachable
+     */
+    private boolean isReachable(TypeElement type) {
+        for (Element element = type; element instanceof TypeElement; element = element.getEnclosingElement()) {
+            TypeElement current = (TypeElement) element;
+            if (current.getModifiers().contains(Modifier.PRIVATE)) return false;
+            if (current.getNestingKind() == NestingKind.LOCAL || current.getNestingKind() == NestingKind.ANONYMOUS) return false;
+            if (current.getNestingKind() == NestingKind.MEMBER && !current.getModifiers().contains(Modifier.STATIC)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Checks if the member can be used from
+     * generated code in the same package.
+     *
+     * @param element member
+     * @return true if it is accessible
+     */
+    private boolean isAccessible(Element element) {
+        Set<Modifier> modifiers = element.getModifiers();
+        return !modifiers.contains(Modifier.PRIVATE) && !modifiers.contains(Modifier.STATIC);
+    }
+
+    /**
+     * Checks if the injection point is a
+     * provider, a multibinding or annotated
+     * with @Lazy.
+     *
+     * @param element field or parameter
+     * @return true if it is deferred
+     */
+    private boolean isDeferred(VariableElement element) {
+        String typeName = this.processingEnv.getTypeUtils().erasure(element.asType()).toString();
+        return this.hasAnnotation(element, LAZY) || typeName.equals(PROVIDER) || typeName.equals(SUPPLIER)
+                || MULTIBINDINGS.contains(typeName);
+    }
+
+    /**
+     * Checks if the injection point is annotated
+     * with a qualifier, which is resolved by its
+     * key at runtime.
+     *
+     * @param element field or parameter
+     * @return true if it is qualified
+     */
+    private boolean isQualified(VariableElement element) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors())
+            if (this.hasAnnotation(mirror.getAnnotationType().asElement(), QUALIFIER))
+                return true;
+        return false;
+    }
+
+    /**
+     * Checks if the type of the injection point
+     * has type arguments, which are part of its
+     * key at runtime.
+     *
+     * @param element field or parameter
+     * @return true if it is generic
+     */
+    private boolean isGeneric(VariableElement element) {
+        return element.asType() instanceof DeclaredType && !((DeclaredType) element.asType()).getTypeArguments().isEmpty();
+    }
+
+    /**
+     * Checks if the element is annotated
+     * with the given annotation.
+     *
+     * @param element    element
+     * @param annotation qualified annotation name
+     * @return true if it is annotated
+     */
+    private boolean hasAnnotation(Element element, String annotation) {
+        return this.findAnnotation(element, annotation) != null;
+    }
+
+    /**
+     * Finds the annotation of the element
+     * with the given name.
+     *
+     * @param element    element
+     * @param annotation qualified annotation name
+     * @return annotation mirror, or null
+     */
+    private AnnotationMirror findAnnotation(Element element, String annotation) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors())
+            if (((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotation))
+                return mirror;
+        return null;
+    }
+
+    /**
+     * Finds the scope name from the @Component
+     * or @Service annotation.
+     *
+     * @param annotation annotation
+     * @return scope name
+     */
+    private String findScope(AnnotationMirror annotation) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : annotation.getElementValues().entrySet())
+            if (entry.getKey().getSimpleName().contentEquals("scope"))
+                return ((VariableElement) entry.getValue().getValue()).getSimpleName().toString();
+        return "SINGLETON";
+    }
+
+    /**
+     * Returns the class literal of the
+     * erasure of the given type.
+     *
+     * @param type type
+     * @return class literal
+     */
+    private String classLiteral(TypeMirror type) {
+        return this.processingEnv.getTypeUtils().erasure(type).toString() + ".class";
+    }
+
+    /**
+     * Returns the binary name of the type
+     * which is used by Class.forName.
+     *
+     * @param type type
+     * @return binary name
+     */
+    private String binaryName(TypeElement type) {
+        return this.processingEnv.getElementUtils().getBinaryName(type).toString();
+    }
+
+    /**
+     * Returns the binary name of the type mirror,
+     * or null if it cannot be loaded by name
+     * such as arrays and type variables.
+     *
+     * @param type type mirror
+     * @return binary name, or null
+     */
+    private String binaryName(TypeMirror type) {
+        if (type.getKind().isPrimitive())
+            return type.getKind().name().toLowerCase();
+        if (type.getKind() != TypeKind.DECLARED)
+            return null;
+        return this.binaryName((TypeElement) this.processingEnv.getTypeUtils().asElement(type));
+    }
+
+    /**
+     * Reports that the component is created
+     * with reflection instead of a generated factory.
+     *
+     * @param type   component type
+     * @param reason reason
+     */
+    private void skip(TypeElement type, String reason) {
+        this.processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                type.getQualifiedName() + " is created with reflection, " + reason, type);
+    }
+}
@@ -0,0 +1,128 @@
+package com.hakan.basicdi;
+
+import com.hakan.basicdi.annotations.Autowired;
+import com.hakan.basicdi.annotations.Component;
+import com.hakan.basicdi.annotations.PostConstruct;
+import com.hakan.basicdi.annotations.Provide;
+import com.hakan.basicdi.annotations.Service;
+import com.hakan.basicdi.graph.GraphSnapshot;
+import com.hakan.basicdi.module.Module;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the configure and create time
+ * of an {@link Injector} with a small module,
+ * from its snapshot, and of a child injector
+ * on top of it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class InjectorBenchmark {
+
+    private Injector parent;
+    private GraphSnapshot snapshot;
+
+    @Setup
+    public void setup() {
+        this.parent = Injector.of(new ExampleModule()).create();
+        this.snapshot = this.parent.snapshot();
+    }
+
+
+    @Benchmark
+    public Injector configure() {
+        return Injector.of(new ExampleModule());
+    }
+
+    @Benchmark
+    public Injector configureAndCreate() {
+        return Injector.of(new ExampleModule()).create();
+    }
+
+    @Benchmark
+    public Injector fromSnapshot() {
+        return Injector.fromSnapshot(this.snapshot, new ExampleModule()).create();
+    }
+
+    @Benchmark
+    public Injector createChild() {
+        return this.parent.createChild(new ChildModule()).create();
+    }
+
+
+
+    public static class ExampleModule extends Module {
+
+        @Override
+        public void configure() {
+            this.bind(ExampleRepository.class);
+            this.bind(ExampleService.class);
+            this.bind(ExampleComponent.class);
+        }
+
+        @Provide
+        public ExampleConfig config() {
+            return new ExampleConfig();
+        }
+    }
+
+    public static class ChildModule extends Module {
+
+        @Override
+        public void configure() {
+            this.bind(ChildComponent.class);
+        }
+    }
+
+    public static class ExampleConfig {
+
+    }
+
+    @Service
+    public static class ExampleRepository {
+
+        @Autowired
+        public ExampleRepository(ExampleConfig config) {
+
+        }
+    }
+
+    @Service
+    public static class ExampleService {
+
+        @Autowired
+        private ExampleRepository repository;
+
+        @PostConstruct
+        public void init() {
+
+        }
+    }
+
+    @Component
+    public static class ExampleComponent {
+
+        @Autowired
+        public ExampleComponent(ExampleService service, ExampleRepository repository) {
+
+        }
+    }
+
+    @Component
+    public static class ChildComponent {
+
+        @Autowired
+        public ChildComponent(ExampleService service) {
+
+        }
+    }
+}
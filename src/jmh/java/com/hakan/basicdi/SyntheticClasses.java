@@ -0,0 +1,178 @@
+package com.hakan.basicdi;
+
+import lombok.SneakyThrows;
+
+import javax.annotation.Nonnull;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * SyntheticClasses creates distinct copies of
+ * a small class, so benchmarks can bind as many
+ * different types as they need, and jar files
+ * with the given count of classes to scan.
+ */
+public class SyntheticClasses {
+
+    private static final String COMPONENT = "Lcom/hakan/basicdi/annotations/Component;";
+
+    /**
+     * Creates the given count of distinct classes.
+     * Every class is defined by its own class loader,
+     * so they are different types even though they
+     * have the same name.
+     *
+     * @param count count of classes
+     * @return classes
+     */
+    public static @Nonnull List<Class<?>> create(int count) {
+        byte[] bytes = readBytes(Binding.class);
+
+        List<Class<?>> classes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++)
+            classes.add(new DefiningClassLoader().define(Binding.class.getName(), bytes));
+        return classes;
+    }
+
+    /**
+     * Creates a jar file with the given count of
+     * empty classes in the given package. Every
+     * tenth class is annotated with @Component.
+     *
+     * @param packageName package of the classes
+     * @param count       count of classes
+     * @return jar file
+     */
+    @SneakyThrows
+    public static @Nonnull Path createJar(@Nonnull String packageName, int count) {
+        Path jar = Files.createTempFile("synthetic", ".jar");
+        String packagePath = packageName.replace('.', '/');
+
+        try (ZipOutputStream output = new ZipOutputStream(Files.newOutputStream(jar))) {
+            output.putNextEntry(new ZipEntry(packagePath + "/"));
+            output.closeEntry();
+
+            for (int i = 0; i < count; i++) {
+                String className = packagePath + "/Synthetic" + i;
+                output.putNextEntry(new ZipEntry(className + ".class"));
+                writeClass(output, className, i % 10 == 0);
+                output.closeEntry();
+            }
+        }
+
+        jar.toFile().deleteOnExit();
+        return jar;
+    }
+
+    /**
+     * Writes the class file of an empty class.
+     *
+     * @param stream    stream
+     * @param className internal class name
+     * @param annotated true to annotate the class with @Component
+     */
+    @SneakyThrows
+    private static void writeClass(@Nonnull OutputStream stream, @Nonnull String className, boolean annotated) {
+        DataOutputStream output = new DataOutputStream(stream);
+
+        output.writeInt(0xCAFEBABE);
+        output.writeShort(0);
+        output.writeShort(52);
+
+        output.writeShort(annotated ? 7 : 5);
+        output.writeByte(1);
+        output.writeUTF(className);
+        output.writeByte(7);
+        output.writeShort(1);
+        output.writeByte(1);
+        output.writeUTF("java/lang/Object");
+        output.writeByte(7);
+        output.writeShort(3);
+        if (annotated) {
+            output.writeByte(1);
+            output.writeUTF("RuntimeVisibleAnnotations");
+            output.writeByte(1);
+            output.writeUTF(COMPONENT);
+        }
+
+        output.writeShort(0x0021);
+        output.writeShort(2);
+        output.writeShort(4);
+        output.writeShort(0);
+        output.writeShort(0);
+        output.writeShort(0);
+
+        output.writeShort(annotated ? 1 : 0);
+        if (annotated) {
+            output.writeShort(5);
+            output.writeInt(6);
+            output.writeShort(1);
+            output.writeShort(6);
+            output.writeShort(0);
+        }
+
+        output.flush();
+    }
+
+    /**
+     * Reads the bytecode of the given class.
+     *
+     * @param clazz class
+     * @return bytecode
+     */
+    @SneakyThrows
+    private static @Nonnull byte[] readBytes(@Nonnull Class<?> clazz) {
+        String resource = clazz.getName().replace('.', '/') + ".class";
+
+        try (InputStream stream = clazz.getClassLoader().getResourceAsStream(resource)) {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            for (int read = stream.read(buffer); read != -1; read = stream.read(buffer))
+                output.write(buffer, 0, read);
+            return output.toByteArray();
+        }
+    }
+
+
+
+    /**
+     * Binding is the class that is
+     * copied by {@link SyntheticClasses}.
+     */
+    public static class Binding {
+
+    }
+
+    /**
+     * DefiningClassLoader is a class loader
+     * that defines the given bytecode directly.
+     */
+    private static class DefiningClassLoader extends ClassLoader {
+
+        /**
+         * Constructor of {@link DefiningClassLoader}.
+         */
+        private DefiningClassLoader() {
+            super(SyntheticClasses.class.getClassLoader());
+        }
+
+        /**
+         * Defines the class from the given bytecode.
+         *
+         * @param name  class name
+         * @param bytes bytecode
+         * @return class
+         */
+        private @Nonnull Class<?> define(@Nonnull String name, @Nonnull byte[] bytes) {
+            return super.defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.hakan.basicdi.entity;
+
+import com.hakan.basicdi.Injector;
+import com.hakan.basicdi.annotations.Autowired;
+import com.hakan.basicdi.annotations.Component;
+import com.hakan.basicdi.annotations.PostConstruct;
+import com.hakan.basicdi.annotations.Provide;
+import com.hakan.basicdi.annotations.Service;
+import com.hakan.basicdi.entity.impl.ClassEntity;
+import com.hakan.basicdi.module.Module;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the creation of singleton and prototype
+ * class entities, the compiled instantiation plan of
+ * a class entity, and the invocation of provider
+ * method entities.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class EntityBenchmark {
+
+    private AbstractEntity singleton;
+    private AbstractEntity prototype;
+    private AbstractEntity provider;
+    private ClassEntity planned;
+
+    @Setup
+    public void setup() {
+        Injector injector = Injector.of(new ExampleModule()).create();
+
+        this.singleton = injector.getModule().getEntity(ExampleService.class);
+        this.prototype = injector.getModule().getEntity(ExampleComponent.class);
+        this.provider = injector.getModule().getEntity(ExampleConfig.class);
+        this.planned = new ClassEntity(injector.getModule(), ExampleComponent.class, com.hakan.basicdi.entity.Scope.PROTOTYPE);
+    }
+
+
+    @Benchmark
+    public Object singletonGetInstance() {
+        return this.singleton.getInstance();
+    }
+
+    @Benchmark
+    public Object singletonCreateInstance() {
+        return this.singleton.createInstance();
+    }
+
+    @Benchmark
+    public Object prototypeGetInstance() {
+        return this.prototype.getInstance();
+    }
+
+    @Benchmark
+    public Object planCreateInstance() {
+        return this.planned.createInstance();
+    }
+
+    @Benchmark
+    public Object providerCreateInstance() {
+        return this.provider.createInstance();
+    }
+
+    @Benchmark
+    public Object plainNew() {
+        ExampleComponent component = new ExampleComponent((ExampleService) this.singleton.getInstance());
+        component.service = (ExampleService) this.singleton.getInstance();
+        component.init();
+        return component;
+    }
+
+
+
+    public static class ExampleModule extends Module {
+
+        @Override
+        public void configure() {
+            this.bind(ExampleService.class);
+            this.bind(ExampleComponent.class);
+        }
+
+        @Provide
+        public ExampleConfig config(ExampleService service) {
+            return new ExampleConfig();
+        }
+    }
+
+    public static class ExampleConfig {
+
+    }
+
+    @Service
+    public static class ExampleService {
+
+    }
+
+    @Component(scope = com.hakan.basicdi.entity.Scope.PROTOTYPE)
+    public static class ExampleComponent {
+
+        @Autowired
+        private ExampleService service;
+
+        @Autowired
+        public ExampleComponent(ExampleService service) {
+
+        }
+
+        @PostConstruct
+        public void init() {
+
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.hakan.basicdi.entity;
+
+import com.hakan.basicdi.Injector;
+import com.hakan.basicdi.annotations.Component;
+import com.hakan.basicdi.annotations.PreRelease;
+import com.hakan.basicdi.module.Module;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares pooled instances against
+ * prototype instances of an expensive
+ * class.
+ */
+@State(org.openjdk.jmh.annotations.Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PooledBenchmark {
+
+    private Injector injector;
+
+    @Setup
+    public void setup() {
+        this.injector = Injector.of(new ExampleModule()).create();
+    }
+
+
+    @Benchmark
+    @Threads(4)
+    public int prototype() {
+        return this.injector.getInstance(PrototypeBuffer.class).buffer.length;
+    }
+
+    @Benchmark
+    @Threads(4)
+    public int pooled() {
+        PooledBuffer buffer = this.injector.acquire(PooledBuffer.class);
+        try {
+            return buffer.buffer.length;
+        } finally {
+            this.injector.release(PooledBuffer.class, buffer);
+        }
+    }
+
+
+
+    public static class ExampleModule extends Module {
+
+        @Override
+        public void configure() {
+            this.bind(PrototypeBuffer.class);
+            this.bind(PooledBuffer.class);
+        }
+    }
+
+    @Component(scope = Scope.PROTOTYPE)
+    public static class PrototypeBuffer {
+
+        private final byte[] buffer = new byte[64 * 1024];
+    }
+
+    @Component(scope = Scope.POOLED)
+    public static class PooledBuffer {
+
+        private final byte[] buffer = new byte[64 * 1024];
+
+        @PreRelease
+        public void reset() {
+            this.buffer[0] = 0;
+        }
+    }
+}
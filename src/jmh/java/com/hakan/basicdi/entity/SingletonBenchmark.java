@@ -0,0 +1,60 @@
+package com.hakan.basicdi.entity;
+
+import com.hakan.basicdi.Injector;
+import com.hakan.basicdi.annotations.Service;
+import com.hakan.basicdi.module.Module;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures contended {@link Injector#getInstance(Class)}
+ * calls on a singleton which is already created.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SingletonBenchmark {
+
+    private Injector injector;
+
+    @Setup
+    public void setup() {
+        this.injector = Injector.of(new ExampleModule()).create();
+    }
+
+
+    @Benchmark
+    @Threads(1)
+    public ExampleService getInstanceUncontended() {
+        return this.injector.getInstance(ExampleService.class);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public ExampleService getInstanceContended() {
+        return this.injector.getInstance(ExampleService.class);
+    }
+
+
+
+    public static class ExampleModule extends Module {
+
+        @Override
+        public void configure() {
+            this.bind(ExampleService.class);
+        }
+    }
+
+    @Service
+    public static class ExampleService {
+
+    }
+}
@@ -0,0 +1,61 @@
+package com.hakan.basicdi.module;
+
+import com.hakan.basicdi.SyntheticClasses;
+import com.hakan.basicdi.entity.AbstractEntity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link Module#getEntity(Class)} against
+ * the count of bindings. The first and the last bound
+ * types are looked up, so a linear scan would show
+ * up as a growing gap between them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ModuleBenchmark {
+
+    @Param({"10", "100", "1000", "5000"})
+    public int bindings;
+
+    private Module module;
+    private Class<?> firstType;
+    private Class<?> lastType;
+
+    @Setup
+    public void setup() {
+        List<Class<?>> types = SyntheticClasses.create(this.bindings);
+
+        this.module = new Module() {
+            @Override
+            public void configure() {
+                types.forEach(this::bind);
+            }
+        };
+        this.module.configure();
+
+        this.firstType = types.get(0);
+        this.lastType = types.get(types.size() - 1);
+    }
+
+
+    @Benchmark
+    public AbstractEntity getEntityFirst() {
+        return this.module.getEntity(this.firstType);
+    }
+
+    @Benchmark
+    public AbstractEntity getEntityLast() {
+        return this.module.getEntity(this.lastType);
+    }
+}
@@ -0,0 +1,81 @@
+package com.hakan.basicdi.module;
+
+import com.hakan.basicdi.Injector;
+import com.hakan.basicdi.SyntheticClasses;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the configure time of a deep module
+ * hierarchy, where every level installs two modules
+ * which both install the same module of the level
+ * below. Without idempotent installation, the
+ * configure count would double at every level.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ModuleHierarchyBenchmark {
+
+    @Param({"4", "8", "16"})
+    public int depth;
+
+    private List<Class<?>> types;
+
+    @Setup
+    public void setup() {
+        this.types = SyntheticClasses.create(20);
+    }
+
+
+    @Benchmark
+    public Injector configureDiamond() {
+        Module module = new LeafModule(this.types);
+        for (int i = 0; i < this.depth; i++) {
+            Module shared = module;
+            module = new HierarchyModule(new HierarchyModule(shared), new HierarchyModule(shared));
+        }
+
+        return Injector.of(module);
+    }
+
+
+
+    public static class HierarchyModule extends Module {
+
+        private final Module[] children;
+
+        public HierarchyModule(Module... children) {
+            this.children = children;
+        }
+
+        @Override
+        public void configure() {
+            for (Module child : this.children)
+                this.install(child);
+        }
+    }
+
+    public static class LeafModule extends Module {
+
+        private final List<Class<?>> types;
+
+        public LeafModule(List<Class<?>> types) {
+            this.types = types;
+        }
+
+        @Override
+        public void configure() {
+            this.types.forEach(this::bind);
+        }
+    }
+}
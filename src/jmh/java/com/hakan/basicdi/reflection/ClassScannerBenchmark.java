@@ -0,0 +1,75 @@
+package com.hakan.basicdi.reflection;
+
+import com.hakan.basicdi.SyntheticClasses;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures package scanning on synthetic
+ * jar files of several sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ClassScannerBenchmark {
+
+    private static final String BASE_PACKAGE = "com.hakan.basicdi.synthetic";
+
+    @Param({"1000", "10000", "40000"})
+    public int classes;
+
+    private URLClassLoader classLoader;
+    private ClassScanner scanner;
+
+    @Setup
+    public void setup() throws IOException {
+        Path jar = SyntheticClasses.createJar(BASE_PACKAGE, this.classes);
+
+        this.classLoader = new URLClassLoader(new URL[]{jar.toUri().toURL()}, this.getClass().getClassLoader());
+        this.scanner = new ClassScanner(this.classLoader);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        this.classLoader.close();
+    }
+
+
+    @Benchmark
+    public List<String> findClassNames() {
+        return this.scanner.findClassNames(BASE_PACKAGE);
+    }
+
+    @Benchmark
+    public List<String> findAnnotatedClassNames() {
+        return this.scanner.findClassNames(BASE_PACKAGE, ClassScanner.INJECTION_ANNOTATIONS);
+    }
+
+    @Benchmark
+    public Set<Class<?>> findClasses() {
+        Thread thread = Thread.currentThread();
+        ClassLoader previous = thread.getContextClassLoader();
+
+        thread.setContextClassLoader(this.classLoader);
+        try {
+            return ReflectionUtils.findClasses(BASE_PACKAGE);
+        } finally {
+            thread.setContextClassLoader(previous);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.hakan.basicdi.reflection;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares a cold package scan with a warm
+ * scan which is read from the {@link ScanCache}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ScanCacheBenchmark {
+
+    private static final String BASE_PACKAGE = "com.hakan.basicdi";
+
+    private ClassScanner coldScanner;
+    private ClassScanner warmScanner;
+
+    @Setup
+    public void setup() throws IOException {
+        ClassLoader classLoader = this.getClass().getClassLoader();
+        ScanCache cache = new ScanCache(Files.createTempDirectory("scan-cache"));
+
+        this.coldScanner = new ClassScanner(classLoader);
+        this.warmScanner = new ClassScanner(classLoader, cache);
+        this.warmScanner.findClassNames(BASE_PACKAGE, ClassScanner.INJECTION_ANNOTATIONS);
+    }
+
+
+    @Benchmark
+    public List<String> cold() {
+        return this.coldScanner.findClassNames(BASE_PACKAGE, ClassScanner.INJECTION_ANNOTATIONS);
+    }
+
+    @Benchmark
+    public List<String> warm() {
+        return this.warmScanner.findClassNames(BASE_PACKAGE, ClassScanner.INJECTION_ANNOTATIONS);
+    }
+}
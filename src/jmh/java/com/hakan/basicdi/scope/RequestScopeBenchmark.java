@@ -0,0 +1,90 @@
+package com.hakan.basicdi.scope;
+
+import com.hakan.basicdi.Injector;
+import com.hakan.basicdi.annotations.Autowired;
+import com.hakan.basicdi.annotations.Component;
+import com.hakan.basicdi.module.Module;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares building a small per-request
+ * object graph with prototype instances
+ * against a request scope.
+ */
+@State(org.openjdk.jmh.annotations.Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RequestScopeBenchmark {
+
+    private Injector injector;
+
+    @Setup
+    public void setup() {
+        this.injector = Injector.of(new ExampleModule()).create();
+    }
+
+
+    @Benchmark
+    public Object prototypeGraph() {
+        PrototypeHandler handler = this.injector.getInstance(PrototypeHandler.class);
+        this.injector.getInstance(PrototypeContext.class);
+        return handler;
+    }
+
+    @Benchmark
+    public Object requestGraph() {
+        try (RequestScope scope = this.injector.enterScope()) {
+            RequestHandler handler = this.injector.getInstance(RequestHandler.class);
+            this.injector.getInstance(RequestContext.class);
+            return handler;
+        }
+    }
+
+
+
+    public static class ExampleModule extends Module {
+
+        @Override
+        public void configure() {
+            this.bind(PrototypeContext.class);
+            this.bind(PrototypeHandler.class);
+            this.bind(RequestContext.class);
+            this.bind(RequestHandler.class);
+        }
+    }
+
+    @Component(scope = com.hakan.basicdi.entity.Scope.PROTOTYPE)
+    public static class PrototypeContext {
+
+    }
+
+    @Component(scope = com.hakan.basicdi.entity.Scope.PROTOTYPE)
+    public static class PrototypeHandler {
+
+        @Autowired
+        public PrototypeHandler(PrototypeContext context) {
+
+        }
+    }
+
+    @Component(scope = com.hakan.basicdi.entity.Scope.REQUEST)
+    public static class RequestContext {
+
+    }
+
+    @Component(scope = com.hakan.basicdi.entity.Scope.REQUEST)
+    public static class RequestHandler {
+
+        @Autowired
+        public RequestHandler(RequestContext context) {
+
+        }
+    }
+}
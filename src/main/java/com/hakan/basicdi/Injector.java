@@ -1,9 +1,25 @@
 package com.hakan.basicdi;
 
+import com.hakan.basicdi.entity.AbstractEntity;
+import com.hakan.basicdi.graph.GraphSnapshot;
+import com.hakan.basicdi.key.Key;
+import com.hakan.basicdi.metrics.InjectionListener;
 import com.hakan.basicdi.module.Module;
 import com.hakan.basicdi.module.impl.CombinerModule;
+import com.hakan.basicdi.module.impl.SnapshotModule;
+import com.hakan.basicdi.provider.Provider;
+import com.hakan.basicdi.scope.ObjectPool;
+import com.hakan.basicdi.scope.RequestScope;
 
 import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Injector is a class that provides dependency injection
@@ -21,6 +37,74 @@ public class Injector {
         return new Injector(new CombinerModule(modules)).configure();
     }
 
+    /**
+     * Creates a new {@link Injector} instance from
+     * the given snapshot. Modules are not configured,
+     * they are only used to call their provider and
+     * runner methods.
+     *
+     * @param snapshot snapshot
+     * @param modules  modules
+     * @return new instance of {@link Injector}
+     */
+    public static @Nonnull Injector fromSnapshot(@Nonnull GraphSnapshot snapshot,
+                                                 @Nonnull Module... modules) {
+        return new Injector(new SnapshotModule(snapshot, modules)).configure();
+    }
+
+    /**
+     * Creates a new {@link Injector} instance from
+     * the snapshot file if it is valid for the
+     * current classpath and the given modules, and
+     * it can be restored. Otherwise, the modules
+     * are configured and validated, and the snapshot
+     * is written to the file for the next start.
+     * Snapshot is skipped if an entity cannot be
+     * stored or the file cannot be written, since
+     * it only speeds up the next start.
+     *
+     * @param file    snapshot file
+     * @param modules modules
+     * @return new instance of {@link Injector}
+     */
+    public static @Nonnull Injector fromSnapshot(@Nonnull Path file,
+                                                 @Nonnull Module... modules) {
+        long fingerprint = GraphSnapshot.fingerprint(modules);
+        GraphSnapshot snapshot = GraphSnapshot.read(file, fingerprint);
+        if (snapshot != null) {
+            try {
+                return fromSnapshot(snapshot, modules);
+            } catch (Exception e) {
+                deleteSnapshot(file);
+            }
+        }
+
+        Injector injector = of(modules).validate();
+        if (!GraphSnapshot.isStorable(injector.module))
+            return injector;
+
+        try {
+            injector.snapshot().write(file, fingerprint);
+        } catch (Exception ignored) {
+
+        }
+        return injector;
+    }
+
+    /**
+     * Deletes the snapshot file which
+     * cannot be restored anymore.
+     *
+     * @param file snapshot file
+     */
+    private static void deleteSnapshot(@Nonnull Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+
+        }
+    }
+
 
 
     private final Module module;
@@ -43,6 +127,42 @@ private Injector(@Nonnull Module module) {
         return this.module;
     }
 
+    /**
+     * Sets the listener which is notified
+     * about the injection events, such as the
+     * creation of the instances and the lookups.
+     * <p>
+     * Package scans are reported to the default
+     * listener of {@link com.hakan.basicdi.reflection.ClassScanner}.
+     *
+     * @param listener listener
+     * @return this
+     */
+    public @Nonnull Injector withListener(@Nonnull InjectionListener listener) {
+        this.module.withListener(listener);
+        return this;
+    }
+
+    /**
+     * Creates a child injector with the given
+     * modules. Child has its own bindings, and
+     * the types which are not bound to the child
+     * are looked up from this injector, so the
+     * bindings of this injector are not copied
+     * or configured again.
+     *
+     * @param modules modules of the child
+     * @return child injector
+     */
+    public @Nonnull Injector createChild(@Nonnull Module... modules) {
+        Module child = new CombinerModule(modules)
+                .withParent(this.module)
+                .withListener(this.module.getListener());
+        if (this.module.findExecutor() != null)
+            child.withExecutor(this.module.findExecutor());
+        return new Injector(child).configure();
+    }
+
     /**
      * Returns the instance of the given class.
      *
@@ -54,6 +174,152 @@ private Injector(@Nonnull Module module) {
         return this.module.getInstance(clazz);
     }
 
+    /**
+     * Returns the instance of the given class
+     * which is bound with the given name.
+     *
+     * @param clazz class
+     * @param name  name of the {@link com.hakan.basicdi.annotations.Named} qualifier
+     * @param <T>   type
+     * @return instance
+     */
+    public @Nonnull <T> T getInstance(@Nonnull Class<T> clazz, @Nonnull String name) {
+        return this.module.getInstance(Key.of(clazz, name));
+    }
+
+    /**
+     * Returns the instance of the given key.
+     *
+     * @param key key
+     * @param <T> type
+     * @return instance
+     */
+    public @Nonnull <T> T getInstance(@Nonnull Key key) {
+        return this.module.getInstance(key);
+    }
+
+    /**
+     * Returns a provider of the given class,
+     * which returns the instance when it is
+     * requested.
+     *
+     * @param clazz class
+     * @param <T>   type
+     * @return provider
+     */
+    public @Nonnull <T> Provider<T> getProvider(@Nonnull Class<T> clazz) {
+        return this.module.getProvider(clazz);
+    }
+
+    /**
+     * Enters a new request scope on the current
+     * thread. Request scoped instances are created
+     * at the first use in the scope, and dropped
+     * when the scope is closed.
+     *
+     * @return scope
+     */
+    public @Nonnull RequestScope enterScope() {
+        return RequestScope.enter(this.module);
+    }
+
+    /**
+     * Acquires an instance of the given
+     * pooled class. It must be released
+     * with {@link #release(Class, Object)}
+     * when it is not used anymore.
+     *
+     * @param clazz class
+     * @param <T>   type
+     * @return instance
+     */
+    public @Nonnull <T> T acquire(@Nonnull Class<T> clazz) {
+        return this.module.acquire(clazz);
+    }
+
+    /**
+     * Releases the instance back to the
+     * pool of the given class.
+     *
+     * @param clazz    class
+     * @param instance instance
+     * @param <T>      type
+     */
+    public <T> void release(@Nonnull Class<T> clazz, @Nonnull T instance) {
+        this.module.release(clazz, instance);
+    }
+
+    /**
+     * Returns the instances of every class
+     * which is bound to the given type, such
+     * as the implementations of an interface.
+     *
+     * @param clazz class
+     * @param <T>   type
+     * @return immutable list of the instances
+     */
+    public @Nonnull <T> List<T> getInstances(@Nonnull Class<T> clazz) {
+        return this.module.getInstances(clazz);
+    }
+
+    /**
+     * Returns the instances of every class
+     * which is bound to the given type by
+     * their keys.
+     *
+     * @param clazz class
+     * @param <T>   type
+     * @return immutable map of the instances
+     * @see Module#getInstanceMap(Class)
+     */
+    public @Nonnull <T> Map<String, T> getInstanceMap(@Nonnull Class<T> clazz) {
+        return this.module.getInstanceMap(clazz);
+    }
+
+    /**
+     * Returns the keys which are bound to more
+     * than one class without a primary one, so
+     * they can be reported at startup.
+     *
+     * @return ambiguous keys and their entities
+     */
+    public @Nonnull Map<Key, List<AbstractEntity>> getAmbiguousBindings() {
+        return this.module.getAmbiguousBindings();
+    }
+
+    /**
+     * Returns the pool of the given pooled
+     * class, which also contains its metrics.
+     *
+     * @param clazz class
+     * @return pool
+     */
+    public @Nonnull ObjectPool getPool(@Nonnull Class<?> clazz) {
+        return this.module.getEntity(clazz).getPool();
+    }
+
+    /**
+     * Removes the thread scoped instances
+     * of the current thread.
+     *
+     * @return this
+     */
+    public @Nonnull Injector cleanupThread() {
+        this.module.cleanupThread();
+        return this;
+    }
+
+    /**
+     * Shuts down the injector by cancelling
+     * its async and periodic runners.
+     *
+     * @return this
+     */
+    public @Nonnull Injector shutdown() {
+        this.module.shutdown();
+        return this;
+    }
+
     /**
      * Initializes the {@link Injector}.
      *
@@ -64,6 +330,33 @@ private Injector(@Nonnull Module module) {
         return this;
     }
 
+    /**
+     * Validates the dependency graph of this
+     * injector, so missing bindings and constructor
+     * cycles fail fast with their full paths
+     * instead of at the first use. Dependencies
+     * are resolved once, before the creation.
+     *
+     * @return this
+     * @throws RuntimeException if the graph is not valid
+     */
+    public @Nonnull Injector validate() {
+        this.module.validate();
+        return this;
+    }
+
+    /**
+     * Creates a snapshot of the validated
+     * dependency graph of this injector, which
+     * can be restored with {@link #fromSnapshot(GraphSnapshot, Module...)}.
+     * Bindings of the parent are not included.
+     *
+     * @return snapshot
+     */
+    public @Nonnull GraphSnapshot snapshot() {
+        return GraphSnapshot.of(this.module);
+    }
+
     /**
      * Creates all instances of the entities
      * that are bound to this injector.
@@ -74,4 +367,57 @@ private Injector(@Nonnull Module module) {
         this.module.create();
         return this;
     }
+
+    /**
+     * Creates all instances of the entities
+     * that are bound to this injector asynchronously.
+     * Async providers, such as the @Provide methods
+     * which return a {@link java.util.concurrent.CompletableFuture},
+     * run on the executor of the module, and every
+     * entity waits only for its own dependencies.
+     *
+     * @return future which completes with this when the graph is ready
+     */
+    public @Nonnull CompletableFuture<Injector> createAsync() {
+        return this.module.createAsync().thenApply(ignored -> this);
+    }
+
+    /**
+     * Creates all instances of the entities
+     * that are bound to this injector asynchronously
+     * with the given executor.
+     *
+     * @param executor executor of the async providers
+     * @return future which completes with this when the graph is ready
+     * @see #createAsync()
+     */
+    public @Nonnull CompletableFuture<Injector> createAsync(@Nonnull Executor executor) {
+        return this.module.createAsync(executor).thenApply(ignored -> this);
+    }
+
+    /**
+     * Creates all instances of the entities
+     * that are bound to this injector concurrently
+     * with the common {@link ForkJoinPool}.
+     *
+     * @return this
+     */
+    public @Nonnull Injector createParallel() {
+        return this.createParallel(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates all instances of the entities
+     * that are bound to this injector concurrently
+     * with the given executor. Independent entities
+     * are created at the same time, and every entity
+     * is created after its dependencies.
+     *
+     * @param executor executor
+     * @return this
+     */
+    public @Nonnull Injector createParallel(@Nonnull Executor executor) {
+        this.module.create(executor);
+        return this;
+    }
 }
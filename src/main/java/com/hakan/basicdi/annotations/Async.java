@@ -0,0 +1,24 @@
+package com.hakan.basicdi.annotations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Async annotation is used to call a @Provide
+ * method on the executor of the module when the
+ * module is created asynchronously, so slow
+ * providers do not block each other.
+ * <p>
+ * Provide methods which return a
+ * {@link java.util.concurrent.CompletionStage}
+ * are always asynchronous.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Async {
+
+}
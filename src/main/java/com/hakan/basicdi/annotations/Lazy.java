@@ -0,0 +1,25 @@
+package com.hakan.basicdi.annotations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Lazy annotation is used to defer the
+ * creation of an instance until it is used.
+ * <p>
+ * On a class or @Provide method, the instance
+ * is not created when the module is created,
+ * it is created at the first request.
+ * On a field or parameter of an interface type,
+ * a proxy is injected, and the instance is
+ * created at the first method call.
+ */
+@Documented
+@Target({ElementType.TYPE, ElementType.METHOD, ElementType.FIELD, ElementType.PARAMETER})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Lazy {
+
+}
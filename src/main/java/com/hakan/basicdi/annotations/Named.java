@@ -0,0 +1,27 @@
+package com.hakan.basicdi.annotations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Named annotation is a {@link Qualifier}
+ * which distinguishes the entities of the
+ * same type by their names, such as the read
+ * and write replicas of a data source.
+ */
+@Qualifier
+@Documented
+@Target({ElementType.TYPE, ElementType.METHOD, ElementType.FIELD, ElementType.PARAMETER})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Named {
+
+    /**
+     * Name of the entity.
+     *
+     * @return name
+     */
+    String value();
+}
@@ -0,0 +1,25 @@
+package com.hakan.basicdi.annotations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * PoolSize annotation is used to specify
+ * the maximum count of the idle instances
+ * of a class with pooled scope.
+ */
+@Documented
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface PoolSize {
+
+    /**
+     * Maximum count of the idle instances.
+     *
+     * @return pool size
+     */
+    int value();
+}
@@ -0,0 +1,19 @@
+package com.hakan.basicdi.annotations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * PostAcquire annotation is used to
+ * specify the method that will be executed
+ * after a pooled instance is acquired.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface PostAcquire {
+
+}
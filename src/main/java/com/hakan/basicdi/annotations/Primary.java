@@ -0,0 +1,23 @@
+package com.hakan.basicdi.annotations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Primary annotation is used to choose the
+ * entity of a class or @Provide method when
+ * more than one bound entity implements the
+ * requested type.
+ * <p>
+ * Without a primary entity, such a type
+ * is ambiguous and it cannot be injected.
+ */
+@Documented
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Primary {
+
+}
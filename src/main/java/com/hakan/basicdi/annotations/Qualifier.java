@@ -0,0 +1,25 @@
+package com.hakan.basicdi.annotations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Qualifier annotation is used to declare
+ * custom qualifier annotations, such as
+ * {@link Named}.
+ * <p>
+ * A qualifier on a class or @Provide method
+ * binds the entity to its types with the
+ * qualifier, and a qualifier on an injected
+ * field or parameter injects only the entity
+ * with the same qualifier.
+ */
+@Documented
+@Target(ElementType.ANNOTATION_TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Qualifier {
+
+}
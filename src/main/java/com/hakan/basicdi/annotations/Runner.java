@@ -1,22 +1,65 @@
 package com.hakan.basicdi.annotations;
 
 import com.hakan.basicdi.module.Module;
+import com.hakan.basicdi.runner.RunMode;
 
 import java.lang.annotation.Documented;
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Runner annotation to define runner methods. These methods
  * will be executed after the injection process is started,
  * and the methods must be inside the class that is implemented
  * with {@link Module}.
+ * <p>
+ * Runners run once, after the other instances of the
+ * module are created, in ascending {@link #order()}.
  */
 @Documented
 @Target(ElementType.METHOD)
 @Retention(RetentionPolicy.RUNTIME)
 public @interface Runner {
 
+    /**
+     * The way that the runnable is executed.
+     *
+     * @return run mode
+     */
+    RunMode mode() default RunMode.SYNC;
+
+    /**
+     * Order of the runner, runners with a
+     * lower order are executed first. Runners
+     * with the same order are executed in
+     * binding order.
+     *
+     * @return order
+     */
+    int order() default 0;
+
+    /**
+     * Delay of the first run of a periodic runner.
+     *
+     * @return initial delay
+     */
+    long initialDelay() default 0;
+
+    /**
+     * Period or delay between the runs of a
+     * periodic runner, it must be positive.
+     *
+     * @return period
+     */
+    long period() default 0;
+
+    /**
+     * Time unit of the delays.
+     *
+     * @return time unit
+     */
+    TimeUnit unit() default TimeUnit.MILLISECONDS;
 }
@@ -1,12 +1,31 @@
 package com.hakan.basicdi.entity;
 
+import com.hakan.basicdi.annotations.PoolSize;
+import com.hakan.basicdi.annotations.PostAcquire;
+import com.hakan.basicdi.annotations.PreDestroy;
+import com.hakan.basicdi.annotations.PreRelease;
+import com.hakan.basicdi.key.Key;
+import com.hakan.basicdi.metrics.InjectionListener;
 import com.hakan.basicdi.module.Module;
-import com.hakan.basicdi.reflection.Reflection;
+import com.hakan.basicdi.reflection.ClassMetadata;
+import com.hakan.basicdi.scope.ObjectPool;
+import com.hakan.basicdi.scope.RequestScope;
+import com.hakan.basicdi.scope.ScopeContext;
+import lombok.SneakyThrows;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 
 /**
  * AbstractEntity is an entity class that
@@ -16,13 +35,27 @@
  */
 public abstract class AbstractEntity {
 
+    private static final Map<Thread, AbstractEntity> WAITING = new ConcurrentHashMap<>();
+
     protected Module module;
     protected Scope scope;
-    protected Object instance;
-    protected Reflection reflection;
+    protected volatile Object instance;
+    protected ClassMetadata metadata;
+    protected boolean lazy;
+    protected boolean primary;
+    protected Object qualifier;
+    protected int slot;
+
+    private volatile Thread creator;
+    private Object earlyInstance;
+    private final ThreadLocal<Object> threadInstance;
+    private final Map<Class<? extends Annotation>, List<Method>> callbacks;
+    private volatile ObjectPool pool;
+    private int poolSize;
 
     protected Class<?> type;
     protected List<Class<?>> subTypes;
+    protected List<Type> genericSubTypes;
 
     /**
      * Constructor of {@link AbstractEntity}.
@@ -37,23 +70,173 @@ public AbstractEntity(@Nonnull Module module,
         this.type = type;
         this.scope = scope;
         this.module = module;
-        this.subTypes = new ArrayList<>();
-        this.reflection = new Reflection(type);
+        this.metadata = ClassMetadata.of(type);
+        this.subTypes = new ArrayList<>(this.metadata.getSubTypes());
+        this.genericSubTypes = this.metadata.getGenericSubTypes();
+        this.qualifier = this.metadata.getQualifier();
+        this.threadInstance = new ThreadLocal<>();
+        this.callbacks = new ConcurrentHashMap<>();
+        this.poolSize = type.isAnnotationPresent(PoolSize.class)
+                ? type.getAnnotation(PoolSize.class).value()
+                : Runtime.getRuntime().availableProcessors() * 2;
 
-        this.subTypes.add(type);
-        this.subTypes.add(type.getSuperclass());
-        this.subTypes.addAll(Arrays.asList(type.getInterfaces()));
     }
 
     /**
      * Returns the instance of the class.
      * Also, if scope is prototype, it will
      * create a new instance every time.
+     * <p>
+     * Thread scoped instances are kept in a
+     * thread local of this entity, and context
+     * scoped instances in the current
+     * {@link ScopeContext}, or in the root context
+     * of the module if there is none. Pooled instances
+     * are acquired from the pool, and they
+     * should be released with {@link #release(Object)}.
+     * Request scoped instances are kept in the
+     * slot of this entity in the current
+     * {@link RequestScope}.
+     * <p>
+     * Singleton instance is published after it is
+     * fully initialized, so the fast path is a single
+     * volatile read. Creation is claimed by one thread
+     * and the other threads wait for it, and the same
+     * thread can reach the instance which is being
+     * initialized through {@link #expose(Object)}, so
+     * circular field injection keeps working. If the
+     * creating thread is waiting for the current thread,
+     * the current thread takes the exposed instance as
+     * well, so a cycle which is created by more than
+     * one thread cannot deadlock.
      *
      * @return instance
      */
     public final @Nonnull Object getInstance() {
-        return this.createInstance();
+        switch (this.scope) {
+            case SINGLETON:
+                return this.getSingletonInstance();
+            case THREAD:
+                return this.getThreadInstance();
+            case CONTEXT:
+                ScopeContext context = ScopeContext.current();
+                return ((context != null) ? context : this.module.getScopeContext()).getInstance(this);
+            case POOLED:
+                return this.acquire();
+            case REQUEST:
+                return this.getRequestInstance();
+            default:
+                return this.create();
+        }
+    }
+
+    /**
+     * Returns the instance of the class
+     * asynchronously. By default, the instance
+     * is created on the calling thread, and
+     * entities which are slow to create run on
+     * the given executor.
+     *
+     * @param executor executor
+     * @return future of the instance
+     */
+    public @Nonnull CompletableFuture<Object> getInstanceAsync(@Nonnull Executor executor) {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        try {
+            future.complete(this.getInstance());
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Creates a new instance for a scope
+     * container, such as {@link ScopeContext}.
+     *
+     * @return instance
+     */
+    public final @Nonnull Object createScopedInstance() {
+        return this.create();
+    }
+
+    /**
+     * Calls the pre destroy methods of the
+     * given instance, which is removed from
+     * its scope.
+     *
+     * @param instance instance, or null
+     */
+    public final void destroyInstance(@Nullable Object instance) {
+        if (instance != null)
+            this.invokeCallbacks(PreDestroy.class, instance);
+    }
+
+    /**
+     * Takes an idle instance from the pool of
+     * this entity, or creates a new one if the
+     * pool is empty, and calls its post acquire
+     * methods.
+     *
+     * @return instance
+     */
+    public final @Nonnull Object acquire() {
+        if (this.scope != Scope.POOLED)
+            throw new RuntimeException("class " + this.type.getName() + " is not pooled");
+
+        Object instance = this.getPool().poll();
+        if (instance == null)
+            instance = this.create();
+
+        this.invokeCallbacks(PostAcquire.class, instance);
+        return instance;
+    }
+
+    /**
+     * Calls the pre release methods of the
+     * instance and puts it back to the pool.
+     * If the pool is full, the instance is
+     * destroyed.
+     *
+     * @param instance instance
+     */
+    public final void release(@Nonnull Object instance) {
+        if (this.scope != Scope.POOLED)
+            throw new RuntimeException("class " + this.type.getName() + " is not pooled");
+
+        this.invokeCallbacks(PreRelease.class, instance);
+        if (!this.getPool().offer(instance))
+            this.destroyInstance(instance);
+    }
+
+    /**
+     * Returns the pool of the idle instances,
+     * and creates it at the first call.
+     *
+     * @return pool
+     */
+    public final @Nonnull ObjectPool getPool() {
+        ObjectPool pool = this.pool;
+        if (pool == null) {
+            synchronized (this) {
+                if ((pool = this.pool) == null)
+                    this.pool = pool = new ObjectPool(this.poolSize);
+            }
+        }
+        return pool;
+    }
+
+    /**
+     * Removes the thread scoped instance of
+     * the current thread, and calls its pre
+     * destroy methods.
+     */
+    public final void cleanupThread() {
+        Object instance = this.threadInstance.get();
+        if (instance != null) {
+            this.threadInstance.remove();
+            this.destroyInstance(instance);
+        }
     }
 
     /**
@@ -84,7 +267,20 @@ public AbstractEntity(@Nonnull Module module,
     }
 
     /**
-     * Returns the subtypes of the class.
+     * Returns the reflection metadata of the
+     * class which the entity is created for.
+     *
+     * @return metadata
+     */
+    public final @Nonnull ClassMetadata getMetadata() {
+        return this.metadata;
+    }
+
+    /**
+     * Returns the subtypes of the class, which
+     * are the types that the entity is bound to.
+     * By default, they are the class and all of
+     * its superclasses and interfaces.
      *
      * @return subtypes
      */
@@ -92,6 +288,92 @@ public AbstractEntity(@Nonnull Module module,
         return this.subTypes;
     }
 
+    /**
+     * Returns the parameterized subtypes of the
+     * class in their canonical forms, which the
+     * entity is bound to in addition to its subtypes.
+     *
+     * @return generic subtypes
+     */
+    public final @Nonnull List<Type> getGenericSubTypes() {
+        return this.genericSubTypes;
+    }
+
+    /**
+     * Checks if the instance is created at the
+     * first request instead of the creation
+     * of the module.
+     *
+     * @return true if it is lazy
+     */
+    public final boolean isLazy() {
+        return this.lazy;
+    }
+
+    /**
+     * Checks if the entity is chosen when more
+     * than one entity is bound to a type.
+     *
+     * @return true if it is primary
+     */
+    public final boolean isPrimary() {
+        return this.primary;
+    }
+
+    /**
+     * Returns the qualifier of the entity, which
+     * binds it to its types with the qualifier
+     * in addition to the unqualified types.
+     *
+     * @return qualifier, or null if it is unqualified
+     * @see Key
+     */
+    public final @Nullable Object getQualifier() {
+        return this.qualifier;
+    }
+
+    /**
+     * Returns the slot of the entity in its
+     * module, which is the index of the entity
+     * in the instances of a {@link RequestScope}.
+     *
+     * @return slot
+     */
+    public final int getSlot() {
+        return this.slot;
+    }
+
+    /**
+     * Returns the keys that must be resolved
+     * from the module to create an instance.
+     *
+     * @return dependencies
+     */
+    public @Nonnull List<Key> getDependencies() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * Returns the dependencies which must be
+     * created before the instance exists, such
+     * as the constructor parameters. A cycle of
+     * them cannot be resolved.
+     *
+     * @return constructor dependencies
+     */
+    public @Nonnull List<Key> getConstructorDependencies() {
+        return this.getDependencies();
+    }
+
+    /**
+     * Resolves the dependencies of the entity
+     * before its first instance is created.
+     * It is called when the module is validated.
+     */
+    public void prepare() {
+
+    }
+
 
     /**
      * Sets the module of the class.
@@ -115,6 +397,77 @@ public AbstractEntity(@Nonnull Module module,
         return this;
     }
 
+    /**
+     * Sets the qualifier of the entity.
+     *
+     * @param qualifier name, qualifier annotation type
+     *                  or annotation, or null to remove it
+     * @return entity
+     * @see Key
+     */
+    public final @Nonnull AbstractEntity withQualifier(@Nullable Object qualifier) {
+        this.qualifier = Key.of(this.type, qualifier).getQualifier();
+
+        if (this.module.isBound(this))
+            this.module.reindex(this.subTypes);
+
+        return this;
+    }
+
+    /**
+     * Sets whether the instance is created at
+     * the first request instead of the creation
+     * of the module.
+     *
+     * @param lazy true to create it lazily
+     * @return entity
+     */
+    public final @Nonnull AbstractEntity withLazy(boolean lazy) {
+        this.lazy = lazy;
+        return this;
+    }
+
+    /**
+     * Sets whether the entity is chosen when
+     * more than one entity is bound to a type.
+     *
+     * @param primary true to make it primary
+     * @return entity
+     */
+    public final @Nonnull AbstractEntity withPrimary(boolean primary) {
+        this.primary = primary;
+
+        if (this.module.isBound(this))
+            this.module.reindex(this.subTypes);
+
+        return this;
+    }
+
+    /**
+     * Sets the maximum count of the idle
+     * instances of the pool. It must be
+     * set before the pool is used.
+     *
+     * @param poolSize pool size
+     * @return entity
+     */
+    public final @Nonnull AbstractEntity withPoolSize(int poolSize) {
+        this.poolSize = poolSize;
+        return this;
+    }
+
+    /**
+     * Sets the slot of the entity in its module.
+     * It is set when the entity is bound.
+     *
+     * @param slot slot
+     * @return entity
+     */
+    public final @Nonnull AbstractEntity withSlot(int slot) {
+        this.slot = slot;
+        return this;
+    }
+
     /**
      * Sets the instance of the class.
      *
@@ -127,7 +480,9 @@ public AbstractEntity(@Nonnull Module module,
     }
 
     /**
-     * Sets the type of the class.
+     * Sets the type of the class. It does not
+     * change the types which the entity is bound
+     * to, they are set with {@link #withSubTypes(List)}.
      *
      * @param type type
      * @return entity
@@ -144,18 +499,203 @@ public AbstractEntity(@Nonnull Module module,
      * @return entity
      */
     public final @Nonnull AbstractEntity withSubTypes(@Nonnull List<Class<?>> subTypes) {
+        List<Class<?>> previous = this.subTypes;
         this.subTypes = subTypes;
+
+        if (this.module.isBound(this)) {
+            this.module.reindex(previous);
+            this.module.reindex(subTypes);
+        }
+
         return this;
     }
 
 
 
+    /**
+     * Returns the singleton instance and
+     * creates it if it is not created yet.
+     *
+     * @return instance
+     */
+    private @Nonnull Object getSingletonInstance() {
+        Object instance = this.instance;
+        if (instance != null)
+            return instance;
+
+        Thread thread = Thread.currentThread();
+        synchronized (this) {
+            while (this.instance == null && this.creator != null && this.creator != thread) {
+                Object early = this.await(thread);
+                if (early != null) return early;
+            }
+
+            if (this.instance != null)
+                return this.instance;
+            if (this.creator == thread && this.earlyInstance != null)
+                return this.earlyInstance;
+            if (this.creator == thread)
+                throw new RuntimeException("circular dependency found for class " + this.type.getName());
+
+            this.creator = thread;
+        }
+
+        try {
+            return this.instance = this.create();
+        } finally {
+            synchronized (this) {
+                this.creator = null;
+                this.earlyInstance = null;
+                this.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Waits for the thread which is creating the
+     * singleton instance. If that thread is waiting
+     * for the given thread, directly or through other
+     * threads, the exposed instance is returned
+     * instead of waiting. It must be called
+     * with the lock of this entity.
+     *
+     * @param thread current thread
+     * @return exposed instance, or null after waiting
+     * @throws RuntimeException if the waiting threads form a
+     *                          cycle and no instance is exposed
+     */
+    private @Nullable Object await(@Nonnull Thread thread) {
+        WAITING.put(thread, this);
+        try {
+            if (this.isAwaitedBy(thread)) {
+                if (this.earlyInstance != null) return this.earlyInstance;
+                throw new RuntimeException("circular dependency found for class " + this.type.getName() + " across threads");
+            }
+
+            this.wait();
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("interrupted while waiting for class " + this.type.getName(), e);
+        } finally {
+            WAITING.remove(thread);
+        }
+    }
+
+    /**
+     * Checks if the thread which is creating the
+     * singleton instance waits for the given thread
+     * through the entities the threads wait for.
+     *
+     * @param thread thread
+     * @return true if they wait for each other
+     */
+    private boolean isAwaitedBy(@Nonnull Thread thread) {
+        Thread creator = this.creator;
+        for (int i = 0; creator != null && i <= WAITING.size(); i++) {
+            if (creator == thread)
+                return true;
+
+            AbstractEntity awaited = WAITING.get(creator);
+            creator = (awaited != null) ? awaited.creator : null;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the instance of the current
+     * thread and creates it if it is not
+     * created yet.
+     *
+     * @return instance
+     */
+    private @Nonnull Object getThreadInstance() {
+        Object instance = this.threadInstance.get();
+        if (instance == null)
+            this.threadInstance.set(instance = this.create());
+        return instance;
+    }
+
+    /**
+     * Returns the instance of the request
+     * scope of the current thread.
+     *
+     * @return instance
+     */
+    private @Nonnull Object getRequestInstance() {
+        RequestScope scope = RequestScope.current();
+        if (scope == null)
+            throw new RuntimeException("no request scope is entered for class " + this.type.getName());
+        return scope.getInstance(this);
+    }
+
+    /**
+     * Calls the methods of the instance which
+     * are annotated with the given annotation.
+     * Methods are found at the first call.
+     *
+     * @param annotation annotation
+     * @param instance   instance
+     */
+    @SneakyThrows
+    private void invokeCallbacks(@Nonnull Class<? extends Annotation> annotation,
+                                 @Nonnull Object instance) {
+        List<Method> methods = this.callbacks.computeIfAbsent(annotation, key -> {
+            List<Method> found = new ArrayList<>(this.metadata.getMethodsAnnotatedWith(key));
+            found.forEach(method -> method.setAccessible(true));
+            return found;
+        });
+
+        for (Method method : methods) {
+            try {
+                method.invoke(instance);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    /**
+     * Creates an instance and notifies the
+     * listener of the module if it is enabled.
+     *
+     * @return instance
+     */
+    private @Nonnull Object create() {
+        InjectionListener listener = this.module.getListener();
+        if (!listener.isEnabled())
+            return this.createInstance();
+
+        long start = System.nanoTime();
+        Object instance = this.createInstance();
+        listener.onEntityCreated(this, this.getDependencies().size(), System.nanoTime() - start);
+        return instance;
+    }
+
+    /**
+     * Exposes the singleton instance which is
+     * created but not initialized yet, to the
+     * thread which is creating it and to the
+     * threads which it waits for. Instances
+     * are exposed before their fields are
+     * injected, so classes can depend on each
+     * other through fields.
+     *
+     * @param instance instance
+     */
+    protected final synchronized void expose(@Nonnull Object instance) {
+        if (this.creator == Thread.currentThread())
+            this.earlyInstance = instance;
+    }
+
     /**
      * Creates an instance of the class
      * by calling the constructor or method.,
      * <p>
      * This method is abstract because it
      * will be implemented in the child classes.
+     * It always creates a new instance, singleton
+     * instances are cached by {@link #getInstance()}.
      *
      * @return instance
      */
@@ -1,14 +1,18 @@
 package com.hakan.basicdi.entity;
 
-import com.hakan.basicdi.annotations.Component;
+import com.hakan.basicdi.annotations.Lazy;
+import com.hakan.basicdi.annotations.Primary;
 import com.hakan.basicdi.annotations.Provide;
 import com.hakan.basicdi.annotations.Runner;
-import com.hakan.basicdi.annotations.Service;
 import com.hakan.basicdi.entity.impl.ClassEntity;
 import com.hakan.basicdi.entity.impl.EmptyEntity;
+import com.hakan.basicdi.entity.impl.GeneratedEntity;
 import com.hakan.basicdi.entity.impl.MethodProviderEntity;
 import com.hakan.basicdi.entity.impl.MethodRunnerEntity;
+import com.hakan.basicdi.generated.ComponentFactory;
+import com.hakan.basicdi.generated.GeneratedIndex;
 import com.hakan.basicdi.module.Module;
+import com.hakan.basicdi.reflection.ClassMetadata;
 
 import javax.annotation.Nonnull;
 import java.lang.reflect.Method;
@@ -20,6 +24,14 @@ public class EntityFactory {
      * and if constructor which is annotated
      * with @Autowired exists, InjectorEntity
      * will be created, otherwise EmptyEntity
+     * <p>
+     * If the annotation processor generated a
+     * factory for the type, GeneratedEntity is
+     * created and the type is not scanned.
+     * <p>
+     * Entity is lazy if the type is annotated
+     * with {@link Lazy}, and primary if it is
+     * annotated with {@link Primary}.
      *
      * @param module module
      * @param type   type
@@ -27,17 +39,17 @@ public class EntityFactory {
      */
     public static @Nonnull AbstractEntity create(@Nonnull Module module,
                                                  @Nonnull Class<?> type) {
-        if (type.isAnnotationPresent(Service.class))
-            return new ClassEntity(module, type, type.getAnnotation(Service.class).scope());
-        if (type.isAnnotationPresent(Component.class))
-            return new ClassEntity(module, type, type.getAnnotation(Component.class).scope());
-
-        return new EmptyEntity(module, type);
+        ClassMetadata metadata = ClassMetadata.of(type);
+        return create0(module, type).withLazy(metadata.isLazy()).withPrimary(metadata.isPrimary());
     }
 
     /**
      * Creates an entity with the class type
      * and method which is annotated with @Provide
+     * <p>
+     * Entity is lazy if the method is annotated
+     * with {@link Lazy}, and primary if it is
+     * annotated with {@link Primary}.
      *
      * @param module module
      * @param method method
@@ -45,6 +57,42 @@ public class EntityFactory {
      */
     public static @Nonnull AbstractEntity create(@Nonnull Module module,
                                                  @Nonnull Method method) {
+        return create0(module, method)
+                .withLazy(method.isAnnotationPresent(Lazy.class))
+                .withPrimary(method.isAnnotationPresent(Primary.class));
+    }
+
+
+
+    /**
+     * Creates an entity with the class type.
+     *
+     * @param module module
+     * @param type   type
+     * @return entity
+     */
+    private static @Nonnull AbstractEntity create0(@Nonnull Module module,
+                                                   @Nonnull Class<?> type) {
+        ComponentFactory<?> factory = GeneratedIndex.of(type.getClassLoader()).findFactory(type);
+        if (factory != null)
+            return new GeneratedEntity(module, type, factory);
+
+        Scope scope = ClassMetadata.of(type).getComponentScope();
+        if (scope != null)
+            return new ClassEntity(module, type, scope);
+
+        return new EmptyEntity(module, type);
+    }
+
+    /**
+     * Creates an entity with the method.
+     *
+     * @param module module
+     * @param method method
+     * @return entity
+     */
+    private static @Nonnull AbstractEntity create0(@Nonnull Module module,
+                                                   @Nonnull Method method) {
         if (method.isAnnotationPresent(Provide.class))
             return new MethodProviderEntity(module, method);
         if (method.isAnnotationPresent(Runner.class))
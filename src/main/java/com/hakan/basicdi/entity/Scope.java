@@ -4,4 +4,46 @@ public enum Scope {
 
     SINGLETON,
     PROTOTYPE,
+
+    /**
+     * One instance per thread, which is reused
+     * by every request of the same thread. For
+     * virtual threads, it is one instance per
+     * virtual thread, use {@link #CONTEXT} to
+     * share an instance between them.
+     * <p>
+     * Instances of the current thread are removed
+     * with {@link com.hakan.basicdi.module.Module#cleanupThread()}.
+     */
+    THREAD,
+
+    /**
+     * One instance per {@link com.hakan.basicdi.scope.ScopeContext},
+     * which is shared by the threads that inherit
+     * the context, such as the virtual threads which
+     * are started in the context. Outside of any
+     * context, the root context is used.
+     * <p>
+     * Instances are removed when the context is closed.
+     */
+    CONTEXT,
+
+    /**
+     * Idle instances are kept in a bounded pool
+     * of the entity and reused. Instances are
+     * acquired with {@link com.hakan.basicdi.module.Module#acquire(Class)}
+     * and released back to the pool with
+     * {@link com.hakan.basicdi.module.Module#release(Class, Object)}.
+     * Instances which are injected to other
+     * classes are never released.
+     */
+    POOLED,
+
+    /**
+     * One instance per {@link com.hakan.basicdi.scope.RequestScope},
+     * which is entered by the current thread with
+     * {@link com.hakan.basicdi.Injector#enterScope()}.
+     * Instances are dropped when the scope is closed.
+     */
+    REQUEST,
 }
@@ -1,18 +1,22 @@
 package com.hakan.basicdi.entity.impl;
 
 import com.hakan.basicdi.annotations.Autowired;
-import com.hakan.basicdi.annotations.PostConstruct;
 import com.hakan.basicdi.entity.AbstractEntity;
 import com.hakan.basicdi.entity.Scope;
+import com.hakan.basicdi.entity.plan.InjectionPoint;
+import com.hakan.basicdi.entity.plan.InstantiationPlan;
+import com.hakan.basicdi.key.Key;
+import com.hakan.basicdi.metrics.InjectionListener;
 import com.hakan.basicdi.module.Module;
 import com.hakan.basicdi.reflection.ReflectionUtils;
-import lombok.SneakyThrows;
 
 import javax.annotation.Nonnull;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -26,6 +30,9 @@ public class ClassEntity extends AbstractEntity {
     private final Set<Field> fields;
     private final Set<Method> postConstructMethods;
     private final Constructor<?> constructor;
+    private final List<Key> dependencies;
+    private final List<Key> constructorDependencies;
+    private InstantiationPlan plan;
 
     /**
      * Constructor of {@link ClassEntity}.
@@ -38,13 +45,20 @@ public ClassEntity(@Nonnull Module module,
                        @Nonnull Class<?> type,
                        @Nonnull Scope scope) {
         super(module, type, scope);
-        this.fields = super.reflection.getFieldsAnnotatedWith(Autowired.class);
+        this.fields = super.metadata.getInjectableFields();
         this.constructor = ReflectionUtils.getConstructor(type, Autowired.class);
-        this.postConstructMethods = super.reflection.getMethodsAnnotatedWith(PostConstruct.class);
+        this.postConstructMethods = super.metadata.getPostConstructMethods();
 
         this.constructor.setAccessible(true);
         this.fields.forEach(field -> field.setAccessible(true));
         this.postConstructMethods.forEach(method -> method.setAccessible(true));
+
+        List<Key> dependencies = new ArrayList<>();
+        for (int i = 0; i < this.constructor.getParameterCount(); i++)
+            addDependency(dependencies, InjectionPoint.of(this.constructor, i));
+        this.constructorDependencies = Collections.unmodifiableList(new ArrayList<>(dependencies));
+        this.fields.forEach(field -> addDependency(dependencies, InjectionPoint.of(field)));
+        this.dependencies = Collections.unmodifiableList(dependencies);
     }
 
     /**
@@ -68,30 +82,92 @@ public ClassEntity(@Nonnull Module module,
         return this.constructor;
     }
 
+    /**
+     * Returns the keys of the constructor parameters
+     * and the fields to inject. Deferred injection
+     * points are not dependencies, since they are
+     * resolved when they are used.
+     *
+     * @return dependencies
+     */
+    @Override
+    public @Nonnull List<Key> getDependencies() {
+        return this.dependencies;
+    }
+
+    /**
+     * Returns the keys of the constructor
+     * parameters, except the deferred ones.
+     *
+     * @return constructor dependencies
+     */
+    @Override
+    public @Nonnull List<Key> getConstructorDependencies() {
+        return this.constructorDependencies;
+    }
+
+    /**
+     * Returns the instantiation plan of the class.
+     * Plan is compiled at the first call, since
+     * dependencies must be bound to the module
+     * before they are resolved, and compiled again
+     * after the bindings of the module change.
+     *
+     * @return instantiation plan
+     */
+    public @Nonnull InstantiationPlan getPlan() {
+        InstantiationPlan plan = this.plan;
+        if (plan == null || !plan.isValid(super.module))
+            this.plan = plan = InstantiationPlan.compile(super.module, this.constructor, this.fields, this.postConstructMethods);
+        return plan;
+    }
+
+    /**
+     * Compiles the instantiation plan, so the
+     * dependencies are resolved before the
+     * first instance is created.
+     */
+    @Override
+    public void prepare() {
+        this.getPlan();
+    }
+
 
     /**
      * {@inheritDoc}
      */
     @Override
-    @SneakyThrows
     public @Nonnull Object createInstance() {
-        if (super.scope == Scope.SINGLETON && super.instance != null)
-            return super.instance;
+        InstantiationPlan plan = this.getPlan();
 
+        Object instance = plan.construct();
+        if (super.scope == Scope.SINGLETON)
+            super.expose(instance);
+        plan.inject(instance);
 
-        Object[] parameters = Arrays.stream(this.constructor.getParameterTypes())
-                .filter(parameterType -> !parameterType.isArray())
-                .filter(parameterType -> !parameterType.isPrimitive())
-                .map(parameterType -> super.module.getInstance(parameterType))
-                .toArray();
+        InjectionListener listener = super.module.getListener();
+        if (listener.isEnabled() && plan.hasPostConstruct()) {
+            long start = System.nanoTime();
+            plan.postConstruct(instance);
+            listener.onPostConstruct(this, System.nanoTime() - start);
+        } else {
+            plan.postConstruct(instance);
+        }
 
-        super.instance = this.constructor.newInstance(parameters);
+        return instance;
+    }
 
-        for (Field field : this.fields)
-            field.set(super.instance, super.module.getInstance(field.getType()));
-        for (Method method : this.postConstructMethods)
-            method.invoke(super.instance);
 
-        return super.instance;
+    /**
+     * Adds the dependency of the injection
+     * point if it is not deferred.
+     *
+     * @param dependencies dependencies
+     * @param point        injection point
+     */
+    private static void addDependency(@Nonnull List<Key> dependencies,
+                                      @Nonnull InjectionPoint point) {
+        if (!point.isDeferred())
+            dependencies.add(point.getKey());
     }
 }
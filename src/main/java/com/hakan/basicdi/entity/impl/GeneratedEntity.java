@@ -0,0 +1,99 @@
+package com.hakan.basicdi.entity.impl;
+
+import com.hakan.basicdi.entity.AbstractEntity;
+import com.hakan.basicdi.entity.Scope;
+import com.hakan.basicdi.generated.ComponentFactory;
+import com.hakan.basicdi.key.Key;
+import com.hakan.basicdi.module.Module;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * GeneratedEntity is an entity class that
+ * creates the instances of the class with
+ * a {@link ComponentFactory} which is generated
+ * by the annotation processor, so the class
+ * is not scanned with reflection.
+ */
+public class GeneratedEntity extends AbstractEntity {
+
+    private final ComponentFactory<Object> factory;
+    private final List<Key> dependencies;
+    private final List<Key> constructorDependencies;
+
+    /**
+     * Constructor of {@link GeneratedEntity}.
+     *
+     * @param module  module
+     * @param type    type
+     * @param factory generated factory
+     */
+    @SuppressWarnings("unchecked")
+    public GeneratedEntity(@Nonnull Module module,
+                           @Nonnull Class<?> type,
+                           @Nonnull ComponentFactory<?> factory) {
+        super(module, type, factory.getScope());
+        this.factory = (ComponentFactory<Object>) factory;
+        this.dependencies = keysOf(factory.getDependencies());
+        this.constructorDependencies = keysOf(factory.getConstructorDependencies());
+    }
+
+    /**
+     * Returns the generated factory of the class.
+     *
+     * @return factory
+     */
+    public @Nonnull ComponentFactory<Object> getFactory() {
+        return this.factory;
+    }
+
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public @Nonnull List<Key> getDependencies() {
+        return this.dependencies;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public @Nonnull List<Key> getConstructorDependencies() {
+        return this.constructorDependencies;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public @Nonnull Object createInstance() {
+        Object instance = this.factory.construct(super.module);
+        if (super.scope == Scope.SINGLETON)
+            super.expose(instance);
+        this.factory.initialize(super.module, instance);
+
+        return instance;
+    }
+
+
+    /**
+     * Converts the dependency types of the
+     * factory to unqualified keys, since the
+     * classes with qualified injection points
+     * are not generated.
+     *
+     * @param types dependency types
+     * @return keys
+     */
+    private static @Nonnull List<Key> keysOf(@Nonnull List<Class<?>> types) {
+        List<Key> keys = new ArrayList<>(types.size());
+        types.forEach(type -> keys.add(Key.of(type)));
+        return Collections.unmodifiableList(keys);
+    }
+}
@@ -1,14 +1,28 @@
 package com.hakan.basicdi.entity.impl;
 
+import com.hakan.basicdi.annotations.Async;
 import com.hakan.basicdi.annotations.Provide;
 import com.hakan.basicdi.entity.AbstractEntity;
 import com.hakan.basicdi.entity.Scope;
+import com.hakan.basicdi.entity.plan.InjectionPoint;
+import com.hakan.basicdi.entity.plan.ParameterPlan;
+import com.hakan.basicdi.key.Key;
+import com.hakan.basicdi.key.Types;
 import com.hakan.basicdi.module.Module;
 import lombok.SneakyThrows;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.lang.reflect.Method;
-import java.util.Arrays;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
 
 /**
  * MethodEntity is an entity class that
@@ -16,11 +30,19 @@
  * with {@link Provide} annotation to
  * create an instance of return type
  * the method.
+ * <p>
+ * If the method returns a {@link CompletionStage},
+ * the entity provides the value of it.
  */
 public class MethodProviderEntity extends AbstractEntity {
 
     private final Method method;
     private final Object methodInstance;
+    private final List<InjectionPoint> parameters;
+    private ParameterPlan plan;
+    private final boolean future;
+    private final boolean async;
+    private final AtomicReference<CompletableFuture<?>> pending;
 
     /**
      * Constructor of {@link MethodProviderEntity}.
@@ -30,9 +52,21 @@ public class MethodProviderEntity extends AbstractEntity {
      */
     public MethodProviderEntity(@Nonnull Module module,
                                 @Nonnull Method method) {
-        super(module, method.getReturnType(), Scope.SINGLETON);
+        super(module, providedType(method), Scope.SINGLETON);
         this.method = method;
         this.methodInstance = module;
+        this.parameters = new ArrayList<>();
+        this.future = CompletionStage.class.isAssignableFrom(method.getReturnType());
+        this.async = this.future || method.isAnnotationPresent(Async.class);
+        this.pending = new AtomicReference<>();
+        super.qualifier = Key.qualifierOf(method.getAnnotations());
+        super.genericSubTypes = Types.genericSuperTypes(providedGenericType(method));
+
+        for (int i = 0; i < method.getParameterCount(); i++) {
+            Class<?> parameterType = method.getParameterTypes()[i];
+            if (!parameterType.isArray() && !parameterType.isPrimitive())
+                this.parameters.add(InjectionPoint.of(method, i));
+        }
     }
 
     /**
@@ -53,24 +87,205 @@ public MethodProviderEntity(@Nonnull Module module,
         return this.methodInstance;
     }
 
+    /**
+     * Checks if the method is called on the
+     * executor of the module when the module is
+     * created asynchronously. It is true if the
+     * method is annotated with {@link Async} or
+     * returns a {@link CompletionStage}.
+     *
+     * @return true if it is async
+     */
+    public boolean isAsync() {
+        return this.async;
+    }
+
+    /**
+     * Returns the keys of the method parameters,
+     * except the deferred parameters.
+     *
+     * @return dependencies
+     */
+    @Override
+    public @Nonnull List<Key> getDependencies() {
+        return this.parameters.stream()
+                .filter(parameter -> !parameter.isDeferred())
+                .map(InjectionPoint::getKey)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the parameter plan of the method.
+     * Plan is compiled at the first call, and
+     * compiled again after the bindings of the
+     * module change.
+     *
+     * @return parameter plan
+     */
+    public @Nonnull ParameterPlan getPlan() {
+        ParameterPlan plan = this.plan;
+        if (plan == null || !plan.isValid(super.module))
+            this.plan = plan = ParameterPlan.compile(super.module, this.parameters);
+        return plan;
+    }
+
+    /**
+     * Compiles the parameter plan, so the
+     * parameters are resolved before the
+     * method is called.
+     */
+    @Override
+    public void prepare() {
+        this.getPlan();
+    }
+
 
 
+    /**
+     * Calls the method on the given executor if
+     * it is async, and completes when the instance
+     * is created. The future of a method which
+     * returns a {@link CompletionStage} is kept until
+     * the instance is created from it, so no thread
+     * waits for the method to complete. Instance is
+     * taken on the executor, since the future can be
+     * completed by the thread which creates it.
+     *
+     * @param executor executor
+     * @return future of the instance
+     */
+    @Override
+    public @Nonnull CompletableFuture<Object> getInstanceAsync(@Nonnull Executor executor) {
+        if (!this.async)
+            return super.getInstanceAsync(executor);
+        if (!this.future)
+            return CompletableFuture.supplyAsync(this::getInstance, executor);
+        if (super.instance != null)
+            return CompletableFuture.completedFuture(super.instance);
+
+        return this.getPending(executor).thenApplyAsync(value -> this.getInstance(), executor);
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
-    @SneakyThrows
     public @Nonnull Object createInstance() {
-        if (super.scope == Scope.SINGLETON && super.instance != null)
-            return super.instance;
+        if (!this.future)
+            return this.invoke();
 
+        CompletableFuture<?> future = this.getPending(null);
+        boolean kept = false;
+        try {
+            Object value = future.join();
+            kept = super.scope == Scope.SINGLETON;
+            return value;
+        } finally {
+            if (!kept) this.pending.compareAndSet(future, null);
+        }
+    }
+
+
+
+    /**
+     * Returns the future of the method which
+     * returns a {@link CompletionStage}. The method
+     * is called only by the thread which puts the
+     * placeholder future, so concurrent callers share
+     * one call until the future is removed after a
+     * failure or a non singleton instance. A failed
+     * future is removed on completion, also when the
+     * executor rejects the call.
+     *
+     * @param executor executor to call the method on,
+     *                 or null to call it on this thread
+     * @return future of the value
+     */
+    private @Nonnull CompletableFuture<?> getPending(@Nullable Executor executor) {
+        CompletableFuture<Object> placeholder = new CompletableFuture<>();
+        while (!this.pending.compareAndSet(null, placeholder)) {
+            CompletableFuture<?> pending = this.pending.get();
+            if (pending != null) return pending;
+        }
+
+        placeholder.whenComplete((value, error) -> {
+            if (error != null) this.pending.compareAndSet(placeholder, null);
+        });
+
+        Runnable call = () -> {
+            try {
+                ((CompletableFuture<?>) this.invoke()).whenComplete((value, error) -> {
+                    if (error != null) placeholder.completeExceptionally(error);
+                    else placeholder.complete(value);
+                });
+            } catch (Throwable e) {
+                placeholder.completeExceptionally(e);
+            }
+        };
+
+        if (executor == null) {
+            call.run();
+            return placeholder;
+        }
+
+        try {
+            executor.execute(call);
+        } catch (Throwable e) {
+            placeholder.completeExceptionally(e);
+        }
+        return placeholder;
+    }
+
+    /**
+     * Calls the method with the parameters
+     * which are resolved by the plan.
+     * Completion stages are converted to
+     * {@link CompletableFuture}.
+     *
+     * @return return value of the method
+     */
+    @SneakyThrows
+    private @Nonnull Object invoke() {
+        Object[] parameters = this.getPlan().resolve(super.module);
+
+        Object value = this.method.invoke(this.methodInstance, parameters);
+        if (this.future)
+            return ((CompletionStage<?>) value).toCompletableFuture();
+        return value;
+    }
+
+    /**
+     * Returns the type which is provided by the
+     * method. It is the value type of a method
+     * which returns a {@link CompletionStage}.
+     *
+     * @param method method
+     * @return provided type
+     */
+    private static @Nonnull Class<?> providedType(@Nonnull Method method) {
+        if (!CompletionStage.class.isAssignableFrom(method.getReturnType()))
+            return method.getReturnType();
+        return Types.rawOf(providedGenericType(method));
+    }
+
+    /**
+     * Returns the generic type which is provided
+     * by the method, such as {@code Repository<User>}.
+     *
+     * @param method method
+     * @return provided generic type
+     */
+    private static @Nonnull Type providedGenericType(@Nonnull Method method) {
+        Type type = method.getGenericReturnType();
+        if (!CompletionStage.class.isAssignableFrom(method.getReturnType()))
+            return type;
 
-        Object[] parameters = Arrays.stream(this.method.getParameterTypes())
-                .filter(parameterType -> !parameterType.isArray())
-                .filter(parameterType -> !parameterType.isPrimitive())
-                .map(parameterType -> super.module.getInstance(parameterType))
-                .toArray();
+        if (type instanceof ParameterizedType) {
+            Type argument = ((ParameterizedType) type).getActualTypeArguments()[0];
+            if (argument instanceof Class || argument instanceof ParameterizedType)
+                return argument;
+        }
 
-        return super.instance = this.method.invoke(this.methodInstance, parameters);
+        throw new RuntimeException("value type of the future cannot be found for method " + method.getName());
     }
 }
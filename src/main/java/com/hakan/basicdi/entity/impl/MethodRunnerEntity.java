@@ -1,14 +1,25 @@
 package com.hakan.basicdi.entity.impl;
 
 import com.hakan.basicdi.annotations.Provide;
+import com.hakan.basicdi.annotations.Runner;
 import com.hakan.basicdi.entity.AbstractEntity;
 import com.hakan.basicdi.entity.Scope;
+import com.hakan.basicdi.entity.plan.InjectionPoint;
+import com.hakan.basicdi.entity.plan.ParameterPlan;
+import com.hakan.basicdi.key.Key;
 import com.hakan.basicdi.module.Module;
+import com.hakan.basicdi.runner.RunMode;
+import com.hakan.basicdi.runner.RunnerScheduler;
 import lombok.SneakyThrows;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.lang.reflect.Method;
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
 
 /**
  * MethodEntity is an entity class that
@@ -16,11 +27,19 @@
  * with {@link Provide} annotation to
  * create an instance of return type
  * the method.
+ * <p>
+ * Runnable of the method is created and
+ * executed once per entity, in the
+ * {@link RunMode} of its {@link Runner}.
  */
 public class MethodRunnerEntity extends AbstractEntity {
 
     private final Method method;
     private final Object methodInstance;
+    private final List<InjectionPoint> parameters;
+    private ParameterPlan plan;
+    private final Runner runner;
+    private volatile Future<?> future;
 
     /**
      * Constructor of {@link MethodRunnerEntity}.
@@ -33,6 +52,18 @@ public MethodRunnerEntity(@Nonnull Module module,
         super(module, method.getReturnType(), Scope.SINGLETON);
         this.method = method;
         this.methodInstance = module;
+        this.parameters = new ArrayList<>();
+        this.runner = method.getAnnotation(Runner.class);
+
+        RunMode mode = this.getMode();
+        if ((mode == RunMode.FIXED_RATE || mode == RunMode.FIXED_DELAY) && this.runner.period() <= 0)
+            throw new RuntimeException("period of periodic runner " + method.getName() + " must be positive");
+
+        for (int i = 0; i < method.getParameterCount(); i++) {
+            Class<?> parameterType = method.getParameterTypes()[i];
+            if (!parameterType.isArray() && !parameterType.isPrimitive())
+                this.parameters.add(InjectionPoint.of(method, i));
+        }
     }
 
     /**
@@ -53,10 +84,84 @@ public MethodRunnerEntity(@Nonnull Module module,
         return this.methodInstance;
     }
 
+    /**
+     * Returns the order of the runner.
+     *
+     * @return order
+     * @see Runner#order()
+     */
+    public int getOrder() {
+        return (this.runner != null) ? this.runner.order() : 0;
+    }
+
+    /**
+     * Returns the run mode of the runner.
+     *
+     * @return run mode
+     * @see Runner#mode()
+     */
+    public @Nonnull RunMode getMode() {
+        return (this.runner != null) ? this.runner.mode() : RunMode.SYNC;
+    }
+
+    /**
+     * Returns the future of the runner if
+     * it is async or periodic and started.
+     *
+     * @return future, or null
+     */
+    public @Nullable Future<?> getFuture() {
+        return this.future;
+    }
+
+    /**
+     * Returns the keys of the method parameters,
+     * except the deferred parameters.
+     *
+     * @return dependencies
+     */
+    @Override
+    public @Nonnull List<Key> getDependencies() {
+        return this.parameters.stream()
+                .filter(parameter -> !parameter.isDeferred())
+                .map(InjectionPoint::getKey)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the parameter plan of the method.
+     * Plan is compiled at the first call, and
+     * compiled again after the bindings of the
+     * module change.
+     *
+     * @return parameter plan
+     */
+    public @Nonnull ParameterPlan getPlan() {
+        ParameterPlan plan = this.plan;
+        if (plan == null || !plan.isValid(super.module))
+            this.plan = plan = ParameterPlan.compile(super.module, this.parameters);
+        return plan;
+    }
+
+    /**
+     * Compiles the parameter plan, so the
+     * parameters are resolved before the
+     * method is called.
+     */
+    @Override
+    public void prepare() {
+        this.getPlan();
+    }
+
 
 
     /**
      * {@inheritDoc}
+     * <p>
+     * Runner is a singleton, so the runnable
+     * is created and run once, and the other
+     * threads wait for it without holding
+     * a lock of the entity.
      */
     @Override
     @SneakyThrows
@@ -65,15 +170,25 @@ public MethodRunnerEntity(@Nonnull Module module,
             throw new RuntimeException("return type of method must be java.lang.Runnable!");
 
 
-        Object[] parameters = Arrays.stream(this.method.getParameterTypes())
-                .filter(parameterType -> !parameterType.isArray())
-                .filter(parameterType -> !parameterType.isPrimitive())
-                .map(parameterType -> super.module.getInstance(parameterType))
-                .toArray();
+        Object[] parameters = this.getPlan().resolve(super.module);
 
-        super.instance = this.method.invoke(this.methodInstance, parameters);
-        ((Runnable) super.instance).run();
+        Runnable runnable = (Runnable) this.method.invoke(this.methodInstance, parameters);
+        RunnerScheduler scheduler = super.module.getScheduler();
+        switch (this.getMode()) {
+            case ASYNC:
+                Executor executor = super.module.findExecutor();
+                this.future = (executor != null) ? scheduler.execute(runnable, executor) : scheduler.execute(runnable);
+                break;
+            case FIXED_RATE:
+            case FIXED_DELAY:
+                this.future = scheduler.schedule(runnable, this.getMode(),
+                        this.runner.initialDelay(), this.runner.period(), this.runner.unit());
+                break;
+            default:
+                runnable.run();
+                break;
+        }
 
-        return super.instance;
+        return runnable;
     }
 }
@@ -0,0 +1,237 @@
+package com.hakan.basicdi.entity.plan;
+
+import com.hakan.basicdi.annotations.Lazy;
+import com.hakan.basicdi.annotations.Named;
+import com.hakan.basicdi.entity.AbstractEntity;
+import com.hakan.basicdi.key.Key;
+import com.hakan.basicdi.key.Types;
+import com.hakan.basicdi.module.Module;
+import com.hakan.basicdi.multibind.Multibinding;
+import com.hakan.basicdi.provider.LazyProvider;
+import com.hakan.basicdi.provider.LazyProxy;
+import com.hakan.basicdi.provider.Provider;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Field;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * InjectionPoint is a field or parameter which
+ * is injected by the module.
+ * <p>
+ * If its type is {@link Provider} or {@link Supplier},
+ * or it is annotated with {@link Lazy}, it is deferred,
+ * so its dependency is not resolved until it is used.
+ * <p>
+ * If its type is {@link List}, {@link Set} or {@link Map}
+ * with {@link String} keys and a concrete element type,
+ * it is a multibinding. An entity which is bound to the
+ * collection type itself, such as a provided
+ * {@code List<Plugin>}, is injected if there is one,
+ * otherwise the instances of every entity of the
+ * element type are injected. Other collections, such
+ * as raw ones, are injected like any other type.
+ * <p>
+ * If it is annotated with a qualifier, such as
+ * {@link Named}, only the entities which have the
+ * same qualifier are injected.
+ */
+public class InjectionPoint {
+
+    /**
+     * Creates the injection point of the field.
+     *
+     * @param field field
+     * @return injection point
+     */
+    public static @Nonnull InjectionPoint of(@Nonnull Field field) {
+        return new InjectionPoint(field.getType(), field.getGenericType(),
+                Key.qualifierOf(field.getAnnotations()), field.isAnnotationPresent(Lazy.class));
+    }
+
+    /**
+     * Creates the injection point of the parameter
+     * at the given index of the constructor or method.
+     *
+     * @param executable constructor or method
+     * @param index      parameter index
+     * @return injection point
+     */
+    public static @Nonnull InjectionPoint of(@Nonnull Executable executable, int index) {
+        Class<?>[] types = executable.getParameterTypes();
+        Type[] genericTypes = executable.getGenericParameterTypes();
+        Annotation[][] annotations = executable.getParameterAnnotations();
+
+        int genericIndex = index - (types.length - genericTypes.length);
+        int annotationIndex = index - (types.length - annotations.length);
+
+        boolean lazy = false;
+        Object qualifier = null;
+        if (annotationIndex >= 0) {
+            for (Annotation annotation : annotations[annotationIndex])
+                lazy |= annotation.annotationType() == Lazy.class;
+            qualifier = Key.qualifierOf(annotations[annotationIndex]);
+        }
+
+        return new InjectionPoint(types[index], (genericIndex >= 0) ? genericTypes[genericIndex] : types[index], qualifier, lazy);
+    }
+
+
+
+    private final Class<?> type;
+    private final Class<?> dependency;
+    private final Key key;
+    private final Key collectionKey;
+    private final boolean provider;
+    private final boolean multi;
+    private final boolean lazy;
+
+    /**
+     * Constructor of {@link InjectionPoint}.
+     *
+     * @param type        type of the injection point
+     * @param genericType generic type of the injection point
+     * @param qualifier   qualifier of the injection point
+     * @param lazy        true if it is annotated with {@link Lazy}
+     */
+    private InjectionPoint(@Nonnull Class<?> type,
+                           @Nonnull Type genericType,
+                           @Nullable Object qualifier,
+                           boolean lazy) {
+        this.type = type;
+        this.lazy = lazy;
+        this.provider = (type == Provider.class || type == Supplier.class);
+        this.multi = isMultibinding(type, genericType);
+        Type dependency = (this.provider || this.multi) ? typeArgumentOf(genericType, (type == Map.class) ? 1 : 0)
+                : (genericType instanceof ParameterizedType) ? genericType : type;
+        this.dependency = Types.rawOf(dependency);
+        this.key = Key.of(dependency, qualifier);
+        this.collectionKey = this.multi ? Key.of(genericType, qualifier) : this.key;
+
+        if (lazy && !this.provider && !type.isInterface())
+            throw new RuntimeException("lazy injection requires an interface type or Provider, found class " + type.getName());
+    }
+
+    /**
+     * Returns the type of the injection point.
+     *
+     * @return type
+     */
+    public @Nonnull Class<?> getType() {
+        return this.type;
+    }
+
+    /**
+     * Returns the raw type which is resolved
+     * from the module. It is the type argument for
+     * providers, and the type itself for others.
+     *
+     * @return dependency type
+     */
+    public @Nonnull Class<?> getDependency() {
+        return this.dependency;
+    }
+
+    /**
+     * Returns the key which is resolved from
+     * the module, which is the dependency type
+     * with the qualifier of the injection point.
+     * It is computed once with the generic type
+     * of the dependency, so {@code Repository<User>}
+     * is resolved without erasure.
+     *
+     * @return dependency key
+     */
+    public @Nonnull Key getKey() {
+        return this.key;
+    }
+
+    /**
+     * Checks if the dependency is resolved
+     * only when it is used. Multibindings are
+     * resolved at every injection, since they
+     * depend on all entities of the type.
+     *
+     * @return true if it is deferred
+     */
+    public boolean isDeferred() {
+        return this.provider || this.multi || this.lazy;
+    }
+
+    /**
+     * Resolves the value of the injection point
+     * from the given module.
+     *
+     * @param module module
+     * @return value
+     */
+    public @Nonnull Object resolve(@Nonnull Module module) {
+        if (this.provider)
+            return new LazyProvider<>(module, this.key);
+        if (this.lazy)
+            return LazyProxy.create(new LazyProvider<>(module, this.key), this.dependency);
+        if (!this.multi)
+            return module.getInstance(this.key);
+
+        AbstractEntity entity = module.findEntity(this.collectionKey);
+        if (entity != null)
+            return entity.getInstance();
+
+        Multibinding<?> multibinding = module.getMultibinding(this.key);
+        if (this.type == List.class)
+            return multibinding.getList();
+        if (this.type == Set.class)
+            return multibinding.getSet();
+        return multibinding.getMap();
+    }
+
+
+    /**
+     * Checks if the collection type can be injected
+     * as a multibinding, which requires a concrete
+     * element type and {@link String} keys for maps.
+     *
+     * @param type        type of the injection point
+     * @param genericType generic type of the injection point
+     * @return true if it is a multibinding
+     */
+    private static boolean isMultibinding(@Nonnull Class<?> type, @Nonnull Type genericType) {
+        if (type != List.class && type != Set.class && type != Map.class)
+            return false;
+        if (!(genericType instanceof ParameterizedType))
+            return false;
+
+        Type[] arguments = ((ParameterizedType) genericType).getActualTypeArguments();
+        if (type == Map.class && arguments[0] != String.class)
+            return false;
+
+        Type element = arguments[arguments.length - 1];
+        return element instanceof Class || element instanceof ParameterizedType;
+    }
+
+    /**
+     * Returns the type argument at the index
+     * of the given provider or collection type.
+     *
+     * @param genericType provider or collection type
+     * @param index       index of the type argument
+     * @return class or parameterized type argument
+     */
+    private static @Nonnull Type typeArgumentOf(@Nonnull Type genericType, int index) {
+        if (genericType instanceof ParameterizedType) {
+            Type argument = ((ParameterizedType) genericType).getActualTypeArguments()[index];
+            if (argument instanceof Class || argument instanceof ParameterizedType)
+                return argument;
+        }
+
+        throw new RuntimeException("type argument cannot be resolved: " + genericType.getTypeName());
+    }
+}
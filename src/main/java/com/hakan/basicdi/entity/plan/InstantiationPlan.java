@@ -0,0 +1,235 @@
+package com.hakan.basicdi.entity.plan;
+
+import com.hakan.basicdi.entity.AbstractEntity;
+import com.hakan.basicdi.module.Module;
+import lombok.SneakyThrows;
+
+import javax.annotation.Nonnull;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Collection;
+
+/**
+ * InstantiationPlan is a compiled form of
+ * the constructor, fields and post construct
+ * methods of a class.
+ * <p>
+ * Dependencies are resolved to their entities
+ * once, and every member is converted to a
+ * {@link MethodHandle}, so creating an instance
+ * does not need any lookup, stream or parameter
+ * array anymore. A plan is valid until the
+ * version of the module changes, since the
+ * resolved entities may be rebound.
+ */
+public class InstantiationPlan {
+
+    private static final MethodHandle GET_INSTANCE;
+    private static final MethodHandle RESOLVE;
+    private static final MethodHandle SET_FIELD;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            GET_INSTANCE = lookup.findVirtual(AbstractEntity.class, "getInstance",
+                    MethodType.methodType(Object.class));
+            RESOLVE = lookup.findVirtual(InjectionPoint.class, "resolve",
+                    MethodType.methodType(Object.class, Module.class));
+            SET_FIELD = lookup.findStatic(InstantiationPlan.class, "setField",
+                    MethodType.methodType(void.class, Field.class, Object.class, Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * Compiles the given members to an instantiation
+     * plan. Dependencies of the constructor and fields
+     * are resolved from the given module, except the
+     * deferred ones which are resolved when they are
+     * used.
+     * <p>
+     * Members must be accessible before
+     * calling this method.
+     *
+     * @param module               module
+     * @param constructor          constructor
+     * @param fields               fields to inject
+     * @param postConstructMethods post construct methods
+     * @return instantiation plan
+     */
+    @SneakyThrows
+    public static @Nonnull InstantiationPlan compile(@Nonnull Module module,
+                                                     @Nonnull Constructor<?> constructor,
+                                                     @Nonnull Collection<Field> fields,
+                                                     @Nonnull Collection<Method> postConstructMethods) {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        int version = module.getVersion();
+
+        MethodHandle creator = lookup.unreflectConstructor(constructor);
+        creator = creator.asType(creator.type().generic());
+        for (int parameter = 0; parameter < constructor.getParameterCount(); parameter++)
+            creator = MethodHandles.collectArguments(creator, 0, supplierOf(module, InjectionPoint.of(constructor, parameter)));
+
+        int i = 0;
+        MethodHandle[] injectors = new MethodHandle[fields.size()];
+        for (Field field : fields)
+            injectors[i++] = MethodHandles.collectArguments(setterOf(lookup, field), 1, supplierOf(module, InjectionPoint.of(field)));
+
+        i = 0;
+        MethodHandle[] postConstructors = new MethodHandle[postConstructMethods.size()];
+        for (Method method : postConstructMethods)
+            postConstructors[i++] = lookup.unreflect(method).asType(MethodType.methodType(void.class, Object.class));
+
+        return new InstantiationPlan(version, creator, injectors, postConstructors);
+    }
+
+    /**
+     * Creates a method handle which returns
+     * the value of the given injection point.
+     * Entities of the eager injection points
+     * are looked up only once here.
+     *
+     * @param module module
+     * @param point  injection point
+     * @return method handle
+     */
+    private static @Nonnull MethodHandle supplierOf(@Nonnull Module module,
+                                                    @Nonnull InjectionPoint point) {
+        if (point.isDeferred())
+            return RESOLVE.bindTo(point).bindTo(module);
+        return GET_INSTANCE.bindTo(module.getEntity(point.getKey()));
+    }
+
+    /**
+     * Creates a method handle which sets the
+     * value of the given field. If the field
+     * cannot be written with a method handle,
+     * such as final fields on newer runtimes,
+     * {@link Field#set(Object, Object)} is used.
+     *
+     * @param lookup lookup
+     * @param field  field
+     * @return method handle
+     */
+    private static @Nonnull MethodHandle setterOf(@Nonnull MethodHandles.Lookup lookup,
+                                                  @Nonnull Field field) {
+        MethodType type = MethodType.methodType(void.class, Object.class, Object.class);
+
+        try {
+            return lookup.unreflectSetter(field).asType(type);
+        } catch (IllegalAccessException e) {
+            return SET_FIELD.bindTo(field);
+        }
+    }
+
+    /**
+     * Sets the value of the given field
+     * with {@link Field#set(Object, Object)}.
+     *
+     * @param field    field
+     * @param instance instance
+     * @param value    value
+     */
+    @SneakyThrows
+    private static void setField(@Nonnull Field field,
+                                 @Nonnull Object instance,
+                                 @Nonnull Object value) {
+        field.set(instance, value);
+    }
+
+
+
+    private final int version;
+    private final MethodHandle creator;
+    private final MethodHandle[] injectors;
+    private final MethodHandle[] postConstructors;
+
+    /**
+     * Constructor of {@link InstantiationPlan}.
+     *
+     * @param version          version of the module which the plan is compiled from
+     * @param creator          method handle that creates the instance
+     * @param injectors        method handles that inject the fields
+     * @param postConstructors method handles that call the post construct methods
+     */
+    private InstantiationPlan(int version,
+                              @Nonnull MethodHandle creator,
+                              @Nonnull MethodHandle[] injectors,
+                              @Nonnull MethodHandle[] postConstructors) {
+        this.version = version;
+        this.creator = creator;
+        this.injectors = injectors;
+        this.postConstructors = postConstructors;
+    }
+
+    /**
+     * Checks if the plan is compiled from the
+     * current bindings of the module.
+     *
+     * @param module module
+     * @return true if it is valid
+     * @see Module#getVersion()
+     */
+    public boolean isValid(@Nonnull Module module) {
+        return this.version == module.getVersion();
+    }
+
+    /**
+     * Checks if the plan has post construct methods.
+     *
+     * @return true if it has
+     */
+    public boolean hasPostConstruct() {
+        return this.postConstructors.length > 0;
+    }
+
+    /**
+     * Creates a new instance by calling
+     * the constructor with its dependencies.
+     *
+     * @return instance
+     */
+    @SneakyThrows
+    public @Nonnull Object construct() {
+        return (Object) this.creator.invokeExact();
+    }
+
+    /**
+     * Injects the fields and calls the post
+     * construct methods of the given instance.
+     *
+     * @param instance instance
+     */
+    public void initialize(@Nonnull Object instance) {
+        this.inject(instance);
+        this.postConstruct(instance);
+    }
+
+    /**
+     * Injects the fields of the given instance.
+     *
+     * @param instance instance
+     */
+    @SneakyThrows
+    public void inject(@Nonnull Object instance) {
+        for (MethodHandle injector : this.injectors)
+            injector.invokeExact(instance);
+    }
+
+    /**
+     * Calls the post construct methods
+     * of the given instance.
+     *
+     * @param instance instance
+     */
+    @SneakyThrows
+    public void postConstruct(@Nonnull Object instance) {
+        for (MethodHandle postConstructor : this.postConstructors)
+            postConstructor.invokeExact(instance);
+    }
+}
@@ -0,0 +1,91 @@
+package com.hakan.basicdi.entity.plan;
+
+import com.hakan.basicdi.entity.AbstractEntity;
+import com.hakan.basicdi.module.Module;
+
+import javax.annotation.Nonnull;
+import java.util.List;
+
+/**
+ * ParameterPlan is a resolved form of the
+ * parameters of a provider or runner method.
+ * <p>
+ * Entities of the parameters are looked up once,
+ * except the deferred ones which are resolved
+ * when they are used, so calling the method does
+ * not look up its parameters anymore. A plan is
+ * valid until the version of the module changes.
+ */
+public class ParameterPlan {
+
+    /**
+     * Compiles the given parameters to a
+     * parameter plan. Dependencies are resolved
+     * from the given module, except the deferred
+     * ones.
+     *
+     * @param module     module
+     * @param parameters parameters
+     * @return parameter plan
+     */
+    public static @Nonnull ParameterPlan compile(@Nonnull Module module,
+                                                 @Nonnull List<InjectionPoint> parameters) {
+        int version = module.getVersion();
+
+        AbstractEntity[] entities = new AbstractEntity[parameters.size()];
+        for (int i = 0; i < entities.length; i++) {
+            InjectionPoint parameter = parameters.get(i);
+            if (!parameter.isDeferred()) entities[i] = module.getEntity(parameter.getKey());
+        }
+
+        return new ParameterPlan(version, parameters.toArray(new InjectionPoint[0]), entities);
+    }
+
+
+
+    private final int version;
+    private final InjectionPoint[] parameters;
+    private final AbstractEntity[] entities;
+
+    /**
+     * Constructor of {@link ParameterPlan}.
+     *
+     * @param version    version of the module which the plan is compiled from
+     * @param parameters parameters
+     * @param entities   entities of the parameters, null for the deferred ones
+     */
+    private ParameterPlan(int version,
+                          @Nonnull InjectionPoint[] parameters,
+                          @Nonnull AbstractEntity[] entities) {
+        this.version = version;
+        this.parameters = parameters;
+        this.entities = entities;
+    }
+
+    /**
+     * Checks if the plan is compiled from the
+     * current bindings of the module.
+     *
+     * @param module module
+     * @return true if it is valid
+     * @see Module#getVersion()
+     */
+    public boolean isValid(@Nonnull Module module) {
+        return this.version == module.getVersion();
+    }
+
+    /**
+     * Resolves the values of the parameters.
+     *
+     * @param module module of the deferred parameters
+     * @return values
+     */
+    public @Nonnull Object[] resolve(@Nonnull Module module) {
+        Object[] values = new Object[this.parameters.length];
+        for (int i = 0; i < values.length; i++) {
+            AbstractEntity entity = this.entities[i];
+            values[i] = (entity != null) ? entity.getInstance() : this.parameters[i].resolve(module);
+        }
+        return values;
+    }
+}
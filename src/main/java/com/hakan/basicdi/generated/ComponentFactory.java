@@ -0,0 +1,65 @@
+package com.hakan.basicdi.generated;
+
+import com.hakan.basicdi.entity.Scope;
+import com.hakan.basicdi.module.Module;
+
+import javax.annotation.Nonnull;
+import java.util.List;
+
+/**
+ * ComponentFactory is implemented by the classes
+ * that are generated by the annotation processor.
+ * It creates and initializes instances of a component
+ * with plain java calls instead of reflection.
+ *
+ * @param <T> type of the component
+ */
+public interface ComponentFactory<T> {
+
+    /**
+     * Returns the scope of the component.
+     *
+     * @return scope
+     */
+    @Nonnull
+    Scope getScope();
+
+    /**
+     * Returns the parameter types of the
+     * constructor and the types of the
+     * fields to inject.
+     *
+     * @return dependencies
+     */
+    @Nonnull
+    List<Class<?>> getDependencies();
+
+    /**
+     * Returns the parameter types of the
+     * constructor.
+     *
+     * @return constructor dependencies
+     */
+    @Nonnull
+    List<Class<?>> getConstructorDependencies();
+
+    /**
+     * Creates a new instance of the component
+     * by calling its constructor with the
+     * dependencies from the module.
+     *
+     * @param module module
+     * @return instance
+     */
+    @Nonnull
+    T construct(@Nonnull Module module);
+
+    /**
+     * Injects the fields and calls the post
+     * construct methods of the instance.
+     *
+     * @param module   module
+     * @param instance instance
+     */
+    void initialize(@Nonnull Module module, @Nonnull T instance);
+}
@@ -0,0 +1,201 @@
+package com.hakan.basicdi.generated;
+
+import lombok.SneakyThrows;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * GeneratedIndex reads the binding index which is
+ * written by the annotation processor, and finds
+ * the generated factories and the provider methods
+ * of the modules without scanning the classes.
+ * <p>
+ * If the annotation processor is not used,
+ * index is empty and nothing is found.
+ */
+public class GeneratedIndex {
+
+    /**
+     * Suffix of the generated factory classes.
+     */
+    public static final String FACTORY_SUFFIX = "$BasicDiFactory";
+
+    /**
+     * Resource which contains the names of the
+     * components that have a generated factory.
+     */
+    public static final String FACTORIES = "META-INF/basicdi/factories";
+
+    /**
+     * Resource which contains the provider
+     * and runner methods of the modules.
+     */
+    public static final String MODULES = "META-INF/basicdi/modules";
+
+    private static final Map<ClassLoader, GeneratedIndex> INDEXES = new WeakHashMap<>();
+
+    /**
+     * Returns the index of the given class loader.
+     * Index is read only once per class loader,
+     * and it is dropped when the class loader
+     * is unloaded.
+     *
+     * @param classLoader class loader
+     * @return index
+     */
+    public static @Nonnull GeneratedIndex of(@Nullable ClassLoader classLoader) {
+        ClassLoader loader = (classLoader != null) ? classLoader : ClassLoader.getSystemClassLoader();
+        synchronized (INDEXES) {
+            return INDEXES.computeIfAbsent(loader, GeneratedIndex::new);
+        }
+    }
+
+
+
+    private final WeakReference<ClassLoader> classLoader;
+    private final Set<String> factories;
+    private final Map<String, List<String>> modules;
+
+    /**
+     * Constructor of {@link GeneratedIndex}.
+     *
+     * @param classLoader class loader
+     */
+    private GeneratedIndex(@Nonnull ClassLoader classLoader) {
+        this.classLoader = new WeakReference<>(classLoader);
+        this.factories = new HashSet<>();
+        this.modules = new HashMap<>();
+
+        for (String line : readLines(classLoader, FACTORIES))
+            this.factories.add(line);
+        for (String line : readLines(classLoader, MODULES))
+            this.modules.computeIfAbsent(line.substring(0, line.indexOf(' ')), key -> new ArrayList<>()).add(line);
+    }
+
+    /**
+     * Finds the generated factory of the given type.
+     *
+     * @param type type
+     * @param <T>  type
+     * @return factory, or null if it is not generated
+     */
+    @SneakyThrows
+    @SuppressWarnings("unchecked")
+    public @Nullable <T> ComponentFactory<T> findFactory(@Nonnull Class<T> type) {
+        if (!this.factories.contains(type.getName()))
+            return null;
+
+        Class<?> factoryClass = Class.forName(type.getName() + FACTORY_SUFFIX, true, this.getClassLoader());
+        return (ComponentFactory<T>) factoryClass.getDeclaredConstructor().newInstance();
+    }
+
+    /**
+     * Finds the provider and runner methods of
+     * the given module class from the index.
+     *
+     * @param moduleClass module class
+     * @return methods, or null if the module is not indexed
+     */
+    @SneakyThrows
+    public @Nullable List<Method> findMethods(@Nonnull Class<?> moduleClass) {
+        List<String> lines = this.modules.get(moduleClass.getName());
+        if (lines == null)
+            return null;
+
+        List<Method> methods = new ArrayList<>();
+        for (String line : lines) {
+            String[] parts = line.split(" ");
+            Class<?>[] parameterTypes = new Class<?>[parts.length - 2];
+            for (int i = 0; i < parameterTypes.length; i++)
+                parameterTypes[i] = this.loadClass(parts[i + 2]);
+
+            methods.add(moduleClass.getDeclaredMethod(parts[1], parameterTypes));
+        }
+        return methods;
+    }
+
+
+    /**
+     * Loads the class with the given binary
+     * name from the class loader of the index,
+     * including primitive types.
+     *
+     * @param name binary name
+     * @return class
+     */
+    @SneakyThrows
+    public @Nonnull Class<?> loadClass(@Nonnull String name) {
+        switch (name) {
+            case "boolean":
+                return boolean.class;
+            case "byte":
+                return byte.class;
+            case "short":
+                return short.class;
+            case "char":
+                return char.class;
+            case "int":
+                return int.class;
+            case "long":
+                return long.class;
+            case "float":
+                return float.class;
+            case "double":
+                return double.class;
+            default:
+                return Class.forName(name, false, this.getClassLoader());
+        }
+    }
+
+    /**
+     * Returns the class loader of the index. Index
+     * does not keep it alive, so it can be unloaded.
+     *
+     * @return class loader
+     */
+    private @Nonnull ClassLoader getClassLoader() {
+        ClassLoader classLoader = this.classLoader.get();
+        if (classLoader == null)
+            throw new RuntimeException("class loader of the generated index is unloaded");
+        return classLoader;
+    }
+
+    /**
+     * Reads the non-empty lines of all resources
+     * with the given name.
+     *
+     * @param classLoader class loader
+     * @param resource    resource name
+     * @return lines
+     */
+    @SneakyThrows
+    private static @Nonnull List<String> readLines(@Nonnull ClassLoader classLoader, @Nonnull String resource) {
+        Enumeration<URL> urls = classLoader.getResources(resource);
+        if (!urls.hasMoreElements())
+            return Collections.emptyList();
+
+        List<String> lines = new ArrayList<>();
+        while (urls.hasMoreElements()) {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(urls.nextElement().openStream(), StandardCharsets.UTF_8))) {
+                reader.lines().map(String::trim).filter(line -> !line.isEmpty()).forEach(lines::add);
+            }
+        }
+        return lines;
+    }
+}
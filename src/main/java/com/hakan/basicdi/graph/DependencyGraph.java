@@ -0,0 +1,277 @@
+package com.hakan.basicdi.graph;
+
+import com.hakan.basicdi.entity.AbstractEntity;
+import com.hakan.basicdi.key.Key;
+import com.hakan.basicdi.module.Module;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * DependencyGraph is a graph of the entities of
+ * a module, where every entity points to the
+ * entities it depends on.
+ * <p>
+ * Entities are grouped into waves in topological
+ * order, so entities in the same wave do not depend
+ * on each other and can be created concurrently.
+ * Entities which are part of a cycle cannot be
+ * ordered, they are kept separately in binding order.
+ * Entities of a parent module are not part of the graph.
+ * <p>
+ * Graph is validated by {@link #validate()}, and a valid
+ * graph is kept by the module to drive the creation.
+ */
+public class DependencyGraph {
+
+    private final Map<AbstractEntity, Set<AbstractEntity>> dependencies;
+    private final Map<AbstractEntity, Set<AbstractEntity>> constructorDependencies;
+    private final Map<AbstractEntity, List<AbstractEntity>> dependents;
+    private final Map<AbstractEntity, Map<Key, String>> unresolved;
+    private final List<List<AbstractEntity>> waves;
+    private final List<AbstractEntity> cyclic;
+
+    /**
+     * Constructor of {@link DependencyGraph}.
+     * <p>
+     * Dependencies which cannot be resolved from
+     * the module are not edges of the graph, they
+     * are reported by {@link #validate()}.
+     *
+     * @param module module
+     */
+    public DependencyGraph(@Nonnull Module module) {
+        this.dependencies = new LinkedHashMap<>();
+        this.constructorDependencies = new HashMap<>();
+        this.dependents = new HashMap<>();
+        this.unresolved = new LinkedHashMap<>();
+        this.waves = new ArrayList<>();
+        this.cyclic = new ArrayList<>();
+
+        for (AbstractEntity entity : module.getEntities()) {
+            Set<AbstractEntity> edges = new LinkedHashSet<>();
+            for (Key dependency : entity.getDependencies()) {
+                AbstractEntity target = this.resolve(module, entity, dependency);
+                if (target != null && target != entity && module.isBound(target)) edges.add(target);
+            }
+            this.dependencies.put(entity, edges);
+
+            Set<AbstractEntity> constructorEdges = new LinkedHashSet<>();
+            for (Key dependency : entity.getConstructorDependencies()) {
+                AbstractEntity target = this.resolve(module, entity, dependency);
+                if (target != null && module.isBound(target)) constructorEdges.add(target);
+            }
+            this.constructorDependencies.put(entity, constructorEdges);
+        }
+
+        this.sort();
+    }
+
+    /**
+     * Constructor of {@link DependencyGraph}.
+     * <p>
+     * Graph is built from the edges which are
+     * resolved before, such as the edges of a
+     * {@link GraphSnapshot}, so the entities are
+     * not looked up from the module.
+     *
+     * @param dependencies            dependencies of the entities in binding order
+     * @param constructorDependencies constructor dependencies of the entities
+     */
+    public DependencyGraph(@Nonnull Map<AbstractEntity, Set<AbstractEntity>> dependencies,
+                           @Nonnull Map<AbstractEntity, Set<AbstractEntity>> constructorDependencies) {
+        this.dependencies = new LinkedHashMap<>(dependencies);
+        this.constructorDependencies = new HashMap<>(constructorDependencies);
+        this.dependents = new HashMap<>();
+        this.unresolved = new LinkedHashMap<>();
+        this.waves = new ArrayList<>();
+        this.cyclic = new ArrayList<>();
+
+        this.sort();
+    }
+
+    /**
+     * Returns the entities that the
+     * given entity depends on.
+     *
+     * @param entity entity
+     * @return dependencies
+     */
+    public @Nonnull Set<AbstractEntity> getDependencies(@Nonnull AbstractEntity entity) {
+        return this.dependencies.getOrDefault(entity, Collections.emptySet());
+    }
+
+    /**
+     * Returns the entities that the given
+     * entity depends on with its constructor.
+     *
+     * @param entity entity
+     * @return constructor dependencies
+     */
+    public @Nonnull Set<AbstractEntity> getConstructorDependencies(@Nonnull AbstractEntity entity) {
+        return this.constructorDependencies.getOrDefault(entity, Collections.emptySet());
+    }
+
+    /**
+     * Returns the waves of the graph. Every wave
+     * depends only on the waves before it.
+     *
+     * @return waves
+     */
+    public @Nonnull List<List<AbstractEntity>> getWaves() {
+        return this.waves;
+    }
+
+    /**
+     * Returns the entities which are part of
+     * a cycle or depend on one, in binding order.
+     *
+     * @return cyclic entities
+     */
+    public @Nonnull List<AbstractEntity> getCyclic() {
+        return this.cyclic;
+    }
+
+    /**
+     * Validates the graph and returns the problems
+     * which prevent the creation of the instances,
+     * which are the dependencies that are missing
+     * or ambiguous, and the cycles of the constructor
+     * dependencies. Every problem contains the full
+     * path of the entities which lead to it.
+     *
+     * @return problems, or an empty list if it is valid
+     */
+    public @Nonnull List<String> validate() {
+        List<String> problems = new ArrayList<>();
+
+        this.unresolved.forEach((entity, types) -> types.forEach((type, reason) ->
+                problems.add(reason + " [" + this.pathTo(entity) + " -> " + type + "]")));
+
+        Set<AbstractEntity> visited = new HashSet<>();
+        for (AbstractEntity entity : this.dependencies.keySet())
+            this.findCycles(entity, new ArrayList<>(), visited, problems);
+
+        return problems;
+    }
+
+
+
+    /**
+     * Resolves the dependency of the entity,
+     * and records it if it cannot be resolved.
+     *
+     * @param module     module
+     * @param entity     entity
+     * @param dependency dependency key
+     * @return resolved entity, or null
+     */
+    private @Nullable AbstractEntity resolve(@Nonnull Module module,
+                                             @Nonnull AbstractEntity entity,
+                                             @Nonnull Key dependency) {
+        String reason;
+        try {
+            AbstractEntity target = module.findEntity(dependency);
+            if (target != null) return target;
+            reason = "no inject entity found for class " + dependency;
+        } catch (RuntimeException e) {
+            reason = e.getMessage();
+        }
+
+        this.unresolved.computeIfAbsent(entity, key -> new LinkedHashMap<>()).put(dependency, reason);
+        return null;
+    }
+
+    /**
+     * Returns the path of the entities which
+     * depend on the given entity transitively,
+     * ending with the entity.
+     *
+     * @param entity entity
+     * @return path
+     */
+    private @Nonnull String pathTo(@Nonnull AbstractEntity entity) {
+        LinkedList<AbstractEntity> path = new LinkedList<>();
+        for (AbstractEntity current = entity; current != null; ) {
+            path.addFirst(current);
+            current = this.dependents.getOrDefault(current, Collections.emptyList()).stream()
+                    .filter(dependent -> !path.contains(dependent))
+                    .findFirst().orElse(null);
+        }
+        return path.stream().map(current -> current.getType().getName()).collect(Collectors.joining(" -> "));
+    }
+
+    /**
+     * Finds the cycles of the constructor
+     * dependencies with depth first search.
+     *
+     * @param entity   entity
+     * @param path     path to the entity
+     * @param visited  visited entities
+     * @param problems problems
+     */
+    private void findCycles(@Nonnull AbstractEntity entity,
+                            @Nonnull List<AbstractEntity> path,
+                            @Nonnull Set<AbstractEntity> visited,
+                            @Nonnull List<String> problems) {
+        int index = path.indexOf(entity);
+        if (index >= 0) {
+            List<AbstractEntity> cycle = new ArrayList<>(path.subList(index, path.size()));
+            cycle.add(entity);
+            problems.add("constructor dependency cycle [" + cycle.stream()
+                    .map(current -> current.getType().getName())
+                    .collect(Collectors.joining(" -> ")) + "]");
+            return;
+        }
+        if (!visited.add(entity))
+            return;
+
+        path.add(entity);
+        for (AbstractEntity dependency : this.constructorDependencies.getOrDefault(entity, Collections.emptySet()))
+            this.findCycles(dependency, path, visited, problems);
+        path.remove(path.size() - 1);
+    }
+
+    /**
+     * Sorts the entities into waves
+     * with Kahn's algorithm.
+     */
+    private void sort() {
+        Map<AbstractEntity, Integer> remaining = new HashMap<>();
+        Map<AbstractEntity, List<AbstractEntity>> dependents = this.dependents;
+
+        this.dependencies.forEach((entity, edges) -> {
+            remaining.put(entity, edges.size());
+            edges.forEach(edge -> dependents.computeIfAbsent(edge, key -> new ArrayList<>()).add(entity));
+        });
+
+        List<AbstractEntity> wave = new ArrayList<>();
+        for (AbstractEntity entity : this.dependencies.keySet())
+            if (remaining.get(entity) == 0) wave.add(entity);
+
+        while (!wave.isEmpty()) {
+            this.waves.add(wave);
+
+            List<AbstractEntity> next = new ArrayList<>();
+            for (AbstractEntity entity : wave) {
+                for (AbstractEntity dependent : dependents.getOrDefault(entity, Collections.emptyList()))
+                    if (remaining.merge(dependent, -1, Integer::sum) == 0) next.add(dependent);
+            }
+            wave = next;
+        }
+
+        for (AbstractEntity entity : this.dependencies.keySet())
+            if (remaining.get(entity) > 0) this.cyclic.add(entity);
+    }
+}
@@ -0,0 +1,603 @@
+package com.hakan.basicdi.graph;
+
+import com.hakan.basicdi.entity.AbstractEntity;
+import com.hakan.basicdi.entity.Scope;
+import com.hakan.basicdi.entity.impl.ClassEntity;
+import com.hakan.basicdi.entity.impl.GeneratedEntity;
+import com.hakan.basicdi.entity.impl.MethodProviderEntity;
+import com.hakan.basicdi.entity.impl.MethodRunnerEntity;
+import com.hakan.basicdi.generated.ComponentFactory;
+import com.hakan.basicdi.generated.GeneratedIndex;
+import com.hakan.basicdi.module.Module;
+import com.hakan.basicdi.reflection.ScanCache;
+import lombok.SneakyThrows;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * GraphSnapshot is a compact form of a validated
+ * {@link DependencyGraph}, which contains the entities
+ * in binding order, their scopes and the resolved
+ * edges between them. It can be written to a file
+ * and restored at the next start of the JVM without
+ * configuring the modules, so the classes are not
+ * scanned and the entities are not looked up.
+ * <p>
+ * Every snapshot is stored with a fingerprint of the
+ * classpath and the modules, and it is not read if
+ * the classpath or the modules are changed. Bound instances are not stored, so entities
+ * of bound instances cannot be part of a snapshot.
+ * Qualifier annotations with attributes are not stored
+ * either, they are read again from the annotations of
+ * the restored classes and methods.
+ */
+public class GraphSnapshot {
+
+    private static final int MAGIC = 0x42444947;
+    private static final int VERSION = 2;
+
+    private static final byte CLASS = 0;
+    private static final byte GENERATED = 1;
+    private static final byte PROVIDER = 2;
+    private static final byte RUNNER = 3;
+
+    private static final byte UNQUALIFIED = 0;
+    private static final byte NAMED = 1;
+    private static final byte QUALIFIER_TYPE = 2;
+    private static final byte ANNOTATED = 3;
+
+    /**
+     * Creates a snapshot of the module. Module is
+     * validated if its graph is not validated yet.
+     *
+     * @param module module
+     * @return snapshot
+     * @throws RuntimeException if an entity cannot be stored
+     */
+    public static @Nonnull GraphSnapshot of(@Nonnull Module module) {
+        DependencyGraph graph = module.getGraph();
+        if (graph == null)
+            graph = module.validate();
+
+        List<AbstractEntity> entities = new ArrayList<>(module.getEntities());
+        Map<AbstractEntity, Integer> indexes = new HashMap<>();
+        for (int i = 0; i < entities.size(); i++)
+            indexes.put(entities.get(i), i);
+
+        List<Entry> entries = new ArrayList<>(entities.size());
+        for (AbstractEntity entity : entities)
+            entries.add(Entry.of(entity, indexOf(indexes, graph.getDependencies(entity)), indexOf(indexes, graph.getConstructorDependencies(entity))));
+        return new GraphSnapshot(entries);
+    }
+
+    /**
+     * Checks if every entity of the module can be
+     * stored in a snapshot, which are the class,
+     * generated, provider and runner entities.
+     *
+     * @param module module
+     * @return true if it can be stored
+     */
+    public static boolean isStorable(@Nonnull Module module) {
+        for (AbstractEntity entity : module.getEntities())
+            if (!Entry.isStorable(entity)) return false;
+        return true;
+    }
+
+    /**
+     * Reads the snapshot from the file if the
+     * stored fingerprint matches.
+     *
+     * @param file        snapshot file
+     * @param fingerprint fingerprint of the classpath
+     * @return snapshot, or null if there is no valid snapshot
+     */
+    public static @Nullable GraphSnapshot read(@Nonnull Path file, long fingerprint) {
+        if (!Files.isRegularFile(file))
+            return null;
+
+        try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(file)))) {
+            if (input.readInt() != MAGIC || input.readInt() != VERSION || input.readLong() != fingerprint)
+                return null;
+
+            int count = input.readInt();
+            List<Entry> entries = new ArrayList<>(count);
+            for (int i = 0; i < count; i++)
+                entries.add(Entry.read(input));
+            return new GraphSnapshot(entries);
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Calculates the fingerprint of the classpath
+     * of the JVM and the class loaders of the given
+     * modules, with the paths, sizes and the
+     * modification times of their entries. Class
+     * names of the modules are part of it too, so
+     * a snapshot of other modules is not read.
+     *
+     * @param modules modules
+     * @return fingerprint
+     * @see ScanCache#fingerprint(java.util.Collection, String)
+     */
+    public static long fingerprint(@Nonnull Module... modules) {
+        Set<Path> roots = new LinkedHashSet<>();
+        for (String entry : System.getProperty("java.class.path", "").split(File.pathSeparator))
+            if (!entry.isEmpty()) roots.add(Paths.get(entry));
+
+        for (Module module : modules) {
+            for (ClassLoader loader = module.getClass().getClassLoader(); loader instanceof URLClassLoader; loader = loader.getParent()) {
+                for (URL url : ((URLClassLoader) loader).getURLs()) {
+                    try {
+                        if (url.getProtocol().equals("file")) roots.add(Paths.get(url.toURI()));
+                    } catch (URISyntaxException | IllegalArgumentException ignored) {
+
+                    }
+                }
+            }
+        }
+
+        long hash = ScanCache.fingerprint(roots, "");
+        for (Module module : modules)
+            hash = 31 * hash + module.getClass().getName().hashCode();
+        return hash * 31 + VERSION;
+    }
+
+    /**
+     * Returns the indexes of the entities.
+     *
+     * @param indexes  indexes of the bound entities
+     * @param entities entities
+     * @return indexes
+     */
+    private static @Nonnull int[] indexOf(@Nonnull Map<AbstractEntity, Integer> indexes,
+                                          @Nonnull Set<AbstractEntity> entities) {
+        return entities.stream().mapToInt(indexes::get).toArray();
+    }
+
+
+
+    private final List<Entry> entries;
+
+    /**
+     * Constructor of {@link GraphSnapshot}.
+     *
+     * @param entries entries in binding order
+     */
+    private GraphSnapshot(@Nonnull List<Entry> entries) {
+        this.entries = Collections.unmodifiableList(entries);
+    }
+
+    /**
+     * Returns the count of the entities
+     * which are stored in the snapshot.
+     *
+     * @return count
+     */
+    public int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * Writes the snapshot to the file. File is
+     * replaced atomically, so a concurrent reader
+     * never sees half of it.
+     *
+     * @param file        snapshot file
+     * @param fingerprint fingerprint of the classpath
+     */
+    @SneakyThrows
+    public void write(@Nonnull Path file, long fingerprint) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(bytes);
+
+        output.writeInt(MAGIC);
+        output.writeInt(VERSION);
+        output.writeLong(fingerprint);
+        output.writeInt(this.entries.size());
+        for (Entry entry : this.entries)
+            entry.write(output);
+
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, "graph", ".tmp");
+        Files.write(temporary, bytes.toByteArray());
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Binds the entities of the snapshot to the
+     * module in the same order, and sets the graph
+     * of the module from the stored edges.
+     * <p>
+     * Provider and runner methods are called on the
+     * given modules of the same class. Modules which
+     * are not given are created with their constructor
+     * without parameters.
+     *
+     * @param module  module to bind the entities
+     * @param modules modules of the provider methods
+     */
+    public void restore(@Nonnull Module module,
+                        @Nonnull List<Module> modules) {
+        Map<String, Module> instances = new HashMap<>();
+        modules.forEach(instance -> instances.putIfAbsent(instance.getClass().getName(), instance));
+
+        Class<?> loaderClass = modules.isEmpty() ? module.getClass() : modules.get(0).getClass();
+        GeneratedIndex index = GeneratedIndex.of(loaderClass.getClassLoader());
+
+        List<AbstractEntity> entities = new ArrayList<>(this.entries.size());
+        for (Entry entry : this.entries)
+            entities.add(module.bind(entry.restore(module, index, instances)));
+
+        Map<AbstractEntity, Set<AbstractEntity>> dependencies = new LinkedHashMap<>();
+        Map<AbstractEntity, Set<AbstractEntity>> constructorDependencies = new HashMap<>();
+        for (int i = 0; i < entities.size(); i++) {
+            dependencies.put(entities.get(i), entitiesOf(entities, this.entries.get(i).dependencies));
+            constructorDependencies.put(entities.get(i), entitiesOf(entities, this.entries.get(i).constructorDependencies));
+        }
+
+        entities.forEach(AbstractEntity::prepare);
+        module.withGraph(new DependencyGraph(dependencies, constructorDependencies));
+    }
+
+
+    /**
+     * Returns the entities of the indexes.
+     *
+     * @param entities entities in binding order
+     * @param indexes  indexes
+     * @return entities
+     */
+    private static @Nonnull Set<AbstractEntity> entitiesOf(@Nonnull List<AbstractEntity> entities,
+                                                           @Nonnull int[] indexes) {
+        Set<AbstractEntity> set = new LinkedHashSet<>();
+        for (int index : indexes)
+            set.add(entities.get(index));
+        return set;
+    }
+
+
+
+    /**
+     * Entry is a stored entity of the snapshot.
+     */
+    private static final class Entry {
+
+        private final byte kind;
+        private final String source;
+        private final String moduleClass;
+        private final String methodName;
+        private final List<String> parameterTypes;
+        private final String type;
+        private final List<String> subTypes;
+        private final Scope scope;
+        private final boolean lazy;
+        private final boolean primary;
+        private final byte qualifierKind;
+        private final String qualifier;
+        private final int[] dependencies;
+        private final int[] constructorDependencies;
+
+        /**
+         * Constructor of {@link Entry}.
+         *
+         * @param kind                    kind of the entity
+         * @param source                  class of the entity or declaring class of the method
+         * @param moduleClass             class of the module of the method
+         * @param methodName              name of the method
+         * @param parameterTypes          parameter types of the method
+         * @param type                    type of the entity
+         * @param subTypes                subtypes if they are changed, otherwise empty
+         * @param scope                   scope
+         * @param lazy                    lazy
+         * @param primary                 primary
+         * @param qualifierKind           kind of the qualifier
+         * @param qualifier               name or annotation type of the qualifier
+         * @param dependencies            indexes of the dependencies
+         * @param constructorDependencies indexes of the constructor dependencies
+         */
+        private Entry(byte kind, @Nonnull String source,
+                      @Nonnull String moduleClass, @Nonnull String methodName,
+                      @Nonnull List<String> parameterTypes,
+                      @Nonnull String type, @Nonnull List<String> subTypes,
+                      @Nonnull Scope scope, boolean lazy, boolean primary,
+                      byte qualifierKind, @Nonnull String qualifier,
+                      @Nonnull int[] dependencies, @Nonnull int[] constructorDependencies) {
+            this.kind = kind;
+            this.source = source;
+            this.moduleClass = moduleClass;
+            this.methodName = methodName;
+            this.parameterTypes = parameterTypes;
+            this.type = type;
+            this.subTypes = subTypes;
+            this.scope = scope;
+            this.lazy = lazy;
+            this.primary = primary;
+            this.qualifierKind = qualifierKind;
+            this.qualifier = qualifier;
+            this.dependencies = dependencies;
+            this.constructorDependencies = constructorDependencies;
+        }
+
+        /**
+         * Checks if the entity can be stored
+         * in an entry.
+         *
+         * @param entity entity
+         * @return true if it can be stored
+         */
+        private static boolean isStorable(@Nonnull AbstractEntity entity) {
+            return entity instanceof ClassEntity || entity instanceof GeneratedEntity
+                    || entity instanceof MethodProviderEntity || entity instanceof MethodRunnerEntity;
+        }
+
+        /**
+         * Creates an entry of the entity.
+         *
+         * @param entity                  entity
+         * @param dependencies            indexes of the dependencies
+         * @param constructorDependencies indexes of the constructor dependencies
+         * @return entry
+         */
+        private static @Nonnull Entry of(@Nonnull AbstractEntity entity,
+                                         @Nonnull int[] dependencies,
+                                         @Nonnull int[] constructorDependencies) {
+            byte kind;
+            String source = entity.getMetadata().getType().getName();
+            String moduleClass = "";
+            Method method = null;
+            if (entity instanceof ClassEntity) {
+                kind = CLASS;
+            } else if (entity instanceof GeneratedEntity) {
+                kind = GENERATED;
+            } else if (entity instanceof MethodProviderEntity) {
+                kind = PROVIDER;
+                method = ((MethodProviderEntity) entity).getMethod();
+                moduleClass = ((MethodProviderEntity) entity).getMethodInstance().getClass().getName();
+            } else if (entity instanceof MethodRunnerEntity) {
+                kind = RUNNER;
+                method = ((MethodRunnerEntity) entity).getMethod();
+                moduleClass = ((MethodRunnerEntity) entity).getMethodInstance().getClass().getName();
+            } else {
+                throw new RuntimeException("entity of class " + entity.getType().getName() + " cannot be stored in a snapshot");
+            }
+
+            List<String> parameterTypes = new ArrayList<>();
+            if (method != null) {
+                source = method.getDeclaringClass().getName();
+                for (Class<?> parameterType : method.getParameterTypes())
+                    parameterTypes.add(parameterType.getName());
+            }
+
+            List<String> subTypes = new ArrayList<>();
+            if (!entity.getSubTypes().equals(entity.getMetadata().getSubTypes()))
+                entity.getSubTypes().forEach(subType -> subTypes.add((subType != null) ? subType.getName() : ""));
+
+            byte qualifierKind = ANNOTATED;
+            String qualifier = "";
+            if (entity.getQualifier() == null) {
+                qualifierKind = UNQUALIFIED;
+            } else if (entity.getQualifier() instanceof String) {
+                qualifierKind = NAMED;
+                qualifier = (String) entity.getQualifier();
+            } else if (entity.getQualifier() instanceof Class) {
+                qualifierKind = QUALIFIER_TYPE;
+                qualifier = ((Class<?>) entity.getQualifier()).getName();
+            }
+
+            return new Entry(kind, source, moduleClass, (method != null) ? method.getName() : "", parameterTypes,
+                    entity.getType().getName(), subTypes, entity.getScope(), entity.isLazy(), entity.isPrimary(),
+                    qualifierKind, qualifier, dependencies, constructorDependencies);
+        }
+
+        /**
+         * Reads an entry.
+         *
+         * @param input input
+         * @return entry
+         * @throws IOException if it cannot be read
+         */
+        private static @Nonnull Entry read(@Nonnull DataInputStream input) throws IOException {
+            byte kind = input.readByte();
+            String source = input.readUTF();
+            String moduleClass = input.readUTF();
+            String methodName = input.readUTF();
+            List<String> parameterTypes = readStrings(input);
+            String type = input.readUTF();
+            List<String> subTypes = readStrings(input);
+            Scope scope = Scope.valueOf(input.readUTF());
+            boolean lazy = input.readBoolean();
+            boolean primary = input.readBoolean();
+            byte qualifierKind = input.readByte();
+            String qualifier = input.readUTF();
+            int[] dependencies = readInts(input);
+            int[] constructorDependencies = readInts(input);
+
+            return new Entry(kind, source, moduleClass, methodName, parameterTypes, type, subTypes,
+                    scope, lazy, primary, qualifierKind, qualifier, dependencies, constructorDependencies);
+        }
+
+        /**
+         * Writes the entry.
+         *
+         * @param output output
+         * @throws IOException if it cannot be written
+         */
+        private void write(@Nonnull DataOutputStream output) throws IOException {
+            output.writeByte(this.kind);
+            output.writeUTF(this.source);
+            output.writeUTF(this.moduleClass);
+            output.writeUTF(this.methodName);
+            writeStrings(output, this.parameterTypes);
+            output.writeUTF(this.type);
+            writeStrings(output, this.subTypes);
+            output.writeUTF(this.scope.name());
+            output.writeBoolean(this.lazy);
+            output.writeBoolean(this.primary);
+            output.writeByte(this.qualifierKind);
+            output.writeUTF(this.qualifier);
+            writeInts(output, this.dependencies);
+            writeInts(output, this.constructorDependencies);
+        }
+
+        /**
+         * Creates the entity of the entry.
+         *
+         * @param module    module to bind the entity
+         * @param index     index to load the classes
+         * @param instances modules of the provider methods by class name
+         * @return entity
+         */
+        @SneakyThrows
+        private @Nonnull AbstractEntity restore(@Nonnull Module module,
+                                                @Nonnull GeneratedIndex index,
+                                                @Nonnull Map<String, Module> instances) {
+            Class<?> source = index.loadClass(this.source);
+
+            AbstractEntity entity;
+            switch (this.kind) {
+                case CLASS:
+                    entity = new ClassEntity(module, source, this.scope);
+                    break;
+                case GENERATED:
+                    ComponentFactory<?> factory = index.findFactory(source);
+                    entity = (factory != null) ? new GeneratedEntity(module, source, factory) : new ClassEntity(module, source, this.scope);
+                    break;
+                case PROVIDER:
+                case RUNNER:
+                    Class<?>[] parameterTypes = new Class<?>[this.parameterTypes.size()];
+                    for (int i = 0; i < parameterTypes.length; i++)
+                        parameterTypes[i] = index.loadClass(this.parameterTypes.get(i));
+
+                    Method method = source.getDeclaredMethod(this.methodName, parameterTypes);
+                    Module instance = instances.computeIfAbsent(this.moduleClass, name -> createModule(index, name));
+                    entity = (this.kind == PROVIDER) ? new MethodProviderEntity(instance, method) : new MethodRunnerEntity(instance, method);
+                    entity.withModule(module);
+                    break;
+                default:
+                    throw new RuntimeException("unknown entity kind " + this.kind + " in snapshot");
+            }
+
+            if (!this.type.equals(entity.getType().getName()))
+                entity.withType(index.loadClass(this.type));
+            if (!this.subTypes.isEmpty()) {
+                List<Class<?>> subTypes = new ArrayList<>();
+                for (String subType : this.subTypes)
+                    subTypes.add(subType.isEmpty() ? null : index.loadClass(subType));
+                entity.withSubTypes(subTypes);
+            }
+
+            if (this.qualifierKind == UNQUALIFIED)
+                entity.withQualifier(null);
+            else if (this.qualifierKind == NAMED)
+                entity.withQualifier(this.qualifier);
+            else if (this.qualifierKind == QUALIFIER_TYPE)
+                entity.withQualifier(index.loadClass(this.qualifier));
+
+            return entity.withScope(this.scope).withLazy(this.lazy).withPrimary(this.primary);
+        }
+
+        /**
+         * Creates the module of the provider methods
+         * with its constructor without parameters.
+         *
+         * @param index index to load the class
+         * @param name  class name of the module
+         * @return module
+         */
+        @SneakyThrows
+        private static @Nonnull Module createModule(@Nonnull GeneratedIndex index, @Nonnull String name) {
+            Constructor<?> constructor;
+            try {
+                constructor = index.loadClass(name).getDeclaredConstructor();
+            } catch (NoSuchMethodException e) {
+                throw new RuntimeException("module " + name + " must be given to restore the snapshot");
+            }
+
+            constructor.setAccessible(true);
+            return (Module) constructor.newInstance();
+        }
+
+        /**
+         * Reads a list of strings.
+         *
+         * @param input input
+         * @return strings
+         * @throws IOException if they cannot be read
+         */
+        private static @Nonnull List<String> readStrings(@Nonnull DataInputStream input) throws IOException {
+            int count = input.readInt();
+            List<String> strings = new ArrayList<>(count);
+            for (int i = 0; i < count; i++)
+                strings.add(input.readUTF());
+            return strings;
+        }
+
+        /**
+         * Writes a list of strings.
+         *
+         * @param output  output
+         * @param strings strings
+         * @throws IOException if they cannot be written
+         */
+        private static void writeStrings(@Nonnull DataOutputStream output, @Nonnull List<String> strings) throws IOException {
+            output.writeInt(strings.size());
+            for (String string : strings)
+                output.writeUTF(string);
+        }
+
+        /**
+         * Reads an array of ints.
+         *
+         * @param input input
+         * @return ints
+         * @throws IOException if they cannot be read
+         */
+        private static @Nonnull int[] readInts(@Nonnull DataInputStream input) throws IOException {
+            int[] ints = new int[input.readInt()];
+            for (int i = 0; i < ints.length; i++)
+                ints[i] = input.readInt();
+            return ints;
+        }
+
+        /**
+         * Writes an array of ints.
+         *
+         * @param output output
+         * @param ints   ints
+         * @throws IOException if they cannot be written
+         */
+        private static void writeInts(@Nonnull DataOutputStream output, @Nonnull int[] ints) throws IOException {
+            output.writeInt(ints.length);
+            for (int value : ints)
+                output.writeInt(value);
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.hakan.basicdi.key;
+
+import com.hakan.basicdi.annotations.Named;
+import com.hakan.basicdi.annotations.Qualifier;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+/**
+ * Key is the binding key of an entity, which
+ * is a type and an optional qualifier.
+ * <p>
+ * Type of a key is a class, or a parameterized
+ * type whose canonical form is kept with its raw
+ * class, so {@code Repository<User>} and
+ * {@code Repository<Order>} are different keys.
+ * A generic key falls back to its raw key when
+ * the generic type is not bound, but only to the
+ * entities which are bound without any
+ * parameterization of the raw type.
+ * <p>
+ * Qualifier of {@link Named} is its name, and
+ * qualifier of a custom {@link Qualifier} is its
+ * annotation type, or the annotation itself if
+ * it has attributes. Hash of the key is computed
+ * once, so a qualified lookup costs the same
+ * as an unqualified one.
+ */
+public final class Key {
+
+    /**
+     * Creates the unqualified key of the type.
+     *
+     * @param type class or parameterized type
+     * @return key
+     */
+    public static @Nonnull Key of(@Nonnull Type type) {
+        return of(type, null);
+    }
+
+    /**
+     * Creates the key of the type with
+     * the given qualifier.
+     *
+     * @param type      class or parameterized type
+     * @param qualifier name, qualifier annotation type or annotation
+     * @return key
+     */
+    public static @Nonnull Key of(@Nonnull Type type, @Nullable Object qualifier) {
+        if (qualifier instanceof Annotation)
+            qualifier = qualifierOf((Annotation) qualifier);
+        return new Key(Types.rawOf(type), Types.canonicalize(type), qualifier);
+    }
+
+    /**
+     * Finds the qualifier of the given annotations.
+     *
+     * @param annotations annotations of a class, method, field or parameter
+     * @return qualifier, or null if there is none
+     * @throws RuntimeException if there is more than one qualifier
+     */
+    public static @Nullable Object qualifierOf(@Nonnull Annotation[] annotations) {
+        Object qualifier = null;
+        for (Annotation annotation : annotations) {
+            if (!annotation.annotationType().isAnnotationPresent(Qualifier.class)) continue;
+            if (qualifier != null)
+                throw new RuntimeException("more than one qualifier found: " + toString(qualifier) + ", " + annotation);
+            qualifier = qualifierOf(annotation);
+        }
+        return qualifier;
+    }
+
+    /**
+     * Hashes the type and the qualifier.
+     *
+     * @param type        raw type
+     * @param genericType canonical type
+     * @param qualifier   qualifier
+     * @return hash
+     */
+    public static int hash(@Nonnull Class<?> type, @Nullable Type genericType, @Nullable Object qualifier) {
+        int hash = type.hashCode() * 31 + ((qualifier != null) ? qualifier.hashCode() : 0);
+        if (genericType != null)
+            hash = hash * 31 + genericType.hashCode();
+        return hash ^ (hash >>> 16);
+    }
+
+
+    /**
+     * Returns the qualifier of the annotation.
+     *
+     * @param annotation qualifier annotation
+     * @return qualifier
+     */
+    private static @Nonnull Object qualifierOf(@Nonnull Annotation annotation) {
+        if (annotation instanceof Named)
+            return ((Named) annotation).value();
+        if (annotation.annotationType().getDeclaredMethods().length == 0)
+            return annotation.annotationType();
+        return annotation;
+    }
+
+    /**
+     * Returns the readable form of the qualifier.
+     *
+     * @param qualifier qualifier
+     * @return qualifier as string
+     */
+    private static @Nonnull String toString(@Nonnull Object qualifier) {
+        if (qualifier instanceof String)
+            return "@" + Named.class.getSimpleName() + "(\"" + qualifier + "\")";
+        if (qualifier instanceof Class)
+            return "@" + ((Class<?>) qualifier).getSimpleName();
+        return qualifier.toString();
+    }
+
+
+
+    private final Class<?> type;
+    private final Type genericType;
+    private final Object qualifier;
+    private final Key rawKey;
+    private final int hash;
+
+    /**
+     * Constructor of {@link Key}.
+     *
+     * @param type        raw type
+     * @param genericType canonical type
+     * @param qualifier   qualifier
+     */
+    private Key(@Nonnull Class<?> type, @Nullable Type genericType, @Nullable Object qualifier) {
+        this.type = type;
+        this.genericType = genericType;
+        this.qualifier = qualifier;
+        this.rawKey = (genericType != null) ? new Key(type, null, qualifier) : this;
+        this.hash = hash(type, genericType, qualifier);
+    }
+
+    /**
+     * Returns the raw type of the key.
+     *
+     * @return type
+     */
+    public @Nonnull Class<?> getType() {
+        return this.type;
+    }
+
+    /**
+     * Returns the canonical parameterized
+     * type of the key.
+     *
+     * @return generic type, or null if it is not generic
+     * @see Types#canonicalize(Type)
+     */
+    public @Nullable Type getGenericType() {
+        return this.genericType;
+    }
+
+    /**
+     * Returns the key of the raw type with
+     * the same qualifier.
+     *
+     * @return raw key, or this key if it is not generic
+     */
+    public @Nonnull Key getRawKey() {
+        return this.rawKey;
+    }
+
+    /**
+     * Returns the qualifier of the key.
+     *
+     * @return qualifier, or null if it is unqualified
+     */
+    public @Nullable Object getQualifier() {
+        return this.qualifier;
+    }
+
+    /**
+     * Checks if the key has a qualifier.
+     *
+     * @return true if it is qualified
+     */
+    public boolean isQualified() {
+        return this.qualifier != null;
+    }
+
+    /**
+     * Checks if the key is of the given types
+     * and qualifier. Canonical types are interned,
+     * so they are compared by identity.
+     *
+     * @param type        raw type
+     * @param genericType canonical type
+     * @param qualifier   qualifier
+     * @return true if it matches
+     */
+    public boolean matches(@Nonnull Class<?> type, @Nullable Type genericType, @Nullable Object qualifier) {
+        return this.type == type && this.genericType == genericType
+                && (this.qualifier == qualifier || (this.qualifier != null && this.qualifier.equals(qualifier)));
+    }
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return this.hash;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object object) {
+        if (this == object)
+            return true;
+        if (!(object instanceof Key))
+            return false;
+
+        Key key = (Key) object;
+        return this.hash == key.hash && key.matches(this.type, this.genericType, this.qualifier);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        String name = (this.genericType != null) ? this.genericType.getTypeName() : this.type.getName();
+        if (this.qualifier == null)
+            return name;
+        return name + " qualified with " + toString(this.qualifier);
+    }
+}
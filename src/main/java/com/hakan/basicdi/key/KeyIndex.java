@@ -0,0 +1,176 @@
+package com.hakan.basicdi.key;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.lang.reflect.Type;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * KeyIndex is an open addressing hash table
+ * from the keys to their values, which is read
+ * without any lock and written by one thread
+ * at a time.
+ * <p>
+ * Entries are never moved but replaced, and
+ * every slot is written with a volatile store,
+ * so a reader sees either the previous or the
+ * next entry of a slot with all of its fields.
+ * Removed keys keep their slot with a null value,
+ * and the table is published again only when
+ * it grows.
+ *
+ * @param <V> value type
+ */
+@SuppressWarnings({"unchecked"})
+public final class KeyIndex<V> {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private volatile AtomicReferenceArray<Entry> table;
+    private int used;
+
+    /**
+     * Constructor of {@link KeyIndex}.
+     */
+    public KeyIndex() {
+        this.table = new AtomicReferenceArray<>(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Gets the value of the unqualified
+     * key of the type.
+     *
+     * @param type type
+     * @return value, or null if not found
+     */
+    public @Nullable V get(@Nonnull Class<?> type) {
+        return this.get(type, null, null, Key.hash(type, null, null));
+    }
+
+    /**
+     * Gets the value of the key.
+     *
+     * @param key key
+     * @return value, or null if not found
+     */
+    public @Nullable V get(@Nonnull Key key) {
+        return this.get(key.getType(), key.getGenericType(), key.getQualifier(), key.hashCode());
+    }
+
+    /**
+     * Puts the value of the key.
+     *
+     * @param key   key
+     * @param value value, or null to remove it
+     */
+    public synchronized void put(@Nonnull Key key, @Nullable V value) {
+        AtomicReferenceArray<Entry> table = this.table;
+        int slot = slotOf(table, key);
+        if (table.get(slot) == null) {
+            if (value == null) return;
+
+            if ((this.used + 1) * 2 > table.length()) {
+                table = this.resize(table);
+                slot = slotOf(table, key);
+            }
+            this.used++;
+        }
+
+        table.set(slot, new Entry(key, value));
+    }
+
+    /**
+     * Removes the value of the key.
+     *
+     * @param key key
+     */
+    public void remove(@Nonnull Key key) {
+        this.put(key, null);
+    }
+
+
+    /**
+     * Probes the table from the slot of the hash
+     * until the key or an empty slot is found.
+     *
+     * @param type        raw type of the key
+     * @param genericType canonical type of the key
+     * @param qualifier   qualifier of the key
+     * @param hash        hash of the key
+     * @return value, or null if not found
+     */
+    private @Nullable V get(@Nonnull Class<?> type, @Nullable Type genericType, @Nullable Object qualifier, int hash) {
+        AtomicReferenceArray<Entry> table = this.table;
+        int mask = table.length() - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            Entry entry = table.get(slot);
+            if (entry == null)
+                return null;
+            if (entry.hash == hash && entry.key.matches(type, genericType, qualifier))
+                return (V) entry.value;
+        }
+    }
+
+    /**
+     * Creates a table of double capacity
+     * with the entries which have a value,
+     * and publishes it.
+     *
+     * @param table current table
+     * @return new table
+     */
+    private @Nonnull AtomicReferenceArray<Entry> resize(@Nonnull AtomicReferenceArray<Entry> table) {
+        AtomicReferenceArray<Entry> resized = new AtomicReferenceArray<>(table.length() * 2);
+
+        this.used = 0;
+        for (int i = 0; i < table.length(); i++) {
+            Entry entry = table.get(i);
+            if (entry == null || entry.value == null) continue;
+            resized.set(slotOf(resized, entry.key), entry);
+            this.used++;
+        }
+
+        return this.table = resized;
+    }
+
+    /**
+     * Finds the slot of the key in the table,
+     * or the empty slot where it must be put.
+     *
+     * @param table table
+     * @param key   key
+     * @return slot
+     */
+    private static int slotOf(@Nonnull AtomicReferenceArray<Entry> table, @Nonnull Key key) {
+        int mask = table.length() - 1;
+        int slot = key.hashCode() & mask;
+        for (Entry entry; (entry = table.get(slot)) != null && !entry.key.equals(key); )
+            slot = (slot + 1) & mask;
+        return slot;
+    }
+
+
+
+    /**
+     * Entry is an immutable key and value
+     * pair in a slot of the table.
+     */
+    private static final class Entry {
+
+        private final Key key;
+        private final Object value;
+        private final int hash;
+
+        /**
+         * Constructor of {@link Entry}.
+         *
+         * @param key   key
+         * @param value value
+         */
+        private Entry(@Nonnull Key key, @Nullable Object value) {
+            this.key = key;
+            this.value = value;
+            this.hash = key.hashCode();
+        }
+    }
+}
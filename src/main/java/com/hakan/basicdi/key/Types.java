@@ -0,0 +1,278 @@
+package com.hakan.basicdi.key;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Array;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * Types converts the generic types to their
+ * canonical forms, which are used in the keys.
+ * <p>
+ * A canonical type is a parameterized type whose
+ * type arguments are classes or canonical types,
+ * so it does not contain any type variable or
+ * wildcard. Canonical types are interned, so two
+ * equal canonical types are the same instance.
+ * <p>
+ * Interned types are weakly referenced, so they are
+ * kept only while a key uses them, and the class
+ * loaders of their classes can still be unloaded.
+ */
+public final class Types {
+
+    private static final Map<Type, WeakReference<Type>> INTERNED = new WeakHashMap<>();
+
+    /**
+     * Constructor of {@link Types}.
+     */
+    private Types() {
+
+    }
+
+    /**
+     * Returns the raw class of the type.
+     *
+     * @param type class, parameterized or generic array type
+     * @return raw class
+     * @throws RuntimeException if the type has no raw class
+     */
+    public static @Nonnull Class<?> rawOf(@Nonnull Type type) {
+        if (type instanceof Class)
+            return (Class<?>) type;
+        if (type instanceof ParameterizedType)
+            return (Class<?>) ((ParameterizedType) type).getRawType();
+        if (type instanceof GenericArrayType)
+            return Array.newInstance(rawOf(((GenericArrayType) type).getGenericComponentType()), 0).getClass();
+
+        throw new RuntimeException("raw type cannot be resolved: " + type.getTypeName());
+    }
+
+    /**
+     * Returns the interned canonical form of the type.
+     *
+     * @param type type
+     * @return canonical type, or null if the type is
+     * not parameterized or it is not concrete
+     */
+    public static @Nullable Type canonicalize(@Nonnull Type type) {
+        if (!(type instanceof ParameterizedType))
+            return null;
+
+        ParameterizedType parameterized = (ParameterizedType) type;
+        Type owner = parameterized.getOwnerType();
+        if (owner instanceof ParameterizedType && (owner = canonicalize(owner)) == null)
+            return null;
+
+        Type[] arguments = parameterized.getActualTypeArguments().clone();
+        for (int i = 0; i < arguments.length; i++) {
+            if (arguments[i] instanceof Class && !((Class<?>) arguments[i]).isPrimitive()) continue;
+            if ((arguments[i] = canonicalize(arguments[i])) == null) return null;
+        }
+
+        return intern(new CanonicalType(owner, (Class<?>) parameterized.getRawType(), arguments));
+    }
+
+    /**
+     * Returns the canonical forms of the type and
+     * its superclasses and interfaces, which are
+     * collected transitively. Type variables of the
+     * supertypes are replaced with the type arguments
+     * of their subtypes, and the supertypes which are
+     * not concrete are skipped.
+     *
+     * @param type class or parameterized type
+     * @return canonical supertypes
+     */
+    public static @Nonnull List<Type> genericSuperTypes(@Nonnull Type type) {
+        if (!(type instanceof Class) && !(type instanceof ParameterizedType))
+            return Collections.emptyList();
+
+        Set<Type> types = new LinkedHashSet<>();
+        collect(type, Collections.emptyMap(), types);
+        return types.isEmpty() ? Collections.emptyList() : Collections.unmodifiableList(new ArrayList<>(types));
+    }
+
+
+    /**
+     * Returns the interned instance which is
+     * equal to the canonical type, or interns it
+     * if there is none.
+     *
+     * @param type canonical type
+     * @return interned canonical type
+     */
+    private static @Nonnull Type intern(@Nonnull Type type) {
+        synchronized (INTERNED) {
+            WeakReference<Type> reference = INTERNED.get(type);
+            Type interned = (reference != null) ? reference.get() : null;
+            if (interned != null)
+                return interned;
+
+            INTERNED.put(type, new WeakReference<>(type));
+            return type;
+        }
+    }
+
+    /**
+     * Collects the canonical forms of the type
+     * and its supertypes to the set.
+     *
+     * @param type     type
+     * @param bindings values of the type variables
+     * @param types    set of the canonical types
+     */
+    private static void collect(@Nonnull Type type,
+                                @Nonnull Map<TypeVariable<?>, Type> bindings,
+                                @Nonnull Set<Type> types) {
+        Class<?> raw = rawOf(type);
+        Map<TypeVariable<?>, Type> variables = Collections.emptyMap();
+
+        if (type instanceof ParameterizedType) {
+            Type resolved = resolve(type, bindings);
+            Type canonical = canonicalize(resolved);
+            if (canonical != null && !types.add(canonical))
+                return;
+
+            variables = new HashMap<>();
+            TypeVariable<?>[] parameters = raw.getTypeParameters();
+            Type[] arguments = ((ParameterizedType) resolved).getActualTypeArguments();
+            for (int i = 0; i < parameters.length; i++)
+                variables.put(parameters[i], arguments[i]);
+        }
+
+        if (raw.getGenericSuperclass() != null)
+            collect(raw.getGenericSuperclass(), variables, types);
+        for (Type anInterface : raw.getGenericInterfaces())
+            collect(anInterface, variables, types);
+    }
+
+    /**
+     * Replaces the type variables of the type
+     * with their values.
+     *
+     * @param type     type
+     * @param bindings values of the type variables
+     * @return resolved type
+     */
+    private static @Nonnull Type resolve(@Nonnull Type type,
+                                         @Nonnull Map<TypeVariable<?>, Type> bindings) {
+        if (type instanceof TypeVariable)
+            return bindings.getOrDefault(type, type);
+        if (!(type instanceof ParameterizedType) || bindings.isEmpty())
+            return type;
+
+        ParameterizedType parameterized = (ParameterizedType) type;
+        Type[] arguments = parameterized.getActualTypeArguments().clone();
+        for (int i = 0; i < arguments.length; i++)
+            arguments[i] = resolve(arguments[i], bindings);
+
+        Type owner = parameterized.getOwnerType();
+        return new CanonicalType((owner != null) ? resolve(owner, bindings) : null, (Class<?>) parameterized.getRawType(), arguments);
+    }
+
+
+
+    /**
+     * CanonicalType is a parameterized type which
+     * follows the equality of {@link ParameterizedType},
+     * and whose hash is computed once.
+     */
+    private static final class CanonicalType implements ParameterizedType {
+
+        private final Type owner;
+        private final Class<?> raw;
+        private final Type[] arguments;
+        private final int hash;
+
+        /**
+         * Constructor of {@link CanonicalType}.
+         *
+         * @param owner     owner type
+         * @param raw       raw type
+         * @param arguments type arguments
+         */
+        private CanonicalType(@Nullable Type owner,
+                              @Nonnull Class<?> raw,
+                              @Nonnull Type[] arguments) {
+            this.owner = owner;
+            this.raw = raw;
+            this.arguments = arguments;
+            this.hash = Arrays.hashCode(arguments) ^ Objects.hashCode(owner) ^ raw.hashCode();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public @Nonnull Type[] getActualTypeArguments() {
+            return this.arguments.clone();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public @Nonnull Type getRawType() {
+            return this.raw;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public @Nullable Type getOwnerType() {
+            return this.owner;
+        }
+
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean equals(Object object) {
+            if (this == object)
+                return true;
+            if (!(object instanceof ParameterizedType))
+                return false;
+
+            ParameterizedType type = (ParameterizedType) object;
+            return this.raw.equals(type.getRawType())
+                    && Objects.equals(this.owner, type.getOwnerType())
+                    && Arrays.equals(this.arguments, type.getActualTypeArguments());
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder(this.raw.getTypeName()).append('<');
+            for (int i = 0; i < this.arguments.length; i++)
+                builder.append((i > 0) ? ", " : "").append(this.arguments[i].getTypeName());
+            return builder.append('>').toString();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.hakan.basicdi.metrics;
+
+import com.hakan.basicdi.entity.AbstractEntity;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * InjectionListener is notified about the
+ * injection and startup events of a module,
+ * so they can be measured.
+ * <p>
+ * Every method is a no-op by default. Events
+ * are not timed at all when the listener is
+ * not enabled, so the {@link #NOOP} listener
+ * costs nothing.
+ */
+public interface InjectionListener {
+
+    /**
+     * Listener which ignores every event.
+     */
+    InjectionListener NOOP = new InjectionListener() {
+        @Override
+        public boolean isEnabled() {
+            return false;
+        }
+    };
+
+    /**
+     * Creates a listener which notifies
+     * all the given listeners.
+     *
+     * @param listeners listeners
+     * @return listener
+     */
+    static @Nonnull InjectionListener of(@Nonnull InjectionListener... listeners) {
+        List<InjectionListener> enabled = new ArrayList<>();
+        Arrays.stream(listeners).filter(InjectionListener::isEnabled).forEach(enabled::add);
+
+        if (enabled.isEmpty())
+            return NOOP;
+        if (enabled.size() == 1)
+            return enabled.get(0);
+
+        return new InjectionListener() {
+            @Override
+            public void onEntityCreated(@Nonnull AbstractEntity entity, int dependencies, long nanos) {
+                enabled.forEach(listener -> listener.onEntityCreated(entity, dependencies, nanos));
+            }
+
+            @Override
+            public void onPostConstruct(@Nonnull AbstractEntity entity, long nanos) {
+                enabled.forEach(listener -> listener.onPostConstruct(entity, nanos));
+            }
+
+            @Override
+            public void onLookup(@Nonnull Class<?> type, long nanos) {
+                enabled.forEach(listener -> listener.onLookup(type, nanos));
+            }
+
+            @Override
+            public void onScan(@Nonnull String basePackage, int classes, long nanos) {
+                enabled.forEach(listener -> listener.onScan(basePackage, classes, nanos));
+            }
+        };
+    }
+
+
+
+    /**
+     * Checks if the listener wants to be notified.
+     * Events are not measured if it returns false.
+     *
+     * @return true if it is enabled
+     */
+    default boolean isEnabled() {
+        return true;
+    }
+
+    /**
+     * Called after an instance of the entity is
+     * created. Construction time includes the
+     * creation of the dependencies which are not
+     * created yet, and the post construct methods.
+     *
+     * @param entity       entity
+     * @param dependencies count of the resolved dependencies
+     * @param nanos        construction time in nanoseconds
+     */
+    default void onEntityCreated(@Nonnull AbstractEntity entity, int dependencies, long nanos) {
+
+    }
+
+    /**
+     * Called after the post construct methods
+     * of an instance are called.
+     *
+     * @param entity entity
+     * @param nanos  duration in nanoseconds
+     */
+    default void onPostConstruct(@Nonnull AbstractEntity entity, long nanos) {
+
+    }
+
+    /**
+     * Called after an entity is looked up
+     * from the index of the module.
+     *
+     * @param type  looked up type
+     * @param nanos lookup latency in nanoseconds
+     */
+    default void onLookup(@Nonnull Class<?> type, long nanos) {
+
+    }
+
+    /**
+     * Called after a package is scanned
+     * and its classes are loaded.
+     *
+     * @param basePackage scanned package
+     * @param classes     count of the found classes
+     * @param nanos       scan duration in nanoseconds
+     */
+    default void onScan(@Nonnull String basePackage, int classes, long nanos) {
+
+    }
+}
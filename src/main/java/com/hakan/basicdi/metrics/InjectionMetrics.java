@@ -0,0 +1,320 @@
+package com.hakan.basicdi.metrics;
+
+import com.hakan.basicdi.entity.AbstractEntity;
+import com.hakan.basicdi.entity.Scope;
+import lombok.SneakyThrows;
+
+import javax.annotation.Nonnull;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * InjectionMetrics is an {@link InjectionListener}
+ * which aggregates the events in memory, and it
+ * can be registered to the platform MBean server
+ * to read them through JMX.
+ * <p>
+ * Counters are {@link LongAdder}s and the lookup
+ * latencies are kept in a power of two histogram,
+ * so recording an event never blocks.
+ */
+public class InjectionMetrics implements InjectionListener, InjectionMetricsMXBean {
+
+    private static final int BUCKETS = 64;
+
+    private final ObjectName objectName;
+    private final LongAdder entitiesCreated;
+    private final LongAdder dependenciesResolved;
+    private final LongAdder prototypesCreated;
+    private final Map<String, LongAdder> constructionNanos;
+    private final Map<String, LongAdder> postConstructNanos;
+    private final LongAdder lookupCount;
+    private final AtomicLongArray lookupHistogram;
+    private final LongAdder scanCount;
+    private final LongAdder scannedClasses;
+    private final LongAdder scanNanos;
+    private volatile long startNanos;
+
+    /**
+     * Constructor of {@link InjectionMetrics}.
+     *
+     * @param name name of the metrics in JMX
+     */
+    @SneakyThrows
+    public InjectionMetrics(@Nonnull String name) {
+        this.objectName = new ObjectName("com.hakan.basicdi:type=InjectionMetrics,name=" + ObjectName.quote(name));
+        this.entitiesCreated = new LongAdder();
+        this.dependenciesResolved = new LongAdder();
+        this.prototypesCreated = new LongAdder();
+        this.constructionNanos = new ConcurrentHashMap<>();
+        this.postConstructNanos = new ConcurrentHashMap<>();
+        this.lookupCount = new LongAdder();
+        this.lookupHistogram = new AtomicLongArray(BUCKETS);
+        this.scanCount = new LongAdder();
+        this.scannedClasses = new LongAdder();
+        this.scanNanos = new LongAdder();
+        this.startNanos = System.nanoTime();
+    }
+
+    /**
+     * Returns the object name of the metrics in JMX.
+     *
+     * @return object name
+     */
+    public @Nonnull ObjectName getObjectName() {
+        return this.objectName;
+    }
+
+    /**
+     * Registers the metrics to the
+     * platform MBean server.
+     *
+     * @return this
+     */
+    @SneakyThrows
+    public @Nonnull InjectionMetrics register() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        if (!server.isRegistered(this.objectName))
+            server.registerMBean(this, this.objectName);
+        return this;
+    }
+
+    /**
+     * Unregisters the metrics from
+     * the platform MBean server.
+     */
+    @SneakyThrows
+    public void unregister() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        if (server.isRegistered(this.objectName))
+            server.unregisterMBean(this.objectName);
+    }
+
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onEntityCreated(@Nonnull AbstractEntity entity, int dependencies, long nanos) {
+        this.entitiesCreated.increment();
+        this.dependenciesResolved.add(dependencies);
+        this.constructionNanos.computeIfAbsent(entity.getType().getName(), type -> new LongAdder()).add(nanos);
+
+        if (entity.getScope() == Scope.PROTOTYPE)
+            this.prototypesCreated.increment();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onPostConstruct(@Nonnull AbstractEntity entity, long nanos) {
+        this.postConstructNanos.computeIfAbsent(entity.getType().getName(), type -> new LongAdder()).add(nanos);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onLookup(@Nonnull Class<?> type, long nanos) {
+        this.lookupCount.increment();
+        this.lookupHistogram.incrementAndGet(bucketOf(nanos));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onScan(@Nonnull String basePackage, int classes, long nanos) {
+        this.scanCount.increment();
+        this.scannedClasses.add(classes);
+        this.scanNanos.add(nanos);
+    }
+
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getEntitiesCreated() {
+        return this.entitiesCreated.sum();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public @Nonnull Map<String, Long> getConstructionNanos() {
+        return toMap(this.constructionNanos);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public @Nonnull Map<String, Long> getPostConstructNanos() {
+        return toMap(this.postConstructNanos);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getDependenciesResolved() {
+        return this.dependenciesResolved.sum();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getPrototypesCreated() {
+        return this.prototypesCreated.sum();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getPrototypeCreationRate() {
+        long elapsed = System.nanoTime() - this.startNanos;
+        return (elapsed > 0) ? this.prototypesCreated.sum() * 1e9 / elapsed : 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getLookupCount() {
+        return this.lookupCount.sum();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public @Nonnull long[] getLookupHistogram() {
+        long[] histogram = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++)
+            histogram[i] = this.lookupHistogram.get(i);
+        return histogram;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getLookupP50Nanos() {
+        return this.percentile(0.5);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getLookupP99Nanos() {
+        return this.percentile(0.99);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getScanCount() {
+        return this.scanCount.sum();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getScannedClasses() {
+        return this.scannedClasses.sum();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getScanNanos() {
+        return this.scanNanos.sum();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void reset() {
+        this.entitiesCreated.reset();
+        this.dependenciesResolved.reset();
+        this.prototypesCreated.reset();
+        this.constructionNanos.clear();
+        this.postConstructNanos.clear();
+        this.lookupCount.reset();
+        for (int i = 0; i < BUCKETS; i++)
+            this.lookupHistogram.set(i, 0);
+        this.scanCount.reset();
+        this.scannedClasses.reset();
+        this.scanNanos.reset();
+        this.startNanos = System.nanoTime();
+    }
+
+
+    /**
+     * Calculates the upper bound of the given
+     * percentile of the lookup latency.
+     *
+     * @param percentile percentile between 0 and 1
+     * @return latency in nanoseconds
+     */
+    private long percentile(double percentile) {
+        long[] histogram = this.getLookupHistogram();
+
+        long total = 0;
+        for (long count : histogram)
+            total += count;
+        if (total == 0)
+            return 0;
+
+        long target = (long) Math.ceil(total * percentile);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += histogram[i];
+            if (seen >= target)
+                return (i >= 62) ? Long.MAX_VALUE : (2L << i) - 1;
+        }
+
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * Returns the histogram bucket
+     * of the given latency.
+     *
+     * @param nanos latency in nanoseconds
+     * @return bucket index
+     */
+    private static int bucketOf(long nanos) {
+        return (nanos <= 0) ? 0 : 63 - Long.numberOfLeadingZeros(nanos);
+    }
+
+    /**
+     * Converts the adders to a sorted map.
+     *
+     * @param adders adders
+     * @return map
+     */
+    private static @Nonnull Map<String, Long> toMap(@Nonnull Map<String, LongAdder> adders) {
+        Map<String, Long> map = new TreeMap<>();
+        adders.forEach((key, adder) -> map.put(key, adder.sum()));
+        return map;
+    }
+}
@@ -0,0 +1,119 @@
+package com.hakan.basicdi.metrics;
+
+import java.util.Map;
+
+/**
+ * InjectionMetricsMXBean is the management
+ * interface of {@link InjectionMetrics}.
+ * All durations are in nanoseconds.
+ */
+public interface InjectionMetricsMXBean {
+
+    /**
+     * Returns the count of the created instances.
+     *
+     * @return count
+     */
+    long getEntitiesCreated();
+
+    /**
+     * Returns the total construction time
+     * of the instances by their types.
+     *
+     * @return construction times
+     */
+    Map<String, Long> getConstructionNanos();
+
+    /**
+     * Returns the total duration of the post
+     * construct methods by their types.
+     *
+     * @return post construct durations
+     */
+    Map<String, Long> getPostConstructNanos();
+
+    /**
+     * Returns the count of the dependencies
+     * which are resolved to create instances.
+     *
+     * @return count
+     */
+    long getDependenciesResolved();
+
+    /**
+     * Returns the count of the created
+     * prototype instances.
+     *
+     * @return count
+     */
+    long getPrototypesCreated();
+
+    /**
+     * Returns the count of the created prototype
+     * instances per second since the metrics
+     * are created or reset.
+     *
+     * @return rate
+     */
+    double getPrototypeCreationRate();
+
+    /**
+     * Returns the count of the entity lookups.
+     *
+     * @return count
+     */
+    long getLookupCount();
+
+    /**
+     * Returns the lookup latency histogram. Bucket
+     * at index i counts the lookups which took
+     * at least 2^i and less than 2^(i+1) nanoseconds.
+     *
+     * @return histogram
+     */
+    long[] getLookupHistogram();
+
+    /**
+     * Returns the upper bound of the median
+     * lookup latency.
+     *
+     * @return latency
+     */
+    long getLookupP50Nanos();
+
+    /**
+     * Returns the upper bound of the 99th
+     * percentile of the lookup latency.
+     *
+     * @return latency
+     */
+    long getLookupP99Nanos();
+
+    /**
+     * Returns the count of the package scans.
+     *
+     * @return count
+     */
+    long getScanCount();
+
+    /**
+     * Returns the count of the classes
+     * found by the package scans.
+     *
+     * @return count
+     */
+    long getScannedClasses();
+
+    /**
+     * Returns the total duration
+     * of the package scans.
+     *
+     * @return duration
+     */
+    long getScanNanos();
+
+    /**
+     * Resets all the metrics.
+     */
+    void reset();
+}
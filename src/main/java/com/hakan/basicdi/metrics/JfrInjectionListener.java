@@ -0,0 +1,160 @@
+package com.hakan.basicdi.metrics;
+
+import com.hakan.basicdi.entity.AbstractEntity;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+import javax.annotation.Nonnull;
+
+/**
+ * JfrInjectionListener is an {@link InjectionListener}
+ * which commits the events to Java Flight Recorder,
+ * so startup can be profiled from a recording.
+ * <p>
+ * Events are only committed while a recording
+ * enables them. Lookup events are disabled by
+ * default, since there can be many of them.
+ * It requires a runtime with JFR support.
+ */
+public class JfrInjectionListener implements InjectionListener {
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onEntityCreated(@Nonnull AbstractEntity entity, int dependencies, long nanos) {
+        EntityCreatedEvent event = new EntityCreatedEvent();
+        if (event.isEnabled()) {
+            event.type = entity.getType().getName();
+            event.scope = entity.getScope().name();
+            event.dependencies = dependencies;
+            event.nanos = nanos;
+            event.commit();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onPostConstruct(@Nonnull AbstractEntity entity, long nanos) {
+        PostConstructEvent event = new PostConstructEvent();
+        if (event.isEnabled()) {
+            event.type = entity.getType().getName();
+            event.nanos = nanos;
+            event.commit();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onLookup(@Nonnull Class<?> type, long nanos) {
+        LookupEvent event = new LookupEvent();
+        if (event.isEnabled()) {
+            event.type = type.getName();
+            event.nanos = nanos;
+            event.commit();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onScan(@Nonnull String basePackage, int classes, long nanos) {
+        ScanEvent event = new ScanEvent();
+        if (event.isEnabled()) {
+            event.basePackage = basePackage;
+            event.classes = classes;
+            event.nanos = nanos;
+            event.commit();
+        }
+    }
+
+
+
+    /**
+     * Event of an instance creation.
+     */
+    @Name("com.hakan.basicdi.EntityCreated")
+    @Label("Entity Created")
+    @Category("Basic Dependency Injection")
+    @Description("Creation of an instance by the injector")
+    public static class EntityCreatedEvent extends Event {
+
+        @Label("Type")
+        String type;
+
+        @Label("Scope")
+        String scope;
+
+        @Label("Dependencies")
+        int dependencies;
+
+        @Label("Construction Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long nanos;
+    }
+
+    /**
+     * Event of the post construct methods of an instance.
+     */
+    @Name("com.hakan.basicdi.PostConstruct")
+    @Label("Post Construct")
+    @Category("Basic Dependency Injection")
+    @Description("Calls of the post construct methods of an instance")
+    public static class PostConstructEvent extends Event {
+
+        @Label("Type")
+        String type;
+
+        @Label("Duration")
+        @Timespan(Timespan.NANOSECONDS)
+        long nanos;
+    }
+
+    /**
+     * Event of an entity lookup.
+     */
+    @Enabled(false)
+    @Name("com.hakan.basicdi.Lookup")
+    @Label("Entity Lookup")
+    @Category("Basic Dependency Injection")
+    @Description("Lookup of an entity from the index of a module")
+    public static class LookupEvent extends Event {
+
+        @Label("Type")
+        String type;
+
+        @Label("Latency")
+        @Timespan(Timespan.NANOSECONDS)
+        long nanos;
+    }
+
+    /**
+     * Event of a package scan.
+     */
+    @Name("com.hakan.basicdi.Scan")
+    @Label("Package Scan")
+    @Category("Basic Dependency Injection")
+    @Description("Scan of a package for its classes")
+    public static class ScanEvent extends Event {
+
+        @Label("Package")
+        String basePackage;
+
+        @Label("Classes")
+        int classes;
+
+        @Label("Duration")
+        @Timespan(Timespan.NANOSECONDS)
+        long nanos;
+    }
+}
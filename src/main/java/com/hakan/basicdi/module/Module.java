@@ -1,15 +1,42 @@
 package com.hakan.basicdi.module;
 
-import com.hakan.basicdi.annotations.Provide;
-import com.hakan.basicdi.annotations.Runner;
 import com.hakan.basicdi.entity.AbstractEntity;
 import com.hakan.basicdi.entity.EntityFactory;
-import com.hakan.basicdi.reflection.Reflection;
+import com.hakan.basicdi.entity.Scope;
+import com.hakan.basicdi.entity.impl.MethodRunnerEntity;
+import com.hakan.basicdi.graph.DependencyGraph;
+import com.hakan.basicdi.key.Key;
+import com.hakan.basicdi.key.KeyIndex;
+import com.hakan.basicdi.key.Types;
+import com.hakan.basicdi.metrics.InjectionListener;
+import com.hakan.basicdi.multibind.Multibinding;
+import com.hakan.basicdi.provider.LazyProvider;
+import com.hakan.basicdi.provider.Provider;
+import com.hakan.basicdi.reflection.ClassMetadata;
+import com.hakan.basicdi.runner.RunnerScheduler;
+import com.hakan.basicdi.scope.ScopeContext;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 /**
  * Module is an abstract class that
@@ -25,17 +52,38 @@
 @SuppressWarnings({"unchecked"})
 public abstract class Module {
 
-    private final Reflection reflection;
+    private static final AtomicInteger VERSIONS = new AtomicInteger();
+
     private final Set<AbstractEntity> entities;
+    private final KeyIndex<AbstractEntity> index;
+    private final Map<Key, List<AbstractEntity>> candidates;
+    private final Map<Key, List<AbstractEntity>> ambiguous;
+    private final Map<Key, Multibinding<?>> multibindings;
+    private InjectionListener listener;
+    private Executor executor;
+    private final RunnerScheduler scheduler;
+    private final ScopeContext context;
+    private Module parent;
+    private volatile DependencyGraph graph;
+    private volatile int version;
+    private final Set<Module> installed;
+    private boolean configured;
 
     /**
      * Constructor of {@link Module}
      */
     public Module() {
         this.entities = new LinkedHashSet<>();
-        this.reflection = new Reflection(this.getClass());
-        this.reflection.getMethodsAnnotatedWith(Runner.class).forEach(this::bind);
-        this.reflection.getMethodsAnnotatedWith(Provide.class).forEach(this::bind);
+        this.index = new KeyIndex<>();
+        this.candidates = new HashMap<>();
+        this.ambiguous = new ConcurrentHashMap<>();
+        this.multibindings = new ConcurrentHashMap<>();
+        this.listener = InjectionListener.NOOP;
+        this.scheduler = new RunnerScheduler();
+        this.context = ScopeContext.root();
+        this.installed = new HashSet<>();
+
+        ClassMetadata.of(this.getClass()).getProviderMethods().forEach(this::bind);
     }
 
     /**
@@ -67,7 +115,13 @@ public Module() {
      * @return abstract entity
      */
     public final @Nonnull AbstractEntity bind(@Nonnull AbstractEntity entity) {
-        this.entities.add(entity);
+        int slot = this.entities.size();
+        if (this.entities.add(entity)) {
+            this.graph = null;
+            this.multibindings.clear();
+            this.index(entity.withSlot(slot));
+            this.version = VERSIONS.incrementAndGet();
+        }
         return entity;
     }
 
@@ -75,24 +129,408 @@ public Module() {
     /**
      * Installs the all entities of the module
      * to the current module.
+     * <p>
+     * Installation is idempotent, a module which
+     * is equal to an installed one is skipped, and
+     * a module is configured only once even if it
+     * is installed to many modules, such as a
+     * shared module in a diamond hierarchy.
      *
      * @param module module to install
      */
     public final void install(@Nonnull Module module) {
-        module.configure();
+        if (module == this || !this.installed.add(module))
+            return;
+
+        if (!module.configured) {
+            module.configured = true;
+            module.configure();
+        }
+
         module.entities.forEach(entity -> entity.withModule(this));
+        module.entities.forEach(this::bind);
+    }
+
+    /**
+     * Recalculates the index entries of the
+     * given types. It must be called when the
+     * subtypes of a bound entity are changed.
+     * <p>
+     * When more than one entity contains the type
+     * in its subtypes, the primary one is indexed,
+     * otherwise the first one bound to exactly
+     * the same type. If neither exists, the type
+     * is listed in the ambiguous bindings. Qualified
+     * and generic keys of the type are recalculated
+     * the same way from the entities with the same
+     * qualifier and generic subtype.
+     *
+     * @param types types to reindex
+     */
+    public final void reindex(@Nonnull Collection<Class<?>> types) {
+        this.graph = null;
+        this.multibindings.clear();
+
+        for (Class<?> type : types) {
+            if (!isIndexed(type)) continue;
+
+            Set<Key> keys = new LinkedHashSet<>();
+            for (Key key : this.candidates.keySet())
+                if (key.getType() == type) keys.add(key);
+            for (AbstractEntity entity : this.entities)
+                if (isIndexed(entity, type)) keys.addAll(keysOf(entity, type));
+
+            for (Key key : keys) {
+                List<AbstractEntity> found = this.entities.stream()
+                        .filter(entity -> isIndexed(entity, type))
+                        .filter(entity -> !key.isQualified() || key.getQualifier().equals(entity.getQualifier()))
+                        .filter(entity -> key.getGenericType() == null || entity.getGenericSubTypes().contains(key.getGenericType()))
+                        .collect(Collectors.toList());
+
+                if (found.isEmpty()) this.candidates.remove(key);
+                else this.candidates.put(key, found);
+                this.resolve(key);
+            }
+        }
+
+        this.version = VERSIONS.incrementAndGet();
+    }
+
+    /**
+     * Validates the dependency graph of the
+     * module, so the missing and ambiguous
+     * dependencies and the constructor cycles
+     * are reported before any instance is created.
+     * <p>
+     * If the graph is valid, the dependencies of
+     * the entities are resolved, and the graph is
+     * kept to drive {@link #create(Executor)}
+     * until a new entity is bound.
+     *
+     * @return validated graph
+     * @throws RuntimeException if the graph is not valid
+     */
+    public final @Nonnull DependencyGraph validate() {
+        DependencyGraph graph = new DependencyGraph(this);
+
+        List<String> problems = graph.validate();
+        if (!problems.isEmpty())
+            throw new RuntimeException("dependency graph of module " + this.getClass().getName() + " is not valid:"
+                    + problems.stream().map(problem -> "\n  " + problem).collect(Collectors.joining()));
 
-        this.entities.addAll(module.entities);
+        this.entities.forEach(AbstractEntity::prepare);
+        return this.graph = graph;
     }
 
     /**
      * Creates all instances of the entities
-     * that are bound to the module.
+     * that are bound to the module, except
+     * the lazy ones and the instances which
+     * belong to a thread, context or pool.
+     * <p>
+     * Runners are executed after the other
+     * instances are created, in their order.
      */
     public final void create() {
-        this.entities.forEach(AbstractEntity::createInstance);
+        for (AbstractEntity entity : this.entities)
+            if (isEager(entity) && !isRunner(entity)) entity.getInstance();
+        this.getRunners().forEach(AbstractEntity::getInstance);
+    }
+
+    /**
+     * Creates all instances of the entities
+     * that are bound to the module concurrently
+     * with the given executor.
+     * <p>
+     * Entities are created in waves of the
+     * {@link DependencyGraph}, so an entity is
+     * created after all of its dependencies.
+     * Entities in a cycle are created at the end
+     * in binding order on the calling thread.
+     * Only singleton and prototype entities
+     * which are not lazy are created.
+     * <p>
+     * If creation fails, the failure of the first
+     * entity in binding order of its wave is thrown
+     * and the others are added as suppressed.
+     *
+     * @param executor executor
+     */
+    public final void create(@Nonnull Executor executor) {
+        DependencyGraph graph = this.graph;
+        if (graph == null)
+            graph = new DependencyGraph(this);
+
+        for (List<AbstractEntity> entities : graph.getWaves()) {
+            List<AbstractEntity> wave = entities.stream().filter(entity -> isEager(entity) && !isRunner(entity)).collect(Collectors.toList());
+            List<CompletableFuture<Object>> futures = new ArrayList<>(wave.size());
+            for (AbstractEntity entity : wave)
+                futures.add(CompletableFuture.supplyAsync(entity::getInstance, executor));
+
+            RuntimeException failure = null;
+            for (int i = 0; i < wave.size(); i++) {
+                try {
+                    futures.get(i).join();
+                } catch (CompletionException e) {
+                    Throwable cause = (e.getCause() != null) ? e.getCause() : e;
+                    RuntimeException exception = new RuntimeException("could not create instance of class " + wave.get(i).getType().getName(), cause);
+
+                    if (failure == null) failure = exception;
+                    else failure.addSuppressed(exception);
+                }
+            }
+
+            if (failure != null)
+                throw failure;
+        }
+
+        for (AbstractEntity entity : graph.getCyclic())
+            if (isEager(entity) && !isRunner(entity)) entity.getInstance();
+        this.getRunners().forEach(AbstractEntity::getInstance);
+    }
+
+    /**
+     * Creates all instances of the entities
+     * asynchronously with the executor of
+     * the module.
+     *
+     * @return future which completes when all instances are created
+     * @see #createAsync(Executor)
+     */
+    public final @Nonnull CompletableFuture<Void> createAsync() {
+        return this.createAsync(this.getExecutor());
+    }
+
+    /**
+     * Creates all instances of the entities
+     * asynchronously. Every entity is created
+     * when the entities it depends on are created,
+     * so an entity waits only for its own
+     * dependencies, and the creation takes as long
+     * as the longest chain of the dependencies.
+     * <p>
+     * Async providers run on the given executor,
+     * and the other entities are created on the
+     * thread which completes their last dependency.
+     * Entities in a cycle are created at the end,
+     * and then the runners are executed in their order.
+     * Only singleton and prototype entities which
+     * are not lazy are created.
+     *
+     * @param executor executor
+     * @return future which completes when all instances are created
+     */
+    public final @Nonnull CompletableFuture<Void> createAsync(@Nonnull Executor executor) {
+        DependencyGraph graph = this.graph;
+        if (graph == null)
+            graph = new DependencyGraph(this);
+
+        Map<AbstractEntity, CompletableFuture<?>> futures = new HashMap<>();
+        for (List<AbstractEntity> wave : graph.getWaves()) {
+            for (AbstractEntity entity : wave) {
+                CompletableFuture<Void> dependencies = CompletableFuture.allOf(graph.getDependencies(entity).stream()
+                        .map(futures::get).toArray(CompletableFuture[]::new));
+
+                futures.put(entity, (isEager(entity) && !isRunner(entity))
+                        ? dependencies.thenCompose(ignored -> entity.getInstanceAsync(executor))
+                        : dependencies);
+            }
+        }
+
+        List<AbstractEntity> cyclic = graph.getCyclic();
+        return CompletableFuture.allOf(futures.values().toArray(new CompletableFuture[0]))
+                .thenRun(() -> {
+                    for (AbstractEntity entity : cyclic)
+                        if (isEager(entity) && !isRunner(entity)) entity.getInstance();
+                    this.getRunners().forEach(AbstractEntity::getInstance);
+                });
+    }
+
+    /**
+     * Shuts down the module by cancelling its
+     * async and periodic runners, stopping the
+     * scheduler thread of the runners and closing
+     * the root scope context of the module.
+     */
+    public final void shutdown() {
+        this.scheduler.shutdown();
+        this.context.close();
+    }
+
+    /**
+     * Removes the thread scoped instances of
+     * the current thread, and calls their pre
+     * destroy methods. It should be called
+     * before a pooled thread is reused.
+     */
+    public final void cleanupThread() {
+        for (AbstractEntity entity : this.entities)
+            if (entity.getScope() == Scope.THREAD) entity.cleanupThread();
+    }
+
+
+    /**
+     * Sets the listener which is notified about
+     * the injection events of this module.
+     *
+     * @param listener listener
+     * @return this
+     */
+    public final @Nonnull Module withListener(@Nonnull InjectionListener listener) {
+        this.listener = listener;
+        return this;
     }
 
+    /**
+     * Sets the executor which runs the async
+     * providers when the module is created
+     * asynchronously, and the async runners.
+     * By default, async providers run on the
+     * common {@link ForkJoinPool}, and async
+     * runners on the shared executor of the
+     * {@link RunnerScheduler}.
+     *
+     * @param executor executor
+     * @return this
+     */
+    public final @Nonnull Module withExecutor(@Nonnull Executor executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * Sets the validated dependency graph of
+     * the module, which drives {@link #create(Executor)}.
+     * Graph must be built from the entities
+     * which are bound to this module.
+     *
+     * @param graph graph
+     * @return this
+     */
+    public final @Nonnull Module withGraph(@Nonnull DependencyGraph graph) {
+        this.graph = graph;
+        return this;
+    }
+
+    /**
+     * Sets the parent of the module. Types which
+     * are not bound to this module are looked up
+     * from the parent, so a child module shares
+     * the bindings of its parent without copying.
+     *
+     * @param parent parent module
+     * @return this
+     */
+    public final @Nonnull Module withParent(@Nullable Module parent) {
+        for (Module module = parent; module != null; module = module.parent)
+            if (module == this) throw new RuntimeException("module cannot be a parent of itself");
+
+        this.parent = parent;
+        this.version = VERSIONS.incrementAndGet();
+        return this;
+    }
+
+    /**
+     * Returns the version of the bindings of
+     * the module and its parents, which changes
+     * whenever an entity is bound or reindexed
+     * in any of them. What is resolved from the
+     * bindings, such as an instantiation plan,
+     * is valid while the version is the same.
+     *
+     * @return version
+     */
+    public final int getVersion() {
+        int version = this.version;
+        for (Module module = this.parent; module != null; module = module.parent)
+            version = Math.max(version, module.version);
+        return version;
+    }
+
+    /**
+     * Gets the parent of the module.
+     *
+     * @return parent module, or null
+     */
+    public final @Nullable Module getParent() {
+        return this.parent;
+    }
+
+    /**
+     * Gets the dependency graph which is
+     * validated by {@link #validate()}.
+     *
+     * @return graph, or null if it is not validated
+     */
+    public final @Nullable DependencyGraph getGraph() {
+        return this.graph;
+    }
+
+    /**
+     * Gets the executor of the module, which
+     * is the common {@link ForkJoinPool} if
+     * no executor is set.
+     *
+     * @return executor
+     */
+    public final @Nonnull Executor getExecutor() {
+        return (this.executor != null) ? this.executor : ForkJoinPool.commonPool();
+    }
+
+    /**
+     * Finds the executor which is set
+     * with {@link #withExecutor(Executor)}.
+     *
+     * @return executor, or null if it is not set
+     */
+    public final @Nullable Executor findExecutor() {
+        return this.executor;
+    }
+
+    /**
+     * Gets the scheduler which executes the
+     * async and periodic runners of the module.
+     *
+     * @return scheduler
+     */
+    public final @Nonnull RunnerScheduler getScheduler() {
+        return this.scheduler;
+    }
+
+    /**
+     * Gets the listener of the module.
+     *
+     * @return listener
+     */
+    public final @Nonnull InjectionListener getListener() {
+        return this.listener;
+    }
+
+    /**
+     * Returns the root scope context of the
+     * module, which contains the context scoped
+     * instances of its entities for the threads
+     * which are not in any context.
+     *
+     * @return root scope context
+     */
+    public final @Nonnull ScopeContext getScopeContext() {
+        return this.context;
+    }
+
+    /**
+     * Gets the keys which are claimed by more
+     * than one entity of this module without a
+     * single primary one, with their entities in
+     * binding order. These keys cannot be
+     * resolved, so they can be listed before
+     * the instances are created.
+     *
+     * @return ambiguous keys and their entities
+     */
+    public final @Nonnull Map<Key, List<AbstractEntity>> getAmbiguousBindings() {
+        return Collections.unmodifiableMap(this.ambiguous);
+    }
 
     /**
      * Gets the all entities of the module.
@@ -115,6 +553,155 @@ public final void create() {
         return (T) this.getEntity(clazz).getInstance();
     }
 
+    /**
+     * Gets the instance of the
+     * entity by the key.
+     *
+     * @param key key
+     * @param <T> type
+     * @return instance
+     */
+    public final @Nonnull <T> T getInstance(@Nonnull Key key) {
+        return (T) this.getEntity(key).getInstance();
+    }
+
+    /**
+     * Gets the instances of every entity which
+     * is bound to the class type, in binding order.
+     * Entities of the parent modules come after
+     * the entities of this module.
+     *
+     * @param clazz class type
+     * @param <T>   type
+     * @return immutable list of the instances
+     */
+    public final @Nonnull <T> List<T> getInstances(@Nonnull Class<T> clazz) {
+        return this.getMultibinding(clazz).getList();
+    }
+
+    /**
+     * Gets the instances of every entity which
+     * is bound to the class type as a set.
+     *
+     * @param clazz class type
+     * @param <T>   type
+     * @return immutable set of the instances
+     * @see #getInstances(Class)
+     */
+    public final @Nonnull <T> Set<T> getInstanceSet(@Nonnull Class<T> clazz) {
+        return this.getMultibinding(clazz).getSet();
+    }
+
+    /**
+     * Gets the instances of every entity which
+     * is bound to the class type by their keys.
+     *
+     * @param clazz class type
+     * @param <T>   type
+     * @return immutable map of the instances
+     * @see Multibinding#getMap()
+     */
+    public final @Nonnull <T> Map<String, T> getInstanceMap(@Nonnull Class<T> clazz) {
+        return this.getMultibinding(clazz).getMap();
+    }
+
+    /**
+     * Gets the multibinding of the class type,
+     * which is created once from the index until
+     * a new entity is bound.
+     *
+     * @param clazz class type
+     * @param <T>   type
+     * @return multibinding
+     */
+    public final @Nonnull <T> Multibinding<T> getMultibinding(@Nonnull Class<T> clazz) {
+        return this.getMultibinding(Key.of(clazz));
+    }
+
+    /**
+     * Gets the multibinding of the key, which
+     * contains only the entities with the same
+     * qualifier if the key is qualified.
+     *
+     * @param key key
+     * @param <T> type
+     * @return multibinding
+     */
+    public final @Nonnull <T> Multibinding<T> getMultibinding(@Nonnull Key key) {
+        return (Multibinding<T>) this.multibindings.computeIfAbsent(key, found -> {
+            List<AbstractEntity> entities = this.getEntities(key);
+            if (entities.isEmpty() && key.getRawKey() != key)
+                entities = this.getRawEntities(key);
+            return new Multibinding<>(key.getType(), entities);
+        });
+    }
+
+    /**
+     * Gets every entity which is bound to the
+     * class type, including the ambiguous ones,
+     * in binding order. Entities of the parent
+     * modules come after the entities of this module.
+     *
+     * @param clazz class type
+     * @return entities
+     */
+    public final @Nonnull List<AbstractEntity> getEntities(@Nonnull Class<?> clazz) {
+        return this.getEntities(Key.of(clazz));
+    }
+
+    /**
+     * Gets every entity which is bound to
+     * the key, including the ambiguous ones.
+     *
+     * @param key key
+     * @return entities
+     * @see #getEntities(Class)
+     */
+    public final @Nonnull List<AbstractEntity> getEntities(@Nonnull Key key) {
+        List<AbstractEntity> entities = new ArrayList<>();
+        for (Module module = this; module != null; module = module.parent) {
+            List<AbstractEntity> candidates = module.candidates.get(key);
+            if (candidates != null) entities.addAll(candidates);
+        }
+        return entities;
+    }
+
+    /**
+     * Acquires an instance of the pooled
+     * entity by the class type.
+     *
+     * @param clazz class type
+     * @param <T>   type
+     * @return instance
+     */
+    public final @Nonnull <T> T acquire(@Nonnull Class<? extends T> clazz) {
+        return (T) this.getEntity(clazz).acquire();
+    }
+
+    /**
+     * Releases the instance back to the pool
+     * of the entity by the class type.
+     *
+     * @param clazz    class type
+     * @param instance instance
+     */
+    public final void release(@Nonnull Class<?> clazz, @Nonnull Object instance) {
+        this.getEntity(clazz).release(instance);
+    }
+
+    /**
+     * Gets a provider which returns the
+     * instance of the class type when it
+     * is requested.
+     *
+     * @param clazz class type
+     * @param <T>   type
+     * @return provider
+     */
+    public final @Nonnull <T> Provider<T> getProvider(@Nonnull Class<T> clazz) {
+        return new LazyProvider<>(this, clazz);
+    }
+
     /**
      * Gets the entity by the class type.
      *
@@ -122,11 +709,342 @@ public final void create() {
      * @return entity
      */
     public final @Nonnull AbstractEntity getEntity(@Nonnull Class<?> clazz) {
+        AbstractEntity entity = this.findEntity(clazz);
+        if (entity == null)
+            throw new RuntimeException("no inject entity found for class " + clazz.getName());
+        return entity;
+    }
+
+    /**
+     * Gets the entity by the key.
+     *
+     * @param key key
+     * @return entity
+     */
+    public final @Nonnull AbstractEntity getEntity(@Nonnull Key key) {
+        AbstractEntity entity = this.findEntity(key);
+        if (entity == null)
+            throw new RuntimeException("no inject entity found for class " + key);
+        return entity;
+    }
+
+    /**
+     * Finds the entity by the class type.
+     * If the type is not bound to this module,
+     * it is looked up from the parent module.
+     *
+     * @param clazz class type
+     * @return entity, or null if not found
+     * @throws RuntimeException if the type is ambiguous
+     */
+    public final @Nullable AbstractEntity findEntity(@Nonnull Class<?> clazz) {
+        InjectionListener listener = this.listener;
+        if (!listener.isEnabled())
+            return this.lookup(clazz);
+
+        long start = System.nanoTime();
+        AbstractEntity entity = this.lookup(clazz);
+        listener.onLookup(clazz, System.nanoTime() - start);
+        return entity;
+    }
+
+    /**
+     * Finds the entity by the key. If the key
+     * is not bound to this module, it is looked
+     * up from the parent module. If a generic key
+     * is not bound to any of them, its raw key
+     * is looked up.
+     *
+     * @param key key
+     * @return entity, or null if not found
+     * @throws RuntimeException if the key is ambiguous
+     */
+    public final @Nullable AbstractEntity findEntity(@Nonnull Key key) {
+        InjectionListener listener = this.listener;
+        if (!listener.isEnabled())
+            return this.lookup(key);
+
+        long start = System.nanoTime();
+        AbstractEntity entity = this.lookup(key);
+        listener.onLookup(key.getType(), System.nanoTime() - start);
+        return entity;
+    }
+
+    /**
+     * Checks if the entity is bound to
+     * this module.
+     *
+     * @param entity entity
+     * @return true if it is bound
+     */
+    public final boolean isBound(@Nonnull AbstractEntity entity) {
+        return this.entities.contains(entity);
+    }
+
+
+    /**
+     * Looks up the entity from the index of
+     * this module and then its parents.
+     *
+     * @param clazz class type
+     * @return entity, or null if not found
+     */
+    private @Nullable AbstractEntity lookup(@Nonnull Class<?> clazz) {
+        for (Module module = this; module != null; module = module.parent) {
+            AbstractEntity entity = module.index.get(clazz);
+            if (entity != null) return entity;
+            if (!module.ambiguous.isEmpty()) module.checkAmbiguous(Key.of(clazz));
+        }
+        return null;
+    }
+
+    /**
+     * Looks up the entity of the key from the
+     * index of this module and then its parents.
+     *
+     * @param key key
+     * @return entity, or null if not found
+     */
+    private @Nullable AbstractEntity lookup(@Nonnull Key key) {
+        for (Module module = this; module != null; module = module.parent) {
+            AbstractEntity entity = module.index.get(key);
+            if (entity != null) return entity;
+            if (!module.ambiguous.isEmpty()) module.checkAmbiguous(key);
+        }
+        return (key.getRawKey() != key) ? this.lookupRaw(key) : null;
+    }
+
+    /**
+     * Looks up the raw binding of the generic key,
+     * which is chosen from the entities of its raw
+     * key that are bound without a parameterization
+     * of the raw type, so a generic key is never
+     * resolved to another parameterization.
+     *
+     * @param key generic key
+     * @return entity, or null if not found
+     * @throws RuntimeException if the raw bindings are ambiguous
+     */
+    private @Nullable AbstractEntity lookupRaw(@Nonnull Key key) {
+        List<AbstractEntity> candidates = this.getRawEntities(key);
+        if (candidates.isEmpty())
+            return null;
+
+        AbstractEntity entity = select(key.getRawKey(), candidates);
+        if (entity == null) throw ambiguity(key, candidates);
+        return entity;
+    }
+
+    /**
+     * Gets the entities of the raw key of the
+     * generic key which have no parameterization
+     * of the raw type, such as the classes which
+     * implement the raw type.
+     *
+     * @param key generic key
+     * @return raw entities
+     */
+    private @Nonnull List<AbstractEntity> getRawEntities(@Nonnull Key key) {
+        return this.getEntities(key.getRawKey()).stream()
+                .filter(entity -> entity.getGenericSubTypes().stream().noneMatch(type -> Types.rawOf(type) == key.getType()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Throws if the key is ambiguous in this module.
+     *
+     * @param key key
+     * @throws RuntimeException if the key is ambiguous
+     */
+    private void checkAmbiguous(@Nonnull Key key) {
+        List<AbstractEntity> candidates = this.ambiguous.get(key);
+        if (candidates != null) throw ambiguity(key, candidates);
+    }
+
+    /**
+     * Checks if the entity is created when
+     * the module is created.
+     *
+     * @param entity entity
+     * @return true if it is eager
+     */
+    private static boolean isEager(@Nonnull AbstractEntity entity) {
+        Scope scope = entity.getScope();
+        return !entity.isLazy() && (scope == Scope.SINGLETON || scope == Scope.PROTOTYPE);
+    }
+
+    /**
+     * Checks if the entity is a runner.
+     *
+     * @param entity entity
+     * @return true if it is a runner
+     */
+    private static boolean isRunner(@Nonnull AbstractEntity entity) {
+        return entity instanceof MethodRunnerEntity;
+    }
+
+    /**
+     * Returns the eager runners of the module
+     * in their order, and in binding order for
+     * the same order.
+     *
+     * @return runners
+     */
+    private @Nonnull List<AbstractEntity> getRunners() {
         return this.entities.stream()
-                .filter(entity -> entity.getSubTypes().contains(clazz)).findFirst()
-                .orElseThrow(() -> new RuntimeException("no inject entity found for class " + clazz.getName()));
+                .filter(entity -> isEager(entity) && isRunner(entity))
+                .sorted(Comparator.comparingInt(entity -> ((MethodRunnerEntity) entity).getOrder()))
+                .collect(Collectors.toList());
     }
 
+    /**
+     * Checks if the type is put to the index.
+     * Every class extends {@link Object} and
+     * methods may return void, so they are not.
+     *
+     * @param type type
+     * @return true if it is indexed
+     */
+    private static boolean isIndexed(@Nullable Class<?> type) {
+        return type != null && type != Object.class && type != void.class;
+    }
+
+    /**
+     * Checks if the entity is indexed by the type.
+     * Runners are never indexed, since they are
+     * run by the module and their return type,
+     * such as {@link Runnable}, is not a binding.
+     *
+     * @param entity entity
+     * @param type   type
+     * @return true if it is indexed
+     */
+    private static boolean isIndexed(@Nonnull AbstractEntity entity, @Nonnull Class<?> type) {
+        return !isRunner(entity) && entity.getSubTypes().contains(type);
+    }
+
+    /**
+     * Adds the entity to the candidates of
+     * its keys and resolves them. Runners
+     * are not indexed.
+     *
+     * @param entity entity
+     */
+    private void index(@Nonnull AbstractEntity entity) {
+        if (isRunner(entity))
+            return;
+
+        for (Class<?> type : entity.getSubTypes()) {
+            if (!isIndexed(type)) continue;
+
+            for (Key key : keysOf(entity, type))
+                this.index(key, entity);
+        }
+    }
+
+    /**
+     * Returns the keys of the entity for one
+     * of its subtypes, which are the key of the
+     * type and the keys of the generic subtypes
+     * of the type. Entity of a qualifier also
+     * has the qualified forms of them.
+     *
+     * @param entity entity
+     * @param type   subtype of the entity
+     * @return keys
+     */
+    private static @Nonnull List<Key> keysOf(@Nonnull AbstractEntity entity, @Nonnull Class<?> type) {
+        List<Type> types = new ArrayList<>();
+        types.add(type);
+        for (Type genericType : entity.getGenericSubTypes())
+            if (Types.rawOf(genericType) == type) types.add(genericType);
+
+        List<Key> keys = new ArrayList<>();
+        for (Type found : types) {
+            keys.add(Key.of(found));
+            if (entity.getQualifier() != null)
+                keys.add(Key.of(found, entity.getQualifier()));
+        }
+        return keys;
+    }
+
+    /**
+     * Adds the entity to the candidates
+     * of the key and resolves it.
+     *
+     * @param key    key
+     * @param entity entity
+     */
+    private void index(@Nonnull Key key, @Nonnull AbstractEntity entity) {
+        this.candidates.computeIfAbsent(key, found -> new ArrayList<>()).add(entity);
+        this.resolve(key);
+    }
+
+    /**
+     * Chooses the entity of the key from its
+     * candidates and puts it to the index.
+     * <p>
+     * A single candidate is chosen. Otherwise the
+     * primary candidate, and then the first bound
+     * candidate of exactly the same type is chosen,
+     * which must be unqualified for an unqualified key.
+     * If none of them exists, the key is ambiguous.
+     *
+     * @param key key
+     */
+    private void resolve(@Nonnull Key key) {
+        List<AbstractEntity> candidates = this.candidates.get(key);
+        AbstractEntity found = (candidates != null) ? select(key, candidates) : null;
+
+        if (found != null) {
+            this.index.put(key, found);
+            this.ambiguous.remove(key);
+        } else {
+            this.index.remove(key);
+            if (candidates != null) this.ambiguous.put(key, Collections.unmodifiableList(new ArrayList<>(candidates)));
+            else this.ambiguous.remove(key);
+        }
+    }
+
+    /**
+     * Creates the exception of the ambiguous key.
+     *
+     * @param key        key
+     * @param candidates candidates of the key
+     * @return exception
+     */
+    private static @Nonnull RuntimeException ambiguity(@Nonnull Key key,
+                                                       @Nonnull List<AbstractEntity> candidates) {
+        return new RuntimeException("ambiguous binding for class " + key + ", it is bound to "
+                + candidates.stream().map(candidate -> candidate.getType().getName()).collect(Collectors.joining(", "))
+                + ", one of them must be primary");
+    }
+
+    /**
+     * Chooses the entity of the key.
+     *
+     * @param key        key
+     * @param candidates candidates in binding order
+     * @return entity, or null if it is ambiguous
+     */
+    private static @Nullable AbstractEntity select(@Nonnull Key key,
+                                                   @Nonnull List<AbstractEntity> candidates) {
+        if (candidates.size() == 1)
+            return candidates.get(0);
+
+        AbstractEntity primary = null;
+        for (AbstractEntity candidate : candidates) {
+            if (!candidate.isPrimary()) continue;
+            if (primary != null) return null;
+            primary = candidate;
+        }
+        if (primary != null)
+            return primary;
+
+        for (AbstractEntity candidate : candidates)
+            if (candidate.getType() == key.getType() && (key.isQualified() || candidate.getQualifier() == null)) return candidate;
+        return null;
+    }
 
 
     /**
@@ -4,13 +4,15 @@
 
 import javax.annotation.Nonnull;
 import java.util.Arrays;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 
 /**
  * CombinerModule is a module class that
  * combines multiple modules into one.
+ * Modules are installed in the given order,
+ * and equal modules are installed once.
  */
 public class CombinerModule extends Module {
 
@@ -31,7 +33,7 @@ public CombinerModule(@Nonnull Module... modules) {
      * @param modules modules
      */
     public CombinerModule(@Nonnull List<Module> modules) {
-        this(new HashSet<>(modules));
+        this(new LinkedHashSet<>(modules));
     }
 
     /**
@@ -0,0 +1,41 @@
+package com.hakan.basicdi.module.impl;
+
+import com.hakan.basicdi.graph.GraphSnapshot;
+import com.hakan.basicdi.module.Module;
+
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * SnapshotModule is a module class that
+ * binds the entities of a {@link GraphSnapshot}
+ * instead of configuring the given modules.
+ * Modules are only used to call their
+ * provider and runner methods.
+ */
+public class SnapshotModule extends Module {
+
+    private final GraphSnapshot snapshot;
+    private final List<Module> modules;
+
+    /**
+     * Constructor of {@link SnapshotModule}.
+     *
+     * @param snapshot snapshot
+     * @param modules  modules
+     */
+    public SnapshotModule(@Nonnull GraphSnapshot snapshot,
+                          @Nonnull Module... modules) {
+        this.snapshot = snapshot;
+        this.modules = Arrays.asList(modules);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void configure() {
+        this.snapshot.restore(this, this.modules);
+    }
+}
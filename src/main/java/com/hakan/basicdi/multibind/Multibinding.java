@@ -0,0 +1,225 @@
+package com.hakan.basicdi.multibind;
+
+import com.hakan.basicdi.entity.AbstractEntity;
+import com.hakan.basicdi.entity.Scope;
+import com.hakan.basicdi.entity.impl.MethodProviderEntity;
+
+import javax.annotation.Nonnull;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Multibinding contains every entity which is
+ * bound to a type, and it creates the immutable
+ * list, set and map of their instances.
+ * <p>
+ * If every entity is a singleton, collections
+ * are created once and the same collections are
+ * returned for the next calls. Otherwise, they
+ * are created at every call, since prototype
+ * instances must not be shared.
+ *
+ * @param <T> type
+ */
+@SuppressWarnings("unchecked")
+public class Multibinding<T> {
+
+    private final Class<T> type;
+    private final AbstractEntity[] entities;
+    private final String[] keys;
+    private final boolean cacheable;
+
+    private volatile List<T> list;
+    private volatile Set<T> set;
+    private volatile Map<String, T> map;
+
+    /**
+     * Constructor of {@link Multibinding}.
+     *
+     * @param type     type
+     * @param entities entities in binding order
+     */
+    public Multibinding(@Nonnull Class<T> type,
+                        @Nonnull List<AbstractEntity> entities) {
+        this.type = type;
+        this.entities = entities.toArray(new AbstractEntity[0]);
+        this.keys = new String[this.entities.length];
+
+        boolean cacheable = true;
+        for (int i = 0; i < this.entities.length; i++) {
+            this.keys[i] = keyOf(this.entities[i]);
+            cacheable &= this.entities[i].getScope() == Scope.SINGLETON;
+        }
+        this.cacheable = cacheable;
+    }
+
+    /**
+     * Returns the type of the multibinding.
+     *
+     * @return type
+     */
+    public @Nonnull Class<T> getType() {
+        return this.type;
+    }
+
+    /**
+     * Returns the entities of the
+     * multibinding in binding order.
+     *
+     * @return entities
+     */
+    public @Nonnull List<AbstractEntity> getEntities() {
+        return Collections.unmodifiableList(Arrays.asList(this.entities));
+    }
+
+    /**
+     * Returns the instances of the
+     * entities in binding order.
+     *
+     * @return instances
+     */
+    public @Nonnull List<T> getList() {
+        List<T> list = this.list;
+        if (list != null)
+            return list;
+
+        list = Collections.unmodifiableList(Arrays.asList(this.createInstances()));
+        if (this.cacheable)
+            this.list = list;
+        return list;
+    }
+
+    /**
+     * Returns the instances of the entities
+     * as a set in binding order.
+     *
+     * @return instances
+     */
+    public @Nonnull Set<T> getSet() {
+        Set<T> set = this.set;
+        if (set != null)
+            return set;
+
+        set = new ArraySet<>((T[]) new LinkedHashSet<>(Arrays.asList(this.createInstances())).toArray());
+        if (this.cacheable)
+            this.set = set;
+        return set;
+    }
+
+    /**
+     * Returns the instances of the entities by
+     * their keys in binding order. Key of a named
+     * entity is its name, key of a provider method
+     * is the name of the method, and key of a class
+     * is its simple name starting with a lower
+     * case letter.
+     *
+     * @return instances by their keys
+     */
+    public @Nonnull Map<String, T> getMap() {
+        Map<String, T> map = this.map;
+        if (map != null)
+            return map;
+
+        T[] instances = this.createInstances();
+        Map<String, T> created = new LinkedHashMap<>();
+        for (int i = 0; i < instances.length; i++)
+            if (created.put(this.keys[i], instances[i]) != null)
+                throw new RuntimeException("duplicate key " + this.keys[i] + " in multibinding of class " + this.type.getName());
+
+        map = Collections.unmodifiableMap(created);
+        if (this.cacheable)
+            this.map = map;
+        return map;
+    }
+
+
+
+    /**
+     * Creates the instances of the entities.
+     *
+     * @return instances
+     */
+    private @Nonnull T[] createInstances() {
+        Object[] instances = new Object[this.entities.length];
+        for (int i = 0; i < instances.length; i++)
+            instances[i] = this.entities[i].getInstance();
+        return (T[]) instances;
+    }
+
+    /**
+     * Returns the key of the entity.
+     *
+     * @param entity entity
+     * @return key
+     */
+    private static @Nonnull String keyOf(@Nonnull AbstractEntity entity) {
+        if (entity.getQualifier() instanceof String)
+            return (String) entity.getQualifier();
+        if (entity instanceof MethodProviderEntity)
+            return ((MethodProviderEntity) entity).getMethod().getName();
+
+        String name = entity.getType().getSimpleName();
+        return name.isEmpty() ? entity.getType().getName() : Character.toLowerCase(name.charAt(0)) + name.substring(1);
+    }
+
+
+
+    /**
+     * ArraySet is an immutable set which is
+     * backed by an array of distinct elements.
+     *
+     * @param <E> element type
+     */
+    private static final class ArraySet<E> extends AbstractSet<E> {
+
+        private final E[] elements;
+
+        /**
+         * Constructor of {@link ArraySet}.
+         *
+         * @param elements distinct elements
+         */
+        private ArraySet(@Nonnull E[] elements) {
+            this.elements = elements;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public @Nonnull Iterator<E> iterator() {
+            return new Iterator<E>() {
+                private int index;
+
+                @Override
+                public boolean hasNext() {
+                    return this.index < ArraySet.this.elements.length;
+                }
+
+                @Override
+                public E next() {
+                    if (!this.hasNext())
+                        throw new NoSuchElementException();
+                    return ArraySet.this.elements[this.index++];
+                }
+            };
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int size() {
+            return this.elements.length;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.hakan.basicdi.provider;
+
+import com.hakan.basicdi.entity.AbstractEntity;
+import com.hakan.basicdi.key.Key;
+import com.hakan.basicdi.module.Module;
+
+import javax.annotation.Nonnull;
+
+/**
+ * LazyProvider is a {@link Provider} which finds
+ * the entity of its type at the first call, and
+ * returns the instance of the entity.
+ * <p>
+ * Entity is cached after it is found, so later
+ * calls only cost the call of the entity.
+ *
+ * @param <T> type
+ */
+@SuppressWarnings({"unchecked"})
+public class LazyProvider<T> implements Provider<T> {
+
+    private final Module module;
+    private final Class<T> type;
+    private final Key key;
+    private volatile AbstractEntity entity;
+
+    /**
+     * Constructor of {@link LazyProvider}.
+     *
+     * @param module module
+     * @param type   type
+     */
+    public LazyProvider(@Nonnull Module module,
+                        @Nonnull Class<T> type) {
+        this.module = module;
+        this.type = type;
+        this.key = Key.of(type);
+    }
+
+    /**
+     * Constructor of {@link LazyProvider}.
+     *
+     * @param module module
+     * @param key    key of the entity
+     */
+    public LazyProvider(@Nonnull Module module,
+                        @Nonnull Key key) {
+        this.module = module;
+        this.type = (Class<T>) key.getType();
+        this.key = key;
+    }
+
+    /**
+     * Returns the type of the provider.
+     *
+     * @return type
+     */
+    public @Nonnull Class<T> getType() {
+        return this.type;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public @Nonnull T get() {
+        AbstractEntity entity = this.entity;
+        if (entity == null)
+            this.entity = entity = this.module.getEntity(this.key);
+        return (T) entity.getInstance();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public @Nonnull String toString() {
+        return "LazyProvider{" + this.type.getName() + "}";
+    }
+}
@@ -0,0 +1,105 @@
+package com.hakan.basicdi.provider;
+
+import javax.annotation.Nonnull;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * LazyProxy is an invocation handler which
+ * gets the instance from its provider at the
+ * first method call, and delegates all calls
+ * to that instance.
+ * <p>
+ * Methods of {@link Object} are handled by the
+ * proxy itself, so printing, hashing or comparing
+ * the proxy does not create the instance. Proxy
+ * is equal only to itself.
+ */
+public class LazyProxy implements InvocationHandler {
+
+    /**
+     * Creates a proxy of the given interface
+     * which delegates to the instance of the
+     * given provider.
+     *
+     * @param provider provider
+     * @param type     interface type
+     * @return proxy
+     */
+    public static @Nonnull Object create(@Nonnull Provider<?> provider,
+                                         @Nonnull Class<?> type) {
+        if (!type.isInterface())
+            throw new RuntimeException("lazy injection requires an interface type or Provider, found class " + type.getName());
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, new LazyProxy(provider, type));
+    }
+
+
+
+    private final Provider<?> provider;
+    private final Class<?> type;
+    private volatile Object target;
+
+    /**
+     * Constructor of {@link LazyProxy}.
+     *
+     * @param provider provider
+     * @param type     interface type
+     */
+    private LazyProxy(@Nonnull Provider<?> provider,
+                      @Nonnull Class<?> type) {
+        this.provider = provider;
+        this.type = type;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @SuppressWarnings("deprecation")
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if (method.getDeclaringClass() == Object.class)
+            return this.invokeObjectMethod(proxy, method, args);
+
+        Object target = this.target;
+        if (target == null) {
+            synchronized (this) {
+                if ((target = this.target) == null)
+                    this.target = target = this.provider.get();
+            }
+        }
+
+        if (!method.isAccessible())
+            method.setAccessible(true);
+
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+
+    /**
+     * Handles the methods of {@link Object}
+     * which are called on the proxy.
+     *
+     * @param proxy  proxy
+     * @param method equals, hash code or to string method
+     * @param args   arguments
+     * @return result
+     */
+    private @Nonnull Object invokeObjectMethod(@Nonnull Object proxy,
+                                               @Nonnull Method method,
+                                               Object[] args) {
+        switch (method.getName()) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            default:
+                return "lazy " + this.type.getName() + "@" + Integer.toHexString(System.identityHashCode(proxy));
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.hakan.basicdi.provider;
+
+import javax.annotation.Nonnull;
+import java.util.function.Supplier;
+
+/**
+ * Provider is an injectable type which
+ * returns the instance of its type argument
+ * when it is requested, so the instance is
+ * not created while its dependent is created.
+ * <p>
+ * {@link Supplier} can be injected the same way.
+ *
+ * @param <T> type
+ */
+@FunctionalInterface
+public interface Provider<T> extends Supplier<T> {
+
+    /**
+     * Returns the instance. If the scope of the
+     * instance is prototype, it creates a new
+     * instance every time.
+     *
+     * @return instance
+     */
+    @Override
+    @Nonnull
+    T get();
+}
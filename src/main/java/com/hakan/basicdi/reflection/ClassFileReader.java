@@ -0,0 +1,210 @@
+package com.hakan.basicdi.reflection;
+
+import javax.annotation.Nonnull;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * ClassFileReader reads the runtime visible annotations
+ * of a class straight from its class file, so a class
+ * can be checked without loading it.
+ * <p>
+ * Annotations of the class, its fields, its methods,
+ * its constructors and their parameters are read.
+ */
+public class ClassFileReader {
+
+    private static final int MAGIC = 0xCAFEBABE;
+
+    /**
+     * Reads the names of the annotations which are
+     * used anywhere in the given class file.
+     *
+     * @param bytes class file
+     * @return annotation class names
+     * @throws IOException if the class file is malformed
+     */
+    public static @Nonnull Set<String> readAnnotations(@Nonnull byte[] bytes) throws IOException {
+        return new ClassFileReader(bytes).read();
+    }
+
+
+
+    private final DataInputStream input;
+    private final Set<String> annotations;
+    private String[] strings;
+
+    /**
+     * Constructor of {@link ClassFileReader}.
+     *
+     * @param bytes class file
+     */
+    private ClassFileReader(@Nonnull byte[] bytes) {
+        this.input = new DataInputStream(new ByteArrayInputStream(bytes));
+        this.annotations = new HashSet<>();
+    }
+
+    /**
+     * Reads the class file.
+     *
+     * @return annotation class names
+     * @throws IOException if the class file is malformed
+     */
+    private @Nonnull Set<String> read() throws IOException {
+        if (this.input.readInt() != MAGIC)
+            throw new IOException("not a class file");
+        this.input.skipBytes(4);
+
+        if (!this.readConstantPool())
+            return this.annotations;
+
+        this.input.skipBytes(6);
+        this.input.skipBytes(this.input.readUnsignedShort() * 2);
+
+        for (int i = 0, members = this.input.readUnsignedShort(); i < members; i++)
+            this.readMember();
+        for (int i = 0, members = this.input.readUnsignedShort(); i < members; i++)
+            this.readMember();
+        this.readAttributes();
+
+        return this.annotations;
+    }
+
+    /**
+     * Reads the constant pool and keeps its
+     * utf8 entries.
+     *
+     * @return false if the constant pool has no
+     * attribute names for annotations, which
+     * means the class has no annotations
+     * @throws IOException if the class file is malformed
+     */
+    private boolean readConstantPool() throws IOException {
+        int count = this.input.readUnsignedShort();
+        this.strings = new String[count];
+
+        boolean annotated = false;
+        for (int i = 1; i < count; i++) {
+            int tag = this.input.readUnsignedByte();
+            switch (tag) {
+                case 1:
+                    this.strings[i] = this.input.readUTF();
+                    annotated |= this.strings[i].startsWith("RuntimeVisible");
+                    break;
+                case 3:
+                case 4:
+                case 9:
+                case 10:
+                case 11:
+                case 12:
+                case 17:
+                case 18:
+                    this.input.skipBytes(4);
+                    break;
+                case 5:
+                case 6:
+                    this.input.skipBytes(8);
+                    i++;
+                    break;
+                case 7:
+                case 8:
+                case 16:
+                case 19:
+                case 20:
+                    this.input.skipBytes(2);
+                    break;
+                case 15:
+                    this.input.skipBytes(3);
+                    break;
+                default:
+                    throw new IOException("unknown constant pool tag " + tag);
+            }
+        }
+
+        return annotated;
+    }
+
+    /**
+     * Reads a field or method.
+     *
+     * @throws IOException if the class file is malformed
+     */
+    private void readMember() throws IOException {
+        this.input.skipBytes(6);
+        this.readAttributes();
+    }
+
+    /**
+     * Reads the attributes and collects the
+     * runtime visible annotations.
+     *
+     * @throws IOException if the class file is malformed
+     */
+    private void readAttributes() throws IOException {
+        for (int i = 0, count = this.input.readUnsignedShort(); i < count; i++) {
+            String name = this.strings[this.input.readUnsignedShort()];
+            int length = this.input.readInt();
+
+            if ("RuntimeVisibleAnnotations".equals(name)) {
+                this.readAnnotationList();
+            } else if ("RuntimeVisibleParameterAnnotations".equals(name)) {
+                for (int j = 0, parameters = this.input.readUnsignedByte(); j < parameters; j++)
+                    this.readAnnotationList();
+            } else {
+                this.input.skipBytes(length);
+            }
+        }
+    }
+
+    /**
+     * Reads a list of annotations.
+     *
+     * @throws IOException if the class file is malformed
+     */
+    private void readAnnotationList() throws IOException {
+        for (int i = 0, count = this.input.readUnsignedShort(); i < count; i++)
+            this.readAnnotation();
+    }
+
+    /**
+     * Reads an annotation and its values.
+     *
+     * @throws IOException if the class file is malformed
+     */
+    private void readAnnotation() throws IOException {
+        String descriptor = this.strings[this.input.readUnsignedShort()];
+        this.annotations.add(descriptor.substring(1, descriptor.length() - 1).replace('/', '.'));
+
+        for (int i = 0, count = this.input.readUnsignedShort(); i < count; i++) {
+            this.input.skipBytes(2);
+            this.readElementValue();
+        }
+    }
+
+    /**
+     * Reads an element value of an annotation.
+     *
+     * @throws IOException if the class file is malformed
+     */
+    private void readElementValue() throws IOException {
+        int tag = this.input.readUnsignedByte();
+        switch (tag) {
+            case 'e':
+                this.input.skipBytes(4);
+                break;
+            case '@':
+                this.readAnnotation();
+                break;
+            case '[':
+                for (int i = 0, count = this.input.readUnsignedShort(); i < count; i++)
+                    this.readElementValue();
+                break;
+            default:
+                this.input.skipBytes(2);
+                break;
+        }
+    }
+}
@@ -0,0 +1,394 @@
+package com.hakan.basicdi.reflection;
+
+import com.hakan.basicdi.annotations.Autowired;
+import com.hakan.basicdi.annotations.Component;
+import com.hakan.basicdi.annotations.Lazy;
+import com.hakan.basicdi.annotations.PostConstruct;
+import com.hakan.basicdi.annotations.Primary;
+import com.hakan.basicdi.annotations.Provide;
+import com.hakan.basicdi.annotations.Runner;
+import com.hakan.basicdi.annotations.Service;
+import com.hakan.basicdi.entity.Scope;
+import com.hakan.basicdi.generated.GeneratedIndex;
+import com.hakan.basicdi.key.Key;
+import com.hakan.basicdi.key.Types;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * ClassMetadata holds the reflection metadata
+ * of a class, which is computed once per class
+ * and shared by every entity, module and injector
+ * that uses the class.
+ * <p>
+ * Declared members are read when the metadata
+ * is created, and the annotated members are
+ * filtered from them at the first request of
+ * each annotation.
+ */
+public final class ClassMetadata {
+
+    private static final ClassValue<ClassMetadata> CACHE = new ClassValue<ClassMetadata>() {
+        @Override
+        protected ClassMetadata computeValue(Class<?> type) {
+            return new ClassMetadata(type);
+        }
+    };
+
+    /**
+     * Returns the metadata of the given type.
+     *
+     * @param type type
+     * @return metadata
+     */
+    public static @Nonnull ClassMetadata of(@Nonnull Class<?> type) {
+        return CACHE.get(type);
+    }
+
+
+
+    private final Class<?> type;
+    private final List<Field> fields;
+    private final List<Method> methods;
+    private final List<Constructor<?>> constructors;
+    private final List<Class<?>> subTypes;
+    private final List<Type> genericSubTypes;
+    private final Scope componentScope;
+    private final boolean lazy;
+    private final boolean primary;
+    private final Object qualifier;
+
+    private final Map<Class<? extends Annotation>, Set<Field>> annotatedFields;
+    private final Map<Class<? extends Annotation>, Set<Method>> annotatedMethods;
+    private final Map<Class<? extends Annotation>, Set<Constructor<?>>> annotatedConstructors;
+    private final Map<Class<? extends Annotation>, Optional<Constructor<?>>> injectableConstructors;
+    private volatile List<Method> providerMethods;
+
+    /**
+     * Constructor of {@link ClassMetadata}.
+     *
+     * @param type type
+     */
+    private ClassMetadata(@Nonnull Class<?> type) {
+        this.type = type;
+        this.fields = declared(type, Class::getDeclaredFields);
+        this.methods = declared(type, Class::getDeclaredMethods);
+        this.constructors = declared(type, Class::getDeclaredConstructors);
+        this.lazy = type.isAnnotationPresent(Lazy.class);
+        this.primary = type.isAnnotationPresent(Primary.class);
+        this.qualifier = Key.qualifierOf(type.getAnnotations());
+        this.annotatedFields = new ConcurrentHashMap<>();
+        this.annotatedMethods = new ConcurrentHashMap<>();
+        this.annotatedConstructors = new ConcurrentHashMap<>();
+        this.injectableConstructors = new ConcurrentHashMap<>();
+
+        if (type.isAnnotationPresent(Service.class))
+            this.componentScope = type.getAnnotation(Service.class).scope();
+        else if (type.isAnnotationPresent(Component.class))
+            this.componentScope = type.getAnnotation(Component.class).scope();
+        else
+            this.componentScope = null;
+
+        Set<Class<?>> subTypes = new LinkedHashSet<>();
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass())
+            subTypes.add(current);
+        for (Class<?> current : new ArrayList<>(subTypes))
+            addInterfaces(subTypes, current);
+        this.subTypes = Collections.unmodifiableList(new ArrayList<>(subTypes));
+        this.genericSubTypes = genericSubTypes(type);
+    }
+
+    /**
+     * Returns the type of the metadata.
+     *
+     * @return type
+     */
+    public @Nonnull Class<?> getType() {
+        return this.type;
+    }
+
+    /**
+     * Returns the declared fields of the type.
+     *
+     * @return fields
+     */
+    public @Nonnull List<Field> getFields() {
+        return this.fields;
+    }
+
+    /**
+     * Returns the declared methods of the type.
+     *
+     * @return methods
+     */
+    public @Nonnull List<Method> getMethods() {
+        return this.methods;
+    }
+
+    /**
+     * Returns the declared constructors of the type.
+     *
+     * @return constructors
+     */
+    public @Nonnull List<Constructor<?>> getConstructors() {
+        return this.constructors;
+    }
+
+    /**
+     * Returns the type and all of its superclasses
+     * and interfaces, which are collected transitively.
+     * Superclasses come first from the nearest one,
+     * {@link Object} is not included.
+     *
+     * @return subtypes
+     */
+    public @Nonnull List<Class<?>> getSubTypes() {
+        return this.subTypes;
+    }
+
+    /**
+     * Returns the parameterized superclasses and
+     * interfaces of the type in their canonical
+     * forms, such as {@code Repository<User>} for
+     * a class which implements it.
+     *
+     * @return generic subtypes
+     * @see Types#genericSuperTypes(Type)
+     */
+    public @Nonnull List<Type> getGenericSubTypes() {
+        return this.genericSubTypes;
+    }
+
+    /**
+     * Returns the scope of the {@link Service}
+     * or {@link Component} annotation of the type.
+     *
+     * @return scope, or null if the type is not a component
+     */
+    public @Nullable Scope getComponentScope() {
+        return this.componentScope;
+    }
+
+    /**
+     * Checks if the type is annotated with {@link Lazy}.
+     *
+     * @return true if it is lazy
+     */
+    public boolean isLazy() {
+        return this.lazy;
+    }
+
+    /**
+     * Checks if the type is annotated with {@link Primary}.
+     *
+     * @return true if it is primary
+     */
+    public boolean isPrimary() {
+        return this.primary;
+    }
+
+    /**
+     * Returns the qualifier of the type.
+     *
+     * @return qualifier, or null if it is unqualified
+     * @see Key#qualifierOf(Annotation[])
+     */
+    public @Nullable Object getQualifier() {
+        return this.qualifier;
+    }
+
+
+    /**
+     * Returns the declared fields which are
+     * annotated with the given annotation.
+     *
+     * @param annotation annotation
+     * @return fields
+     */
+    public @Nonnull Set<Field> getFieldsAnnotatedWith(@Nonnull Class<? extends Annotation> annotation) {
+        return this.annotatedFields.computeIfAbsent(annotation, key -> filter(this.fields, key));
+    }
+
+    /**
+     * Returns the declared methods which are
+     * annotated with the given annotation.
+     *
+     * @param annotation annotation
+     * @return methods
+     */
+    public @Nonnull Set<Method> getMethodsAnnotatedWith(@Nonnull Class<? extends Annotation> annotation) {
+        return this.annotatedMethods.computeIfAbsent(annotation, key -> filter(this.methods, key));
+    }
+
+    /**
+     * Returns the declared constructors which
+     * are annotated with the given annotation.
+     *
+     * @param annotation annotation
+     * @return constructors
+     */
+    public @Nonnull Set<Constructor<?>> getConstructorsAnnotatedWith(@Nonnull Class<? extends Annotation> annotation) {
+        return this.annotatedConstructors.computeIfAbsent(annotation, key -> filter(this.constructors, key));
+    }
+
+    /**
+     * Returns the constructor which is annotated
+     * with the given annotation, or the constructor
+     * without parameters if there is none.
+     *
+     * @param annotation annotation
+     * @return constructor, or null if not found
+     */
+    public @Nullable Constructor<?> getConstructor(@Nonnull Class<? extends Annotation> annotation) {
+        return this.injectableConstructors.computeIfAbsent(annotation, key -> {
+            for (Constructor<?> constructor : this.getConstructorsAnnotatedWith(key))
+                return Optional.of(constructor);
+            for (Constructor<?> constructor : this.constructors)
+                if (constructor.getParameterCount() == 0) return Optional.of(constructor);
+            return Optional.empty();
+        }).orElse(null);
+    }
+
+    /**
+     * Returns the constructor which is used to
+     * create the instances of the type, which is
+     * annotated with {@link Autowired} or has
+     * no parameters.
+     *
+     * @return constructor, or null if not found
+     */
+    public @Nullable Constructor<?> getInjectableConstructor() {
+        return this.getConstructor(Autowired.class);
+    }
+
+    /**
+     * Returns the fields which are
+     * annotated with {@link Autowired}.
+     *
+     * @return fields
+     */
+    public @Nonnull Set<Field> getInjectableFields() {
+        return this.getFieldsAnnotatedWith(Autowired.class);
+    }
+
+    /**
+     * Returns the methods which are
+     * annotated with {@link PostConstruct}.
+     *
+     * @return methods
+     */
+    public @Nonnull Set<Method> getPostConstructMethods() {
+        return this.getMethodsAnnotatedWith(PostConstruct.class);
+    }
+
+    /**
+     * Returns the @Runner and then the @Provide
+     * methods of the type when it is a module.
+     * They are read from the {@link GeneratedIndex}
+     * if the module is indexed.
+     *
+     * @return methods
+     */
+    public @Nonnull List<Method> getProviderMethods() {
+        List<Method> providerMethods = this.providerMethods;
+        if (providerMethods != null)
+            return providerMethods;
+
+        List<Method> methods = GeneratedIndex.of(this.type.getClassLoader()).findMethods(this.type);
+        if (methods == null) {
+            methods = new ArrayList<>(this.getMethodsAnnotatedWith(Runner.class));
+            methods.addAll(this.getMethodsAnnotatedWith(Provide.class));
+        }
+
+        return this.providerMethods = Collections.unmodifiableList(new ArrayList<>(methods));
+    }
+
+
+
+    /**
+     * Adds the interfaces of the type and
+     * their super interfaces to the set.
+     *
+     * @param types set of the types
+     * @param type  type
+     */
+    private static void addInterfaces(@Nonnull Set<Class<?>> types, @Nonnull Class<?> type) {
+        for (Class<?> anInterface : type.getInterfaces())
+            if (types.add(anInterface)) addInterfaces(types, anInterface);
+    }
+
+    /**
+     * Reads the parameterized supertypes of the
+     * type. Types which refer to missing classes
+     * do not have any.
+     *
+     * @param type type
+     * @return generic subtypes
+     */
+    private static @Nonnull List<Type> genericSubTypes(@Nonnull Class<?> type) {
+        if (type.isAnnotation())
+            return Collections.emptyList();
+
+        try {
+            return Types.genericSuperTypes(type);
+        } catch (TypeNotPresentException | NoClassDefFoundError e) {
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Reads the declared members of the type.
+     * Members of annotations and members which
+     * refer to missing classes are skipped.
+     *
+     * @param type   type
+     * @param reader member reader
+     * @param <T>    member type
+     * @return members
+     */
+    private static @Nonnull <T> List<T> declared(@Nonnull Class<?> type,
+                                                 @Nonnull Function<Class<?>, T[]> reader) {
+        if (type.isAnnotation())
+            return Collections.emptyList();
+
+        try {
+            return Collections.unmodifiableList(Arrays.asList(reader.apply(type)));
+        } catch (NoClassDefFoundError e) {
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Filters the members which are annotated
+     * with the given annotation.
+     *
+     * @param members    members
+     * @param annotation annotation
+     * @param <T>        member type
+     * @return annotated members
+     */
+    private static @Nonnull <T extends AnnotatedElement> Set<T> filter(@Nonnull List<T> members,
+                                                                       @Nonnull Class<? extends Annotation> annotation) {
+        Set<T> set = new LinkedHashSet<>();
+        for (T member : members)
+            if (member.isAnnotationPresent(annotation)) set.add(member);
+        return Collections.unmodifiableSet(set);
+    }
+}
@@ -0,0 +1,510 @@
+package com.hakan.basicdi.reflection;
+
+import com.hakan.basicdi.annotations.Autowired;
+import com.hakan.basicdi.annotations.Component;
+import com.hakan.basicdi.annotations.PostConstruct;
+import com.hakan.basicdi.annotations.Provide;
+import com.hakan.basicdi.annotations.Runner;
+import com.hakan.basicdi.annotations.Service;
+import com.hakan.basicdi.metrics.InjectionListener;
+import lombok.SneakyThrows;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.annotation.Annotation;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.CodeSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * ClassScanner finds the classes of a package in
+ * the jar files and directories of a class loader.
+ * <p>
+ * Jar files are read from their central directory
+ * and directories are walked with NIO, entries are
+ * filtered by their names before anything is loaded.
+ * Classes are loaded in parallel and they are not
+ * initialized, so their static blocks are not run.
+ * <p>
+ * Scanning can also be limited to the classes which
+ * use some annotations. Annotations are read from the
+ * class files with {@link ClassFileReader}, so other
+ * classes are never loaded.
+ * <p>
+ * If a {@link ScanCache} is given, results are stored
+ * on disk and reused while the scanned jar files and
+ * directories stay the same.
+ * <p>
+ * Scans are reported to the {@link InjectionListener}
+ * of the scanner, which is the default listener
+ * unless another one is set.
+ */
+public class ClassScanner {
+
+    /**
+     * Annotations which are used by the injector.
+     */
+    public static final List<Class<? extends Annotation>> INJECTION_ANNOTATIONS = Collections.unmodifiableList(Arrays.asList(
+            Component.class, Service.class, Autowired.class, Provide.class, Runner.class, PostConstruct.class
+    ));
+
+    private static volatile InjectionListener defaultListener = InjectionListener.NOOP;
+
+    /**
+     * Sets the listener of the scanners which
+     * are created after this call. Package scans
+     * mostly run while modules are configured,
+     * so their listener must be set before.
+     *
+     * @param listener listener
+     */
+    public static void setDefaultListener(@Nonnull InjectionListener listener) {
+        defaultListener = listener;
+    }
+
+    /**
+     * Returns the listener of the scanners
+     * which are created after this call.
+     *
+     * @return listener
+     */
+    public static @Nonnull InjectionListener getDefaultListener() {
+        return defaultListener;
+    }
+
+
+
+    private final ClassLoader classLoader;
+    private final ScanCache cache;
+    private InjectionListener listener;
+
+    /**
+     * Constructor of {@link ClassScanner}
+     * with the context class loader. Cache
+     * is enabled by the system property
+     * {@link ScanCache#DIRECTORY_PROPERTY}.
+     */
+    public ClassScanner() {
+        this(defaultClassLoader(), ScanCache.fromSystemProperty());
+    }
+
+    /**
+     * Constructor of {@link ClassScanner}.
+     *
+     * @param classLoader class loader to scan
+     */
+    public ClassScanner(@Nonnull ClassLoader classLoader) {
+        this(classLoader, null);
+    }
+
+    /**
+     * Constructor of {@link ClassScanner}.
+     *
+     * @param classLoader class loader to scan
+     * @param cache       cache of the scan results, or null
+     */
+    public ClassScanner(@Nonnull ClassLoader classLoader, @Nullable ScanCache cache) {
+        this.classLoader = classLoader;
+        this.cache = cache;
+        this.listener = defaultListener;
+    }
+
+    /**
+     * Sets the listener which is
+     * notified about the scans.
+     *
+     * @param listener listener
+     * @return this
+     */
+    public @Nonnull ClassScanner withListener(@Nonnull InjectionListener listener) {
+        this.listener = listener;
+        return this;
+    }
+
+    /**
+     * Returns the class loader of the scanner.
+     *
+     * @return class loader
+     */
+    public @Nonnull ClassLoader getClassLoader() {
+        return this.classLoader;
+    }
+
+    /**
+     * Scans the given base package and returns
+     * the classes which are found as a parallel
+     * stream. Classes that cannot be loaded are
+     * skipped.
+     *
+     * @param basePackage the base package
+     * @return the classes
+     */
+    public @Nonnull Stream<Class<?>> scan(@Nonnull String basePackage) {
+        return this.scan0(basePackage, null);
+    }
+
+    /**
+     * Scans the given base package and returns
+     * the classes which use at least one of the
+     * given annotations on the class or on its
+     * members, as a parallel stream.
+     *
+     * @param basePackage the base package
+     * @param annotations the annotations
+     * @return the classes
+     */
+    public @Nonnull Stream<Class<?>> scan(@Nonnull String basePackage,
+                                         @Nonnull Collection<Class<? extends Annotation>> annotations) {
+        return this.scan0(basePackage, toNames(annotations));
+    }
+
+    /**
+     * Finds the names of the classes in the
+     * given base package without loading them.
+     *
+     * @param basePackage the base package
+     * @return the class names
+     */
+    public @Nonnull List<String> findClassNames(@Nonnull String basePackage) {
+        return this.findClassNames0(basePackage, null);
+    }
+
+    /**
+     * Finds the names of the classes in the
+     * given base package which use at least one
+     * of the given annotations without loading them.
+     *
+     * @param basePackage the base package
+     * @param annotations the annotations
+     * @return the class names
+     */
+    public @Nonnull List<String> findClassNames(@Nonnull String basePackage,
+                                                @Nonnull Collection<Class<? extends Annotation>> annotations) {
+        return this.findClassNames0(basePackage, toNames(annotations));
+    }
+
+
+
+    /**
+     * Scans the given base package and loads the
+     * classes. If the listener is enabled, classes
+     * are loaded before returning, so the whole
+     * scan can be measured.
+     *
+     * @param basePackage     the base package
+     * @param annotationNames annotation names to filter, or null
+     * @return the classes
+     */
+    private @Nonnull Stream<Class<?>> scan0(@Nonnull String basePackage,
+                                           @Nullable Set<String> annotationNames) {
+        InjectionListener listener = this.listener;
+        if (!listener.isEnabled())
+            return this.load(this.findClassNames0(basePackage, annotationNames));
+
+        long start = System.nanoTime();
+        List<Class<?>> classes = this.load(this.findClassNames0(basePackage, annotationNames)).collect(Collectors.toList());
+        listener.onScan(basePackage, classes.size(), System.nanoTime() - start);
+        return classes.parallelStream();
+    }
+
+    /**
+     * Finds the names of the classes in the
+     * given base package without loading them.
+     *
+     * @param basePackage     the base package
+     * @param annotationNames annotation names to filter,
+     *                        or null to find all classes
+     * @return the class names
+     */
+    private @Nonnull List<String> findClassNames0(@Nonnull String basePackage,
+                                                  @Nullable Set<String> annotationNames) {
+        String packagePath = basePackage.replace('.', '/');
+        Set<Path> roots = this.findRoots(packagePath);
+
+        String key = null;
+        long fingerprint = 0;
+        if (this.cache != null) {
+            key = basePackage + "|" + ((annotationNames != null) ? new TreeSet<>(annotationNames) : "*");
+            fingerprint = ScanCache.fingerprint(roots, packagePath);
+
+            List<String> cached = this.cache.read(key, fingerprint);
+            if (cached != null) return cached;
+        }
+
+        Set<String> classNames = new LinkedHashSet<>();
+        for (Path root : roots) {
+            if (Files.isDirectory(root))
+                classNames.addAll(this.findInDirectory(root, packagePath, annotationNames));
+            else if (Files.isRegularFile(root))
+                classNames.addAll(this.findInJar(root, packagePath, annotationNames));
+        }
+
+        List<String> result = new ArrayList<>(classNames);
+        if (this.cache != null)
+            this.cache.write(key, fingerprint, result);
+        return result;
+    }
+
+    /**
+     * Loads the given classes in parallel.
+     *
+     * @param classNames class names
+     * @return the classes
+     */
+    private @Nonnull Stream<Class<?>> load(@Nonnull List<String> classNames) {
+        return classNames.parallelStream()
+                .map(this::loadClass)
+                .filter(Objects::nonNull);
+    }
+
+
+
+    /**
+     * Finds the jar files and class directories
+     * which contain the given package path. Jar
+     * file of this library is always included,
+     * since it can be shaded into a fat jar.
+     *
+     * @param packagePath package path
+     * @return roots
+     */
+    @SneakyThrows
+    private @Nonnull Set<Path> findRoots(@Nonnull String packagePath) {
+        Set<Path> roots = new LinkedHashSet<>();
+
+        CodeSource codeSource = ClassScanner.class.getProtectionDomain().getCodeSource();
+        if (codeSource != null && codeSource.getLocation().toString().endsWith(".jar"))
+            roots.add(Paths.get(codeSource.getLocation().toURI()));
+
+        Enumeration<URL> urls = this.classLoader.getResources(packagePath);
+        while (urls.hasMoreElements()) {
+            Path root = this.toRoot(urls.nextElement(), packagePath);
+            if (root != null) roots.add(root);
+        }
+
+        return roots;
+    }
+
+    /**
+     * Converts the url of a package to the jar
+     * file or class directory which contains it.
+     *
+     * @param url         package url
+     * @param packagePath package path
+     * @return root, or null if it is not on the file system
+     */
+    private @Nullable Path toRoot(@Nonnull URL url, @Nonnull String packagePath) {
+        try {
+            String location = url.toString();
+
+            if (url.getProtocol().equals("jar")) {
+                String jar = location.substring("jar:".length(), location.indexOf("!/"));
+                return Paths.get(new URL(jar).toURI());
+            } else if (url.getProtocol().equals("file")) {
+                Path directory = Paths.get(url.toURI());
+                for (int i = packagePath.isEmpty() ? 0 : packagePath.split("/").length; i > 0; i--)
+                    directory = directory.getParent();
+                return directory;
+            }
+        } catch (Exception ignored) {
+
+        }
+        return null;
+    }
+
+    /**
+     * Finds the class names in the given directory
+     * which are under the package path.
+     *
+     * @param root        class directory
+     * @param packagePath package path
+     * @return class names
+     */
+    private @Nonnull List<String> findInDirectory(@Nonnull Path root,
+                                                  @Nonnull String packagePath,
+                                                  @Nullable Set<String> annotationNames) {
+        Path directory = root.resolve(packagePath);
+        if (!Files.isDirectory(directory))
+            return Collections.emptyList();
+
+        List<Path> files;
+        try (Stream<Path> paths = Files.walk(directory)) {
+            files = paths.filter(path -> isClassEntry(this.toEntryName(root, path))).collect(Collectors.toList());
+        } catch (IOException e) {
+            return Collections.emptyList();
+        }
+
+        return files.parallelStream()
+                .filter(path -> annotationNames == null || isAnnotated(() -> Files.newInputStream(path), annotationNames))
+                .map(path -> toClassName(this.toEntryName(root, path)))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Finds the class names in the central
+     * directory of the given jar file which
+     * are under the package path.
+     *
+     * @param jar             jar file
+     * @param packagePath     package path
+     * @param annotationNames annotation names to filter, or null
+     * @return class names
+     */
+    private @Nonnull List<String> findInJar(@Nonnull Path jar,
+                                            @Nonnull String packagePath,
+                                            @Nullable Set<String> annotationNames) {
+        String prefix = packagePath.isEmpty() ? "" : packagePath + "/";
+
+        try (ZipFile zip = new ZipFile(jar.toFile())) {
+            List<ZipEntry> entries = zip.stream()
+                    .filter(entry -> entry.getName().startsWith(prefix))
+                    .filter(entry -> isClassEntry(entry.getName()))
+                    .collect(Collectors.toList());
+
+            return entries.parallelStream()
+                    .filter(entry -> annotationNames == null || isAnnotated(() -> zip.getInputStream(entry), annotationNames))
+                    .map(entry -> toClassName(entry.getName()))
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Converts the path of a class file to
+     * the entry name relative to its root.
+     *
+     * @param root class directory
+     * @param path class file
+     * @return entry name
+     */
+    private @Nonnull String toEntryName(@Nonnull Path root, @Nonnull Path path) {
+        return root.relativize(path).toString().replace(root.getFileSystem().getSeparator(), "/");
+    }
+
+    /**
+     * Loads the class without initializing it.
+     *
+     * @param className class name
+     * @return class, or null if it cannot be loaded
+     */
+    private @Nullable Class<?> loadClass(@Nonnull String className) {
+        try {
+            return Class.forName(className, false, this.classLoader);
+        } catch (Exception | LinkageError e) {
+            return null;
+        }
+    }
+
+
+    /**
+     * Checks if the entry is a class file
+     * which can be loaded by its name.
+     *
+     * @param name entry name
+     * @return true if it is a class
+     */
+    private static boolean isClassEntry(@Nonnull String name) {
+        return name.endsWith(".class")
+                && !name.endsWith("module-info.class")
+                && !name.endsWith("package-info.class")
+                && !name.startsWith("META-INF/");
+    }
+
+    /**
+     * Checks if the class file uses at least one
+     * of the given annotations. If the class file
+     * cannot be read, it is accepted, so it can
+     * still be checked after it is loaded.
+     *
+     * @param source          class file source
+     * @param annotationNames annotation names
+     * @return true if it is annotated
+     */
+    private static boolean isAnnotated(@Nonnull ClassFileSource source,
+                                       @Nonnull Set<String> annotationNames) {
+        try (InputStream stream = source.open()) {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            for (int read = stream.read(buffer); read != -1; read = stream.read(buffer))
+                output.write(buffer, 0, read);
+
+            for (String annotation : ClassFileReader.readAnnotations(output.toByteArray()))
+                if (annotationNames.contains(annotation)) return true;
+            return false;
+        } catch (IOException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Converts the annotations to their names.
+     *
+     * @param annotations annotations
+     * @return annotation names
+     */
+    private static @Nonnull Set<String> toNames(@Nonnull Collection<Class<? extends Annotation>> annotations) {
+        Set<String> annotationNames = new HashSet<>();
+        annotations.forEach(annotation -> annotationNames.add(annotation.getName()));
+        return annotationNames;
+    }
+
+    /**
+     * Converts the entry name to the class name.
+     *
+     * @param name entry name
+     * @return class name
+     */
+    private static @Nonnull String toClassName(@Nonnull String name) {
+        return name.substring(0, name.length() - ".class".length()).replace('/', '.');
+    }
+
+    /**
+     * Returns the context class loader,
+     * or the class loader of this class.
+     *
+     * @return class loader
+     */
+    private static @Nonnull ClassLoader defaultClassLoader() {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        return (classLoader != null) ? classLoader : ClassScanner.class.getClassLoader();
+    }
+
+
+
+    /**
+     * ClassFileSource opens the
+     * stream of a class file.
+     */
+    private interface ClassFileSource {
+
+        /**
+         * Opens the stream of the class file.
+         *
+         * @return stream
+         * @throws IOException if it cannot be opened
+         */
+        @Nonnull
+        InputStream open() throws IOException;
+    }
+}
@@ -9,10 +9,14 @@
 import java.util.HashSet;
 import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Reflection is a class that provides reflection operations
  * for the given base package or class.
+ * <p>
+ * Members are read from the {@link ClassMetadata}
+ * of the types, so they are scanned once per class.
  */
 public class Reflection {
 
@@ -42,7 +46,33 @@ public Reflection(@Nonnull Class<?>... clazz) {
      * @param basePackage the base package to scan
      */
     public Reflection(@Nonnull String basePackage) {
-        this(ReflectionUtils.findClasses(basePackage));
+        this(new ClassScanner().scan(basePackage));
+    }
+
+    /**
+     * Constructor of {@link Reflection}.
+     * <p>
+     * Only the classes which use at least one of
+     * the given annotations are loaded, the others
+     * are filtered out from their class files.
+     *
+     * @param basePackage the base package to scan
+     * @param annotations the annotations to filter
+     * @see ClassScanner#INJECTION_ANNOTATIONS
+     */
+    @SafeVarargs
+    public Reflection(@Nonnull String basePackage,
+                      @Nonnull Class<? extends Annotation>... annotations) {
+        this(new ClassScanner().scan(basePackage, Arrays.asList(annotations)));
+    }
+
+    /**
+     * Constructor of {@link Reflection}.
+     *
+     * @param types stream of the types to scan
+     */
+    public Reflection(@Nonnull Stream<Class<?>> types) {
+        this(types.collect(Collectors.toSet()));
     }
 
 
@@ -56,19 +86,8 @@ public Reflection(@Nonnull String basePackage) {
      */
     public @Nonnull Set<Field> getFieldsAnnotatedWith(@Nonnull Class<? extends Annotation> annotation) {
         Set<Field> set = new HashSet<>();
-        for (Class<?> type : this.types) {
-            try {
-                if (!type.isAnnotation()) {
-                    for (Field field : type.getDeclaredFields()) {
-                        if (field.isAnnotationPresent(annotation)) {
-                            set.add(field);
-                        }
-                    }
-                }
-            } catch (NoClassDefFoundError ignored) {
-
-            }
-        }
+        for (Class<?> type : this.types)
+            set.addAll(ClassMetadata.of(type).getFieldsAnnotatedWith(annotation));
         return set;
     }
 
@@ -82,19 +101,8 @@ public Reflection(@Nonnull String basePackage) {
      */
     public @Nonnull Set<Method> getMethodsAnnotatedWith(@Nonnull Class<? extends Annotation> annotation) {
         Set<Method> set = new HashSet<>();
-        for (Class<?> type : this.types) {
-            try {
-                if (!type.isAnnotation()) {
-                    for (Method method : type.getDeclaredMethods()) {
-                        if (method.isAnnotationPresent(annotation)) {
-                            set.add(method);
-                        }
-                    }
-                }
-            } catch (NoClassDefFoundError ignored) {
-
-            }
-        }
+        for (Class<?> type : this.types)
+            set.addAll(ClassMetadata.of(type).getMethodsAnnotatedWith(annotation));
         return set;
     }
 
@@ -108,19 +116,8 @@ public Reflection(@Nonnull String basePackage) {
      */
     public @Nonnull Set<Constructor<?>> getConstructorsAnnotatedWith(@Nonnull Class<? extends Annotation> annotation) {
         Set<Constructor<?>> set = new HashSet<>();
-        for (Class<?> type : this.types) {
-            try {
-                if (!type.isAnnotation()) {
-                    for (Constructor<?> constructor : type.getDeclaredConstructors()) {
-                        if (constructor.isAnnotationPresent(annotation)) {
-                            set.add(constructor);
-                        }
-                    }
-                }
-            } catch (NoClassDefFoundError ignored) {
-
-            }
-        }
+        for (Class<?> type : this.types)
+            set.addAll(ClassMetadata.of(type).getConstructorsAnnotatedWith(annotation));
         return set;
     }
 
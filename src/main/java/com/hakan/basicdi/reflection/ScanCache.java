@@ -0,0 +1,223 @@
+package com.hakan.basicdi.reflection;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * ScanCache stores the results of the package
+ * scans on disk, so the next start of the JVM
+ * can skip scanning when the classpath did not
+ * change.
+ * <p>
+ * Every result is keyed by the scanned package
+ * and the annotation filter, and it is validated
+ * with a fingerprint of the paths, sizes and
+ * modification times of the scanned roots. Index
+ * files are read with a memory-mapped buffer.
+ * <p>
+ * Only the names of the matching classes are
+ * stored, which removes the walk of the roots and
+ * the parsing of the class files. Annotated members
+ * and subtypes are not stored, since they are read
+ * from the loaded classes by {@link ClassMetadata},
+ * and every matching class is loaded to be bound.
+ */
+public class ScanCache {
+
+    /**
+     * System property which enables the cache
+     * for the default {@link ClassScanner} with
+     * the given directory.
+     */
+    public static final String DIRECTORY_PROPERTY = "basicdi.scan.cache";
+
+    private static final int MAGIC = 0x42444943;
+    private static final int VERSION = 1;
+
+    /**
+     * Creates a cache from the directory in the
+     * {@link #DIRECTORY_PROPERTY} system property.
+     *
+     * @return cache, or null if the property is not set
+     */
+    public static @Nullable ScanCache fromSystemProperty() {
+        String directory = System.getProperty(DIRECTORY_PROPERTY);
+        return (directory != null && !directory.isEmpty()) ? new ScanCache(Paths.get(directory)) : null;
+    }
+
+    /**
+     * Calculates the fingerprint of the given roots.
+     * Jar files are fingerprinted by their size and
+     * modification time, directories by the class
+     * files under the package path.
+     *
+     * @param roots       jar files and class directories
+     * @param packagePath package path
+     * @return fingerprint
+     */
+    public static long fingerprint(@Nonnull Collection<Path> roots, @Nonnull String packagePath) {
+        long hash = 1125899906842597L;
+
+        for (Path root : roots) {
+            hash = 31 * hash + root.toString().hashCode();
+
+            try {
+                if (Files.isRegularFile(root)) {
+                    BasicFileAttributes attributes = Files.readAttributes(root, BasicFileAttributes.class);
+                    hash = 31 * hash + attributes.size();
+                    hash = 31 * hash + attributes.lastModifiedTime().toMillis();
+                } else if (Files.isDirectory(root.resolve(packagePath))) {
+                    try (Stream<Path> paths = Files.walk(root.resolve(packagePath))) {
+                        for (Path path : (Iterable<Path>) paths::iterator) {
+                            hash = 31 * hash + path.toString().hashCode();
+                            hash = 31 * hash + Files.getLastModifiedTime(path).toMillis();
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                hash = 31 * hash + e.getClass().hashCode();
+            }
+        }
+
+        return hash;
+    }
+
+
+
+    private final Path directory;
+
+    /**
+     * Constructor of {@link ScanCache}.
+     *
+     * @param directory directory of the index files
+     */
+    public ScanCache(@Nonnull Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Returns the directory of the index files.
+     *
+     * @return directory
+     */
+    public @Nonnull Path getDirectory() {
+        return this.directory;
+    }
+
+    /**
+     * Reads the class names of the given key
+     * if the stored fingerprint matches.
+     *
+     * @param key         scan key
+     * @param fingerprint fingerprint of the roots
+     * @return class names, or null if there is no valid index
+     */
+    public @Nullable List<String> read(@Nonnull String key, long fingerprint) {
+        Path file = this.fileOf(key);
+        if (!Files.isRegularFile(file))
+            return null;
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION)
+                return null;
+            if (buffer.getLong() != fingerprint || !key.equals(readString(buffer)))
+                return null;
+
+            int count = buffer.getInt();
+            List<String> classNames = new ArrayList<>(count);
+            for (int i = 0; i < count; i++)
+                classNames.add(readString(buffer));
+            return classNames;
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Writes the class names of the given key.
+     * Index file is replaced atomically, so a
+     * concurrent reader never sees half of it.
+     * Failures are ignored, since the cache is
+     * only an optimization.
+     *
+     * @param key         scan key
+     * @param fingerprint fingerprint of the roots
+     * @param classNames  class names
+     */
+    public void write(@Nonnull String key, long fingerprint, @Nonnull List<String> classNames) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream output = new DataOutputStream(bytes);
+
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.writeLong(fingerprint);
+            writeString(output, key);
+            output.writeInt(classNames.size());
+            for (String className : classNames)
+                writeString(output, className);
+
+            Files.createDirectories(this.directory);
+            Path temporary = Files.createTempFile(this.directory, "scan", ".tmp");
+            Files.write(temporary, bytes.toByteArray());
+            Files.move(temporary, this.fileOf(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ignored) {
+
+        }
+    }
+
+
+    /**
+     * Returns the index file of the given key.
+     *
+     * @param key scan key
+     * @return index file
+     */
+    private @Nonnull Path fileOf(@Nonnull String key) {
+        return this.directory.resolve(String.format("%08x.idx", key.hashCode()));
+    }
+
+    /**
+     * Reads a length prefixed utf-8 string.
+     *
+     * @param buffer buffer
+     * @return string
+     */
+    private static @Nonnull String readString(@Nonnull ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes a length prefixed utf-8 string.
+     *
+     * @param output output
+     * @param string string
+     * @throws IOException if it cannot be written
+     */
+    private static void writeString(@Nonnull DataOutputStream output, @Nonnull String string) throws IOException {
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+}
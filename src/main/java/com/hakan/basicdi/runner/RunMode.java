@@ -0,0 +1,34 @@
+package com.hakan.basicdi.runner;
+
+/**
+ * RunMode is the way that the {@link Runnable}
+ * of a @Runner method is executed.
+ */
+public enum RunMode {
+
+    /**
+     * Runs once on the thread which
+     * creates the module.
+     */
+    SYNC,
+
+    /**
+     * Runs once on the executor of the
+     * module, so it does not block the
+     * creation of the module.
+     */
+    ASYNC,
+
+    /**
+     * Runs periodically on the scheduler of
+     * the module, at a fixed rate.
+     */
+    FIXED_RATE,
+
+    /**
+     * Runs periodically on the scheduler of
+     * the module, with a fixed delay between
+     * the end of a run and the next one.
+     */
+    FIXED_DELAY,
+}
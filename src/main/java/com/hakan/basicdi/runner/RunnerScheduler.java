@@ -0,0 +1,213 @@
+package com.hakan.basicdi.runner;
+
+import lombok.SneakyThrows;
+
+import javax.annotation.Nonnull;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RunnerScheduler executes the runners of a
+ * module which are not run synchronously,
+ * and keeps their futures, so they can be
+ * cancelled when the module is shut down.
+ * <p>
+ * Async runners without an executor share one
+ * executor, which starts a virtual thread for
+ * every runner, or which is the common
+ * {@link ForkJoinPool} if virtual threads are
+ * not supported. It is created at the first
+ * async runner and closed at shutdown.
+ * <p>
+ * Periodic runners share a single daemon
+ * thread, which is created at the first
+ * periodic runner. A failure of a periodic
+ * run, including an error, is reported to the
+ * uncaught exception handler of the thread,
+ * and the next runs are not cancelled.
+ */
+public class RunnerScheduler {
+
+    private final Set<Future<?>> futures;
+    private volatile Executor executor;
+    private volatile ScheduledExecutorService scheduler;
+    private volatile boolean shutdown;
+
+    /**
+     * Constructor of {@link RunnerScheduler}.
+     */
+    public RunnerScheduler() {
+        this.futures = ConcurrentHashMap.newKeySet();
+    }
+
+    /**
+     * Runs the runnable once on the shared
+     * executor of the async runners.
+     *
+     * @param runnable runnable
+     * @return future of the run
+     */
+    public @Nonnull Future<?> execute(@Nonnull Runnable runnable) {
+        return this.execute(runnable, this.executor());
+    }
+
+    /**
+     * Runs the runnable once on the executor.
+     *
+     * @param runnable runnable
+     * @param executor executor
+     * @return future of the run
+     */
+    public @Nonnull Future<?> execute(@Nonnull Runnable runnable,
+                                      @Nonnull Executor executor) {
+        this.checkShutdown();
+
+        CompletableFuture<Void> future = CompletableFuture.runAsync(runnable, executor);
+        this.futures.add(future);
+        future.whenComplete((ignored, throwable) -> this.futures.remove(future));
+        return future;
+    }
+
+    /**
+     * Runs the runnable periodically.
+     *
+     * @param runnable     runnable
+     * @param mode         {@link RunMode#FIXED_RATE} or {@link RunMode#FIXED_DELAY}
+     * @param initialDelay delay of the first run
+     * @param period       period or delay between the runs
+     * @param unit         time unit of the delays
+     * @return future of the runs
+     */
+    public @Nonnull Future<?> schedule(@Nonnull Runnable runnable,
+                                       @Nonnull RunMode mode,
+                                       long initialDelay, long period,
+                                       @Nonnull TimeUnit unit) {
+        this.checkShutdown();
+
+        Runnable task = () -> {
+            try {
+                runnable.run();
+            } catch (Throwable e) {
+                Thread thread = Thread.currentThread();
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+            }
+        };
+
+        Future<?> future;
+        switch (mode) {
+            case FIXED_RATE:
+                future = this.scheduler().scheduleAtFixedRate(task, initialDelay, period, unit);
+                break;
+            case FIXED_DELAY:
+                future = this.scheduler().scheduleWithFixedDelay(task, initialDelay, period, unit);
+                break;
+            default:
+                throw new RuntimeException("run mode " + mode + " is not periodic");
+        }
+
+        this.futures.add(future);
+        return future;
+    }
+
+    /**
+     * Checks if the scheduler is shut down.
+     *
+     * @return true if it is shut down
+     */
+    public boolean isShutdown() {
+        return this.shutdown;
+    }
+
+    /**
+     * Cancels the runners which are running or
+     * scheduled, stops the scheduler thread and
+     * closes the shared executor of the async
+     * runners. Running tasks are not interrupted.
+     */
+    public synchronized void shutdown() {
+        this.shutdown = true;
+
+        this.futures.forEach(future -> future.cancel(false));
+        this.futures.clear();
+
+        if (this.scheduler != null)
+            this.scheduler.shutdown();
+        if (this.executor instanceof ExecutorService && this.executor != ForkJoinPool.commonPool())
+            ((ExecutorService) this.executor).shutdown();
+    }
+
+
+
+    /**
+     * Throws if the scheduler is shut down.
+     */
+    private void checkShutdown() {
+        if (this.shutdown)
+            throw new RuntimeException("runner scheduler is shut down");
+    }
+
+    /**
+     * Returns the shared executor of the async
+     * runners, which is created at the first call.
+     *
+     * @return executor
+     */
+    private synchronized @Nonnull Executor executor() {
+        this.checkShutdown();
+
+        if (this.executor == null)
+            this.executor = virtualThreadExecutor();
+        return this.executor;
+    }
+
+    /**
+     * Returns the scheduler, which is
+     * created at the first call.
+     *
+     * @return scheduler
+     */
+    private synchronized @Nonnull ScheduledExecutorService scheduler() {
+        this.checkShutdown();
+
+        if (this.scheduler == null) {
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "basicdi-runner");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return this.scheduler;
+    }
+
+    /**
+     * Returns a new executor which starts a
+     * virtual thread for every task. If virtual
+     * threads are not supported by the JVM, such
+     * as older runtimes or runtimes where they are
+     * a disabled preview feature, the common
+     * {@link ForkJoinPool} is returned.
+     *
+     * @return executor
+     */
+    @SneakyThrows
+    private static @Nonnull Executor virtualThreadExecutor() {
+        try {
+            return (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException | UnsupportedOperationException e) {
+            return ForkJoinPool.commonPool();
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof UnsupportedOperationException)
+                return ForkJoinPool.commonPool();
+            throw e.getCause();
+        }
+    }
+}
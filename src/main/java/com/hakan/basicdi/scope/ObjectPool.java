@@ -0,0 +1,151 @@
+package com.hakan.basicdi.scope;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ObjectPool is a bounded lock-free pool of
+ * the idle instances of a pooled entity.
+ * <p>
+ * Instances are kept in the slots of an atomic
+ * array and they are taken and put back with
+ * compare-and-set. Every thread starts to search
+ * from a different slot, so threads rarely race
+ * on the same slot.
+ */
+public class ObjectPool {
+
+    private final AtomicReferenceArray<Object> slots;
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LongAdder discards;
+
+    /**
+     * Constructor of {@link ObjectPool}.
+     *
+     * @param capacity maximum count of idle instances
+     */
+    public ObjectPool(int capacity) {
+        if (capacity <= 0)
+            throw new RuntimeException("capacity of pool must be positive, found " + capacity);
+
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+        this.discards = new LongAdder();
+    }
+
+    /**
+     * Takes an idle instance from the pool.
+     *
+     * @return instance, or null if the pool is empty
+     */
+    public @Nullable Object poll() {
+        int capacity = this.slots.length();
+        int first = this.firstSlot();
+
+        for (int i = 0; i < capacity; i++) {
+            int slot = (first + i) % capacity;
+            Object instance = this.slots.get(slot);
+            if (instance != null && this.slots.compareAndSet(slot, instance, null)) {
+                this.hits.increment();
+                return instance;
+            }
+        }
+
+        this.misses.increment();
+        return null;
+    }
+
+    /**
+     * Puts the instance back to the pool.
+     * An instance which is released twice
+     * is kept in its slot and not put again.
+     *
+     * @param instance instance
+     * @return false if the pool is full
+     */
+    public boolean offer(@Nonnull Object instance) {
+        int capacity = this.slots.length();
+        int first = this.firstSlot();
+
+        for (int i = 0; i < capacity; i++)
+            if (this.slots.get(i) == instance) return true;
+
+        for (int i = 0; i < capacity; i++) {
+            int slot = (first + i) % capacity;
+            if (this.slots.get(slot) == null && this.slots.compareAndSet(slot, null, instance))
+                return true;
+        }
+
+        this.discards.increment();
+        return false;
+    }
+
+    /**
+     * Returns the maximum count
+     * of idle instances.
+     *
+     * @return capacity
+     */
+    public int getCapacity() {
+        return this.slots.length();
+    }
+
+    /**
+     * Returns the count of the
+     * idle instances in the pool.
+     *
+     * @return idle count
+     */
+    public int getIdle() {
+        int idle = 0;
+        for (int i = 0; i < this.slots.length(); i++)
+            if (this.slots.get(i) != null) idle++;
+        return idle;
+    }
+
+    /**
+     * Returns the count of the acquires
+     * which reused an idle instance.
+     *
+     * @return hits
+     */
+    public long getHits() {
+        return this.hits.sum();
+    }
+
+    /**
+     * Returns the count of the acquires
+     * which found the pool empty.
+     *
+     * @return misses
+     */
+    public long getMisses() {
+        return this.misses.sum();
+    }
+
+    /**
+     * Returns the count of the released
+     * instances which did not fit the pool.
+     *
+     * @return discards
+     */
+    public long getDiscards() {
+        return this.discards.sum();
+    }
+
+
+    /**
+     * Returns the slot where the current
+     * thread starts to search.
+     *
+     * @return slot
+     */
+    private int firstSlot() {
+        long id = Thread.currentThread().getId();
+        return (int) ((id ^ (id >>> 16)) & Integer.MAX_VALUE) % this.slots.length();
+    }
+}
@@ -0,0 +1,174 @@
+package com.hakan.basicdi.scope;
+
+import com.hakan.basicdi.entity.AbstractEntity;
+import com.hakan.basicdi.entity.Scope;
+import com.hakan.basicdi.module.Module;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * RequestScope contains the instances of the
+ * entities with {@link Scope#REQUEST} scope,
+ * such as the object graph of a request.
+ * <p>
+ * Instances are kept in a flat array which is
+ * indexed by the slots of the entities, which
+ * are assigned when they are bound to the module.
+ * Scope is confined to the thread which enters
+ * it, so it does not need any lock. Instances
+ * of the entities of a parent module are kept
+ * in a separate scope of the parent module.
+ * <p>
+ * Closing the scope drops its instances and calls
+ * their pre destroy methods in reverse order of
+ * their creation.
+ */
+public class RequestScope implements AutoCloseable {
+
+    private static final ThreadLocal<RequestScope> CURRENT = new ThreadLocal<>();
+
+    /**
+     * Returns the request scope of the
+     * current thread.
+     *
+     * @return scope, or null if there is no scope
+     */
+    public static @Nullable RequestScope current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Creates a new request scope of the given
+     * module and binds it to the current thread
+     * until it is closed.
+     *
+     * @param module module
+     * @return scope
+     */
+    public static @Nonnull RequestScope enter(@Nonnull Module module) {
+        RequestScope scope = new RequestScope(module, CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+
+
+    private final Module module;
+    private final RequestScope previous;
+    private final Thread thread;
+    private final List<AbstractEntity> created;
+    private RequestScope parentScope;
+    private Object[] instances;
+    private boolean closed;
+
+    /**
+     * Constructor of {@link RequestScope}.
+     *
+     * @param module   module
+     * @param previous scope to restore when it is closed
+     */
+    private RequestScope(@Nonnull Module module,
+                         @Nullable RequestScope previous) {
+        this.module = module;
+        this.previous = previous;
+        this.thread = Thread.currentThread();
+        this.created = new ArrayList<>();
+        this.instances = new Object[module.getEntities().size()];
+    }
+
+    /**
+     * Returns the module of the scope.
+     *
+     * @return module
+     */
+    public @Nonnull Module getModule() {
+        return this.module;
+    }
+
+    /**
+     * Returns the instance of the entity in
+     * this scope, and creates it if it does
+     * not exist yet.
+     *
+     * @param entity entity
+     * @return instance
+     */
+    public @Nonnull Object getInstance(@Nonnull AbstractEntity entity) {
+        if (this.closed)
+            throw new RuntimeException("request scope is closed");
+        if (entity.getModule() != this.module)
+            return this.getParentScope(entity).getInstance(entity);
+
+        int slot = entity.getSlot();
+        if (slot >= this.instances.length)
+            this.instances = Arrays.copyOf(this.instances, Math.max(slot + 1, this.instances.length * 2));
+
+        Object instance = this.instances[slot];
+        if (instance == null) {
+            instance = entity.createScopedInstance();
+            this.instances[slot] = instance;
+            this.created.add(entity);
+        }
+
+        return instance;
+    }
+
+    /**
+     * Closes the scope, restores the previous
+     * scope of the thread and calls the pre
+     * destroy methods of the instances.
+     */
+    @Override
+    public void close() {
+        if (this.closed)
+            return;
+        if (Thread.currentThread() != this.thread)
+            throw new RuntimeException("request scope must be closed by the thread which entered it");
+
+        if (this.previous != null) CURRENT.set(this.previous);
+        else CURRENT.remove();
+
+        this.destroy();
+    }
+
+
+    /**
+     * Returns the scope of the parent module,
+     * and creates it at the first call.
+     *
+     * @param entity entity which is not bound to this module
+     * @return parent scope
+     */
+    private @Nonnull RequestScope getParentScope(@Nonnull AbstractEntity entity) {
+        if (this.module.getParent() == null)
+            throw new RuntimeException("class " + entity.getType().getName() + " is not bound to the module of the request scope");
+
+        if (this.parentScope == null)
+            this.parentScope = new RequestScope(this.module.getParent(), null);
+        return this.parentScope;
+    }
+
+    /**
+     * Drops the instances of this scope and its
+     * parent scopes, and calls their pre destroy
+     * methods.
+     */
+    private void destroy() {
+        this.closed = true;
+
+        for (int i = this.created.size() - 1; i >= 0; i--) {
+            AbstractEntity entity = this.created.get(i);
+            Object instance = this.instances[entity.getSlot()];
+            this.instances[entity.getSlot()] = null;
+            entity.destroyInstance(instance);
+        }
+
+        this.created.clear();
+        if (this.parentScope != null)
+            this.parentScope.destroy();
+    }
+}
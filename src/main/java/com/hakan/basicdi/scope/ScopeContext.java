@@ -0,0 +1,242 @@
+package com.hakan.basicdi.scope;
+
+import com.hakan.basicdi.entity.AbstractEntity;
+import com.hakan.basicdi.entity.Scope;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ScopeContext contains the instances of the
+ * entities with {@link Scope#CONTEXT} scope.
+ * <p>
+ * Context is bound only to the thread which enters
+ * it, so the threads of a pool never keep a context
+ * after it is closed. Tasks which run in the context
+ * on other threads, such as virtual threads, can be
+ * bound with {@link #wrap(Runnable)}, so they share
+ * one instance without keeping a copy each.
+ * <p>
+ * Threads which are not in any context use the
+ * root context of the module of the entity, which
+ * is closed when the module is shut down.
+ * <p>
+ * Closing the context calls the pre destroy
+ * methods of its instances in reverse order
+ * of their creation.
+ */
+public class ScopeContext implements AutoCloseable {
+
+    private static final ThreadLocal<ScopeContext> CURRENT = new ThreadLocal<>();
+
+    /**
+     * Returns the context which is entered
+     * on the current thread.
+     *
+     * @return context, or null if the thread
+     * is not in any context
+     */
+    public static @Nullable ScopeContext current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Creates a root context, which is not
+     * bound to any thread. It is used by a
+     * module for the threads which are not
+     * in any context.
+     *
+     * @return context
+     */
+    public static @Nonnull ScopeContext root() {
+        return new ScopeContext(null);
+    }
+
+    /**
+     * Creates a new context and binds it to
+     * the current thread until it is closed.
+     *
+     * @return context
+     */
+    public static @Nonnull ScopeContext enter() {
+        ScopeContext context = new ScopeContext(CURRENT.get());
+        CURRENT.set(context);
+        return context;
+    }
+
+
+
+    private final ScopeContext parent;
+    private final Map<AbstractEntity, Creation> instances;
+    private final List<AbstractEntity> created;
+    private volatile boolean closed;
+
+    /**
+     * Constructor of {@link ScopeContext}.
+     *
+     * @param parent context to restore when it is closed
+     */
+    private ScopeContext(@Nullable ScopeContext parent) {
+        this.parent = parent;
+        this.instances = new ConcurrentHashMap<>();
+        this.created = new ArrayList<>();
+    }
+
+    /**
+     * Returns the instance of the entity in
+     * this context, and creates it if it does
+     * not exist yet.
+     * <p>
+     * Creation is claimed under the lock of the
+     * context, but the instance is created outside
+     * of it, so instances of different entities are
+     * created in parallel. Other threads which need
+     * the same instance wait for its creation.
+     *
+     * @param entity entity
+     * @return instance
+     */
+    public @Nonnull Object getInstance(@Nonnull AbstractEntity entity) {
+        Creation creation = this.instances.get(entity);
+        if (creation != null)
+            return creation.join(entity);
+
+        Creation claimed = new Creation();
+        synchronized (this) {
+            if (this.closed)
+                throw new RuntimeException("scope context is closed");
+            if ((creation = this.instances.putIfAbsent(entity, claimed)) == null)
+                this.created.add(entity);
+        }
+
+        return (creation != null) ? creation.join(entity) : this.create(entity, claimed);
+    }
+
+    /**
+     * Wraps the task, so it runs in this
+     * context on any thread.
+     *
+     * @param task task
+     * @return wrapped task
+     */
+    public @Nonnull Runnable wrap(@Nonnull Runnable task) {
+        return () -> {
+            ScopeContext previous = CURRENT.get();
+            CURRENT.set(this);
+            try {
+                task.run();
+            } finally {
+                if (previous != null) CURRENT.set(previous);
+                else CURRENT.remove();
+            }
+        };
+    }
+
+    /**
+     * Closes the context, restores the previous
+     * context of the current thread and calls the
+     * pre destroy methods of the instances.
+     */
+    @Override
+    public void close() {
+        if (CURRENT.get() == this) {
+            if (this.parent != null) CURRENT.set(this.parent);
+            else CURRENT.remove();
+        }
+
+        List<AbstractEntity> created;
+        synchronized (this) {
+            if (this.closed) return;
+            this.closed = true;
+            created = new ArrayList<>(this.created);
+        }
+
+        for (int i = created.size() - 1; i >= 0; i--) {
+            AbstractEntity entity = created.get(i);
+            Creation creation = this.instances.remove(entity);
+            if (creation == null)
+                continue;
+
+            if (!creation.future.isDone())
+                creation.future.thenAccept(entity::destroyInstance);
+            else if (!creation.future.isCompletedExceptionally())
+                entity.destroyInstance(creation.future.join());
+        }
+    }
+
+
+    /**
+     * Creates the instance of the entity which is
+     * claimed by the current thread, and publishes
+     * it to the threads which wait for it. If the
+     * creation fails, the claim is removed, so it
+     * is created again at the next call.
+     *
+     * @param entity   entity
+     * @param creation claimed creation
+     * @return instance
+     */
+    private @Nonnull Object create(@Nonnull AbstractEntity entity,
+                                   @Nonnull Creation creation) {
+        try {
+            Object instance = entity.createScopedInstance();
+            creation.future.complete(instance);
+            return instance;
+        } catch (Throwable e) {
+            synchronized (this) {
+                if (this.instances.remove(entity, creation))
+                    this.created.remove(entity);
+            }
+            creation.future.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+
+
+    /**
+     * Creation is the instance of an entity in
+     * the context, which is completed by the
+     * thread that claims its creation.
+     */
+    private static final class Creation {
+
+        private final Thread thread;
+        private final CompletableFuture<Object> future;
+
+        /**
+         * Constructor of {@link Creation}.
+         */
+        private Creation() {
+            this.thread = Thread.currentThread();
+            this.future = new CompletableFuture<>();
+        }
+
+        /**
+         * Waits for the instance to be created.
+         *
+         * @param entity entity of the instance
+         * @return instance
+         * @throws RuntimeException if the thread which creates
+         *                          the instance needs it itself
+         */
+        private @Nonnull Object join(@Nonnull AbstractEntity entity) {
+            if (!this.future.isDone() && this.thread == Thread.currentThread())
+                throw new RuntimeException("circular dependency found for class " + entity.getType().getName());
+
+            try {
+                return this.future.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException)
+                    throw (RuntimeException) e.getCause();
+                throw e;
+            }
+        }
+    }
+}
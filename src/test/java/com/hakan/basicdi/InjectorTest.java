@@ -2,12 +2,26 @@
 
 import com.hakan.basicdi.annotations.Autowired;
 import com.hakan.basicdi.annotations.Component;
+import com.hakan.basicdi.annotations.Provide;
 import com.hakan.basicdi.annotations.Service;
+import com.hakan.basicdi.entity.impl.EmptyEntity;
+import com.hakan.basicdi.graph.GraphSnapshot;
 import com.hakan.basicdi.module.Module;
+import com.hakan.basicdi.module.impl.SnapshotModule;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class InjectorTest {
 
@@ -33,6 +47,76 @@ void checkVariables() {
         assertEquals(component.test(), "example service:1.0.0");
     }
 
+    @Test
+    void createChild() {
+        Injector child = this.injector.createChild(new ChildModule()).create();
+        ChildComponent component = child.getInstance(ChildComponent.class);
+
+        assertSame(this.injector.getInstance(ExampleService.class), child.getInstance(ExampleService.class));
+        assertSame(this.injector.getInstance(ExampleService.class), component.service);
+        assertNull(this.injector.getModule().findEntity(ChildComponent.class));
+        assertNotSame(component, this.injector.createChild(new ChildModule()).getInstance(ChildComponent.class));
+    }
+
+    @Test
+    void validate() {
+        assertNotNull(Injector.of(new ExampleModule()).validate().getModule().getGraph());
+
+        RuntimeException missing = assertThrows(RuntimeException.class, () -> Injector.of(new InvalidModule(CycleComponent.class)).validate());
+        assertTrue(missing.getMessage().contains(CycleComponent.class.getName() + " -> " + CycleService.class.getName()));
+
+        RuntimeException cycle = assertThrows(RuntimeException.class, () -> Injector.of(new InvalidModule(CycleComponent.class, CycleService.class)).validate());
+        assertTrue(cycle.getMessage().contains("cycle [" + CycleComponent.class.getName() + " -> " + CycleService.class.getName() + " -> " + CycleComponent.class.getName() + "]"));
+    }
+
+    @Test
+    void snapshot() throws IOException {
+        Path file = Files.createTempDirectory("graph-snapshot").resolve("graph.bin");
+
+        Injector first = Injector.fromSnapshot(file, new ExampleModule()).create();
+        Injector second = Injector.fromSnapshot(file, new ExampleModule()).create();
+
+        assertTrue(Files.isRegularFile(file));
+        assertTrue(second.getModule() instanceof SnapshotModule);
+        assertEquals(first.getModule().getEntities().size(), second.getModule().getEntities().size());
+        assertNotNull(second.getModule().getGraph());
+        assertEquals("example service:1.0.0", second.getInstance(ExampleComponent.class).test());
+    }
+
+    @Test
+    void snapshotUnstorable() throws IOException {
+        Path file = Files.createTempDirectory("graph-snapshot").resolve("graph.bin");
+
+        Injector injector = Injector.fromSnapshot(file, new EmptyModule()).create();
+
+        assertFalse(Files.exists(file));
+        assertNotNull(injector.getInstance(ExampleService.class));
+    }
+
+    @Test
+    void snapshotOfOtherModules() throws IOException {
+        Path file = Files.createTempDirectory("graph-snapshot").resolve("graph.bin");
+
+        Injector.fromSnapshot(file, new ExampleModule()).create();
+        Injector injector = Injector.fromSnapshot(file, new ChildModule(), new ExampleModule()).create();
+
+        assertFalse(injector.getModule() instanceof SnapshotModule);
+        assertNotNull(injector.getInstance(ChildComponent.class));
+        assertTrue(Injector.fromSnapshot(file, new ChildModule(), new ExampleModule()).getModule() instanceof SnapshotModule);
+    }
+
+    @Test
+    void snapshotStale() throws IOException {
+        Path file = Files.createTempDirectory("graph-snapshot").resolve("graph.bin");
+        Injector.of(new NameModule("stale")).snapshot().write(file, GraphSnapshot.fingerprint(new ExampleModule()));
+
+        Injector injector = Injector.fromSnapshot(file, new ExampleModule()).create();
+
+        assertFalse(injector.getModule() instanceof SnapshotModule);
+        assertEquals("example service:1.0.0", injector.getInstance(ExampleComponent.class).test());
+        assertTrue(Injector.fromSnapshot(file, new ExampleModule()).getModule() instanceof SnapshotModule);
+    }
+
     @Test
     void checkObjects() {
         assertEquals(
@@ -57,6 +141,75 @@ public void configure() {
         }
     }
 
+    public static class EmptyModule extends Module {
+
+        @Override
+        public void configure() {
+            this.bind(ExampleService.class);
+            this.bind(new EmptyEntity(this, Runnable.class));
+        }
+    }
+
+    public static class NameModule extends Module {
+
+        private final String name;
+
+        public NameModule(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void configure() {
+
+        }
+
+        @Provide
+        public String name() {
+            return this.name;
+        }
+    }
+
+    public static class ChildModule extends Module {
+
+        @Override
+        public void configure() {
+            this.bind(ChildComponent.class);
+        }
+    }
+
+    public static class InvalidModule extends Module {
+
+        private final Class<?>[] types;
+
+        public InvalidModule(Class<?>... types) {
+            this.types = types;
+        }
+
+        @Override
+        public void configure() {
+            for (Class<?> type : this.types)
+                this.bind(type);
+        }
+    }
+
+    @Component
+    public static class CycleComponent {
+
+        @Autowired
+        public CycleComponent(CycleService service) {
+
+        }
+    }
+
+    @Service
+    public static class CycleService {
+
+        @Autowired
+        public CycleService(CycleComponent component) {
+
+        }
+    }
+
     @Service
     public static class ExampleService {
 
@@ -80,4 +233,15 @@ public String test() {
             return this.service.name + ":" + this.service.version;
         }
     }
+
+    @Component
+    public static class ChildComponent {
+
+        private final ExampleService service;
+
+        @Autowired
+        public ChildComponent(ExampleService service) {
+            this.service = service;
+        }
+    }
 }
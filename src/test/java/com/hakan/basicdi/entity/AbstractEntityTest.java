@@ -0,0 +1,161 @@
+package com.hakan.basicdi.entity;
+
+import com.hakan.basicdi.Injector;
+import com.hakan.basicdi.annotations.Autowired;
+import com.hakan.basicdi.annotations.PostConstruct;
+import com.hakan.basicdi.annotations.Service;
+import com.hakan.basicdi.module.Module;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class AbstractEntityTest {
+
+    private static final int THREADS = 16;
+    private static final int ROUNDS = 50;
+
+    private static volatile CyclicBarrier barrier;
+
+    @Test
+    void concurrentSingleton() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                ExampleService.postConstructs.set(0);
+                ExampleComponent.postConstructs.set(0);
+
+                Injector injector = Injector.of(new ExampleModule());
+                CountDownLatch latch = new CountDownLatch(1);
+
+                List<Future<ExampleComponent>> futures = new ArrayList<>();
+                for (int i = 0; i < THREADS; i++) {
+                    futures.add(executor.submit(() -> {
+                        latch.await();
+                        return injector.getInstance(ExampleComponent.class);
+                    }));
+                }
+                latch.countDown();
+
+                ExampleComponent component = injector.getInstance(ExampleComponent.class);
+                for (Future<ExampleComponent> future : futures) {
+                    assertSame(component, future.get());
+                    assertSame(component.service, future.get().service);
+                }
+
+                assertEquals(1, ExampleService.postConstructs.get());
+                assertEquals(1, ExampleComponent.postConstructs.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void concurrentCycle() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                barrier = new CyclicBarrier(2);
+                Injector injector = Injector.of(new CycleModule());
+
+                Future<CycleFirst> first = executor.submit(() -> injector.getInstance(CycleFirst.class));
+                Future<CycleSecond> second = executor.submit(() -> injector.getInstance(CycleSecond.class));
+
+                assertSame(second.get(10, TimeUnit.SECONDS), first.get(10, TimeUnit.SECONDS).second);
+                assertSame(first.get(), second.get().first);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+
+    private static void arrive() {
+        try {
+            barrier.await(1, TimeUnit.SECONDS);
+        } catch (Exception ignored) {
+
+        }
+    }
+
+
+
+    public static class ExampleModule extends Module {
+
+        @Override
+        public void configure() {
+            this.bind(ExampleService.class);
+            this.bind(ExampleComponent.class);
+        }
+    }
+
+    public static class CycleModule extends Module {
+
+        @Override
+        public void configure() {
+            this.bind(CycleFirst.class);
+            this.bind(CycleSecond.class);
+        }
+    }
+
+    @Service
+    public static class CycleFirst {
+
+        @Autowired
+        private CycleSecond second;
+
+        public CycleFirst() {
+            arrive();
+        }
+    }
+
+    @Service
+    public static class CycleSecond {
+
+        @Autowired
+        private CycleFirst first;
+
+        public CycleSecond() {
+            arrive();
+        }
+    }
+
+    @Service
+    public static class ExampleService {
+
+        private static final AtomicInteger postConstructs = new AtomicInteger();
+
+        @PostConstruct
+        public void init() {
+            postConstructs.incrementAndGet();
+        }
+    }
+
+    @Service
+    public static class ExampleComponent {
+
+        private static final AtomicInteger postConstructs = new AtomicInteger();
+
+        @Autowired
+        private ExampleService service;
+
+        @PostConstruct
+        private void init() throws InterruptedException {
+            Thread.sleep(1);
+            postConstructs.incrementAndGet();
+        }
+    }
+}
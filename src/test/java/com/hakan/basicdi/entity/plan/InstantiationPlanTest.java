@@ -0,0 +1,131 @@
+package com.hakan.basicdi.entity.plan;
+
+import com.hakan.basicdi.annotations.Autowired;
+import com.hakan.basicdi.annotations.PostConstruct;
+import com.hakan.basicdi.annotations.Provide;
+import com.hakan.basicdi.annotations.Service;
+import com.hakan.basicdi.entity.Scope;
+import com.hakan.basicdi.entity.impl.ClassEntity;
+import com.hakan.basicdi.entity.impl.MethodProviderEntity;
+import com.hakan.basicdi.module.Module;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class InstantiationPlanTest {
+
+    @Test
+    void compile() {
+        ExampleModule module = new ExampleModule();
+        module.bind(FirstStore.class);
+        ClassEntity entity = (ClassEntity) module.bind(new ClassEntity(module, ExampleComponent.class, Scope.PROTOTYPE));
+
+        ExampleComponent component = (ExampleComponent) entity.getInstance();
+
+        assertSame(entity.getPlan(), entity.getPlan());
+        assertSame(module.getInstance(FirstStore.class), component.constructed);
+        assertSame(module.getInstance(FirstStore.class), component.injected);
+        assertEquals(1, component.postConstructs);
+    }
+
+    @Test
+    void invalidate() {
+        ExampleModule module = new ExampleModule();
+        module.bind(FirstStore.class);
+        ClassEntity entity = (ClassEntity) module.bind(new ClassEntity(module, ExampleComponent.class, Scope.PROTOTYPE));
+        InstantiationPlan plan = entity.getPlan();
+
+        module.bind(SecondStore.class).withPrimary(true);
+
+        assertNotSame(plan, entity.getPlan());
+        assertEquals(SecondStore.class, ((ExampleComponent) entity.getInstance()).constructed.getClass());
+
+        module.getEntity(SecondStore.class).withPrimary(false);
+        module.getEntity(FirstStore.class).withPrimary(true);
+
+        assertEquals(FirstStore.class, ((ExampleComponent) entity.getInstance()).injected.getClass());
+    }
+
+    @Test
+    void invalidateByParent() {
+        ExampleModule parent = new ExampleModule();
+        parent.bind(FirstStore.class);
+
+        ExampleModule child = new ExampleModule();
+        child.withParent(parent);
+        ClassEntity entity = (ClassEntity) child.bind(new ClassEntity(child, ExampleComponent.class, Scope.PROTOTYPE));
+        InstantiationPlan plan = entity.getPlan();
+
+        parent.bind(SecondStore.class).withPrimary(true);
+
+        assertNotSame(plan, entity.getPlan());
+        assertEquals(SecondStore.class, ((ExampleComponent) entity.getInstance()).constructed.getClass());
+    }
+
+    @Test
+    void invalidateParameters() {
+        ExampleModule module = new ExampleModule();
+        module.bind(FirstStore.class);
+        MethodProviderEntity entity = (MethodProviderEntity) module.getEntity(String.class).withScope(Scope.PROTOTYPE);
+        entity.prepare();
+        ParameterPlan plan = entity.getPlan();
+
+        assertSame(plan, entity.getPlan());
+        assertEquals("FirstStore", entity.getInstance());
+
+        module.bind(SecondStore.class).withPrimary(true);
+
+        assertNotSame(plan, entity.getPlan());
+        assertEquals("SecondStore", entity.getInstance());
+    }
+
+
+
+    public static class ExampleModule extends Module {
+
+        @Override
+        public void configure() {
+
+        }
+
+        @Provide
+        public String storeName(Store store) {
+            return store.getClass().getSimpleName();
+        }
+    }
+
+    public interface Store {
+
+    }
+
+    @Service
+    public static class FirstStore implements Store {
+
+    }
+
+    @Service
+    public static class SecondStore implements Store {
+
+    }
+
+    public static class ExampleComponent {
+
+        private final Store constructed;
+        private int postConstructs;
+
+        @Autowired
+        private Store injected;
+
+        @Autowired
+        public ExampleComponent(Store constructed) {
+            this.constructed = constructed;
+        }
+
+        @PostConstruct
+        public void init() {
+            this.postConstructs++;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.hakan.basicdi.metrics;
+
+import com.hakan.basicdi.Injector;
+import com.hakan.basicdi.annotations.Autowired;
+import com.hakan.basicdi.annotations.Component;
+import com.hakan.basicdi.annotations.PostConstruct;
+import com.hakan.basicdi.annotations.Service;
+import com.hakan.basicdi.entity.Scope;
+import com.hakan.basicdi.module.Module;
+import com.hakan.basicdi.reflection.ClassScanner;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InjectionMetricsTest {
+
+    @Test
+    void recordEntities() {
+        InjectionMetrics metrics = new InjectionMetrics("recordEntities");
+        Injector injector = Injector.of(new ExampleModule()).withListener(metrics);
+
+        injector.getInstance(ExampleComponent.class);
+        injector.getInstance(ExampleComponent.class);
+
+        assertEquals(3, metrics.getEntitiesCreated());
+        assertEquals(2, metrics.getPrototypesCreated());
+        assertEquals(4, metrics.getDependenciesResolved());
+        assertTrue(metrics.getConstructionNanos().containsKey(ExampleService.class.getName()));
+        assertTrue(metrics.getPostConstructNanos().containsKey(ExampleComponent.class.getName()));
+        assertTrue(metrics.getLookupCount() >= 2);
+        assertTrue(metrics.getLookupP99Nanos() >= metrics.getLookupP50Nanos());
+
+        metrics.reset();
+        assertEquals(0, metrics.getEntitiesCreated());
+    }
+
+    @Test
+    void recordScans() {
+        InjectionMetrics metrics = new InjectionMetrics("recordScans");
+        long count = new ClassScanner(this.getClass().getClassLoader())
+                .withListener(metrics)
+                .scan("com.hakan.basicdi.metrics")
+                .count();
+
+        assertEquals(1, metrics.getScanCount());
+        assertEquals(count, metrics.getScannedClasses());
+    }
+
+    @Test
+    void registerMBean() {
+        InjectionMetrics metrics = new InjectionMetrics("registerMBean").register();
+        try {
+            assertTrue(java.lang.management.ManagementFactory.getPlatformMBeanServer().isRegistered(metrics.getObjectName()));
+        } finally {
+            metrics.unregister();
+        }
+    }
+
+
+
+    public static class ExampleModule extends Module {
+
+        @Override
+        public void configure() {
+            this.bind(ExampleService.class);
+            this.bind(ExampleComponent.class);
+        }
+    }
+
+    @Service
+    public static class ExampleService {
+
+    }
+
+    @Component(scope = Scope.PROTOTYPE)
+    public static class ExampleComponent {
+
+        @Autowired
+        private ExampleService service;
+
+        @Autowired
+        public ExampleComponent(ExampleService service) {
+
+        }
+
+        @PostConstruct
+        public void init() {
+
+        }
+    }
+}
@@ -1,12 +1,43 @@
 package com.hakan.basicdi.module;
 
+import com.hakan.basicdi.annotations.Async;
+import com.hakan.basicdi.annotations.Autowired;
+import com.hakan.basicdi.annotations.Named;
 import com.hakan.basicdi.annotations.PostConstruct;
+import com.hakan.basicdi.annotations.Provide;
+import com.hakan.basicdi.annotations.Qualifier;
 import com.hakan.basicdi.annotations.Runner;
 import com.hakan.basicdi.annotations.Service;
+import com.hakan.basicdi.entity.AbstractEntity;
+import com.hakan.basicdi.key.Key;
+import com.hakan.basicdi.runner.RunMode;
 import org.junit.jupiter.api.Test;
 
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class ModuleTest {
 
@@ -32,9 +63,351 @@ void checkRunners() {
 
         assertEquals(module.name1, "example");
         assertEquals(module.name2, "example service:1.0.0");
+        assertNull(module.findEntity(Key.of(Runnable.class)));
+        assertTrue(module.getAmbiguousBindings().isEmpty());
+        assertTrue(module.getInstances(Runnable.class).isEmpty());
+    }
+
+    @Test
+    void createParallel() {
+        ExampleModule module = new ExampleModule();
+        module.configure();
+        module.create(ForkJoinPool.commonPool());
+
+        assertEquals(module.name1, "example");
+        assertEquals(module.name2, "example service:1.0.0");
+        assertEquals(module.getInstance(ExampleService.class).name, "example service");
+    }
+
+    @Test
+    void createAsync() {
+        AsyncModule module = new AsyncModule();
+        module.configure();
+        module.createAsync().join();
+
+        assertEquals("async", module.getInstance(AsyncConfig.class).name);
+        assertEquals("async:example service", module.getInstance(String.class));
+        assertEquals(1, module.calls.get());
+    }
+
+    @Test
+    void createAsyncConcurrently() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            for (int round = 0; round < 50; round++) {
+                AsyncModule module = new AsyncModule();
+                module.configure();
+                CountDownLatch latch = new CountDownLatch(1);
+
+                Future<Object> instance = executor.submit(() -> {
+                    latch.await();
+                    return module.getInstance(AsyncConfig.class);
+                });
+                Future<Object> async = executor.submit(() -> {
+                    latch.await();
+                    return module.getEntity(AsyncConfig.class).getInstanceAsync(ForkJoinPool.commonPool()).join();
+                });
+                latch.countDown();
+
+                assertSame(instance.get(5, TimeUnit.SECONDS), async.get(5, TimeUnit.SECONDS));
+                assertEquals(1, module.calls.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void createAsyncRejected() {
+        AsyncModule module = new AsyncModule();
+        module.configure();
+        AbstractEntity entity = module.getEntity(AsyncConfig.class);
+
+        CompletableFuture<Object> rejected = entity.getInstanceAsync(command -> {
+            throw new RejectedExecutionException("rejected");
+        });
+
+        assertThrows(CompletionException.class, rejected::join);
+        assertEquals("async", module.getInstance(AsyncConfig.class).name);
+        assertEquals(1, module.calls.get());
+    }
+
+    @Test
+    void checkRunnerModes() throws InterruptedException {
+        RunnerModule module = new RunnerModule();
+        module.configure();
+        module.create();
+        module.getEntities().forEach(AbstractEntity::getInstance);
+
+        assertTrue(module.periodic.await(5, TimeUnit.SECONDS));
+        assertTrue(module.async.await(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("first", "second"), module.order);
+
+        module.shutdown();
+        assertTrue(module.getScheduler().isShutdown());
+        assertThrows(RuntimeException.class, () -> module.getScheduler().execute(() -> {}, Runnable::run));
+        assertThrows(RuntimeException.class, () -> module.getScheduler().execute(() -> {}));
+    }
+
+    @Test
+    void checkRunnerExecutor() throws InterruptedException {
+        AtomicInteger executed = new AtomicInteger();
+        RunnerModule module = new RunnerModule();
+        module.withExecutor(command -> {
+            executed.incrementAndGet();
+            command.run();
+        });
+        module.configure();
+        module.create();
+
+        assertTrue(module.async.await(5, TimeUnit.SECONDS));
+        assertEquals(1, executed.get());
+        module.shutdown();
+    }
+
+    @Test
+    void checkIndex() {
+        ExampleModule module = new ExampleModule();
+        module.configure();
+
+        AbstractEntity entity = module.getEntity(ExampleService.class);
+        entity.withSubTypes(Arrays.asList(ExampleService.class, CharSequence.class));
+
+        assertEquals(module.getEntity(CharSequence.class), entity);
+        assertThrows(RuntimeException.class, () -> module.getEntity(Object.class));
+
+        entity.withType(String.class);
+
+        assertThrows(RuntimeException.class, () -> module.getEntity(String.class));
+
+        entity.withSubTypes(Arrays.asList(String.class, CharSequence.class));
+
+        assertEquals(module.getEntity(String.class), entity);
+        assertThrows(RuntimeException.class, () -> module.getEntity(ExampleService.class));
+    }
+
+    @Test
+    void checkPrimary() {
+        ExampleModule module = new ExampleModule();
+        module.bind(FirstRepository.class);
+        AbstractEntity second = module.bind(SecondRepository.class);
+
+        assertEquals(2, module.getAmbiguousBindings().get(Key.of(Store.class)).size());
+        assertThrows(RuntimeException.class, () -> module.getEntity(Repository.class));
+
+        second.withPrimary(true);
+
+        assertTrue(module.getAmbiguousBindings().isEmpty());
+        assertEquals(second, module.getEntity(Store.class));
+        assertEquals(module.getEntity(FirstRepository.class).getType(), FirstRepository.class);
+    }
+
+    @Test
+    void checkMultibinding() {
+        ExampleModule module = new ExampleModule();
+        module.bind(FirstRepository.class);
+        module.bind(SecondRepository.class);
+        module.bind(RepositoryService.class);
+
+        List<Repository> repositories = module.getInstances(Repository.class);
+        RepositoryService service = module.getInstance(RepositoryService.class);
+
+        assertEquals(2, repositories.size());
+        assertSame(module.getInstance(FirstRepository.class), repositories.get(0));
+        assertSame(module.getInstance(SecondRepository.class), repositories.get(1));
+        assertSame(repositories, module.getInstances(Repository.class));
+        assertEquals(repositories, module.getInstances(Store.class));
+        assertEquals(repositories, service.repositories);
+        assertEquals(Arrays.asList("firstRepository", "secondRepository"), new ArrayList<>(service.stores.keySet()));
+        assertTrue(module.getInstances(CharSequence.class).isEmpty());
+    }
+
+    @Test
+    void checkProvidedCollection() {
+        CollectionModule module = new CollectionModule();
+        module.bind(FirstRepository.class);
+        module.bind(SecondRepository.class);
+        module.bind(RepositoryService.class);
+        module.bind(IndexedStoreService.class);
+
+        RepositoryService service = module.getInstance(RepositoryService.class);
+
+        assertSame(module.repositories, service.repositories);
+        assertSame(module.stores, module.getInstance(IndexedStoreService.class).stores);
+        assertEquals(Arrays.asList("firstRepository", "secondRepository"), new ArrayList<>(service.stores.keySet()));
+        assertEquals(2, module.getInstances(Repository.class).size());
+    }
+
+    @Test
+    void checkQualifier() {
+        QualifierModule module = new QualifierModule();
+        module.bind(ReplicaService.class);
+
+        ReplicaService service = module.getInstance(ReplicaService.class);
+
+        assertEquals("read", service.read.name);
+        assertEquals("write", service.write.name);
+        assertEquals("audit", module.<Replica>getInstance(Key.of(Replica.class, Audit.class)).name);
+        assertSame(service.read, module.getInstance(Key.of(Replica.class, "read")));
+        assertEquals(Arrays.asList("read", "write", "audit"), new ArrayList<>(service.replicas.keySet()));
+        assertThrows(RuntimeException.class, () -> module.getInstance(Replica.class));
+        assertEquals(3, module.getAmbiguousBindings().get(Key.of(Replica.class)).size());
+        assertTrue(module.validate().getDependencies(module.getEntity(ReplicaService.class)).containsAll(Arrays.asList(
+                module.getEntity(Key.of(Replica.class, "read")), module.getEntity(Key.of(Replica.class, "write")))));
+
+        module.getEntity(Key.of(Replica.class, "write")).withQualifier("read");
+
+        assertSame(service.read, module.getInstance(Key.of(Replica.class, "read")));
+        assertNull(module.findEntity(Key.of(Replica.class, "write")));
+    }
+
+    @Test
+    void checkGeneric() throws NoSuchFieldException {
+        GenericModule module = new GenericModule();
+        module.bind(UserDao.class);
+        module.bind(OrderDao.class);
+        module.bind(DaoService.class);
+
+        DaoService service = module.getInstance(DaoService.class);
+
+        assertEquals(UserDao.class, service.users.getClass());
+        assertEquals(OrderDao.class, service.orders.getClass());
+        assertEquals("long", service.longs.toString());
+        assertEquals(Collections.singletonList(service.orders), service.orderList);
+        assertSame(service.longs, module.getInstance(Dao.class));
+        assertSame(Key.of(DaoService.class.getField("users").getGenericType()).getGenericType(),
+                module.getEntity(UserDao.class).getGenericSubTypes().get(0));
+        assertTrue(module.validate().getDependencies(module.getEntity(DaoService.class))
+                .containsAll(Arrays.asList(module.getEntity(UserDao.class), module.getEntity(OrderDao.class))));
+    }
+
+    @Test
+    void checkRawFallback() throws NoSuchFieldException {
+        GenericModule module = new GenericModule();
+        module.bind(UserDao.class);
+        module.bind(OrderDao.class);
+        module.bind(DoubleDaoService.class);
+
+        Key key = Key.of(DoubleDaoService.class.getField("doubles").getGenericType());
+
+        assertNull(module.findEntity(key));
+        assertTrue(module.getMultibinding(key).getList().isEmpty());
+        assertThrows(RuntimeException.class, () -> module.getInstance(DoubleDaoService.class));
+
+        module.bind(RawDao.class);
+
+        assertSame(module.getEntity(RawDao.class), module.findEntity(key));
+        assertEquals(1, module.getMultibinding(key).getList().size());
+        assertEquals(RawDao.class, module.getInstance(DoubleDaoService.class).doubles.getClass());
+    }
+
+    @Test
+    void installDiamond() {
+        SharedModule shared = new SharedModule();
+        ParentModule parent = new ParentModule(new ParentModule(shared), new ParentModule(shared));
+        parent.configure();
+        parent.install(shared);
+
+        assertEquals(1, shared.configured);
+        assertEquals(parent, parent.getEntity(ExampleService.class).getModule());
+        assertEquals(1, parent.getEntities().stream().filter(entity -> entity.getType() == ExampleService.class).count());
+    }
+
+
+
+    public static class ParentModule extends Module {
+
+        private final Module[] children;
+
+        public ParentModule(Module... children) {
+            this.children = children;
+        }
+
+        @Override
+        public void configure() {
+            for (Module child : this.children)
+                this.install(child);
+        }
+    }
+
+    public static class SharedModule extends Module {
+
+        private int configured;
+
+        @Override
+        public void configure() {
+            this.configured++;
+            this.bind(ExampleService.class);
+        }
+    }
+
+    public static class RunnerModule extends Module {
+
+        private final List<String> order = new CopyOnWriteArrayList<>();
+        private final CountDownLatch periodic = new CountDownLatch(3);
+        private final CountDownLatch async = new CountDownLatch(1);
+
+        @Override
+        public void configure() {
+
+        }
+
+        @Runner(order = 2)
+        public Runnable second() {
+            return () -> this.order.add("second");
+        }
+
+        @Runner(order = 1)
+        public Runnable first() {
+            return () -> this.order.add("first");
+        }
+
+        @Runner(mode = RunMode.ASYNC)
+        public Runnable async() {
+            return this.async::countDown;
+        }
+
+        @Runner(mode = RunMode.FIXED_RATE, period = 1)
+        public Runnable periodic() {
+            return () -> {
+                this.periodic.countDown();
+                if (this.periodic.getCount() == 2)
+                    throw new AssertionError("first periodic run fails");
+            };
+        }
+    }
+
+    public static class AsyncModule extends Module {
+
+        private final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public void configure() {
+            this.bind(ExampleService.class);
+        }
+
+        @Provide
+        public CompletableFuture<AsyncConfig> config() {
+            this.calls.incrementAndGet();
+            return CompletableFuture.supplyAsync(() -> new AsyncConfig("async"));
+        }
+
+        @Async
+        @Provide
+        public String name(AsyncConfig config, ExampleService service) {
+            return config.name + ":" + service.name;
+        }
     }
 
+    public static class AsyncConfig {
+
+        private final String name;
 
+        public AsyncConfig(String name) {
+            this.name = name;
+        }
+    }
 
     public static class ExampleModule extends Module {
 
@@ -59,6 +432,196 @@ public Runnable run2(ExampleService service) {
     }
 
 
+    public static class CollectionModule extends Module {
+
+        private final List<Repository> repositories = Collections.singletonList(new FirstRepository());
+        private final Map<Integer, Store> stores = Collections.singletonMap(1, new SecondRepository());
+
+        @Override
+        public void configure() {
+
+        }
+
+
+        @Provide
+        public List<Repository> repositories() {
+            return this.repositories;
+        }
+
+        @Provide
+        public Map<Integer, Store> stores() {
+            return this.stores;
+        }
+    }
+
+
+    public static class QualifierModule extends Module {
+
+        @Override
+        public void configure() {
+
+        }
+
+
+        @Provide
+        @Named("read")
+        public Replica read() {
+            return new Replica("read");
+        }
+
+        @Provide
+        @Named("write")
+        public Replica write() {
+            return new Replica("write");
+        }
+
+        @Provide
+        @Audit
+        public Replica audit() {
+            return new Replica("audit");
+        }
+    }
+
+
+    public static class GenericModule extends Module {
+
+        @Override
+        public void configure() {
+
+        }
+
+
+        @Provide
+        public Dao<Long> longDao() {
+            return new Dao<Long>() {
+                @Override
+                public String toString() {
+                    return "long";
+                }
+            };
+        }
+    }
+
+
+    public interface Dao<T> {
+
+    }
+
+    public static abstract class AbstractDao<T> implements Dao<T> {
+
+    }
+
+    @Service
+    public static class UserDao implements Dao<String> {
+
+    }
+
+    @Service
+    public static class OrderDao extends AbstractDao<Integer> {
+
+    }
+
+    @Service
+    @SuppressWarnings("rawtypes")
+    public static class RawDao implements Dao {
+
+    }
+
+    @Service
+    public static class DoubleDaoService {
+
+        @Autowired
+        public Dao<Double> doubles;
+    }
+
+    @Service
+    public static class DaoService {
+
+        public final Dao<Long> longs;
+
+        @Autowired
+        public Dao<String> users;
+
+        @Autowired
+        public Dao<Integer> orders;
+
+        @Autowired
+        public List<Dao<Integer>> orderList;
+
+        @Autowired
+        public DaoService(Dao<Long> longs) {
+            this.longs = longs;
+        }
+    }
+
+    @Qualifier
+    @Retention(RetentionPolicy.RUNTIME)
+    public @interface Audit {
+
+    }
+
+    public static class Replica {
+
+        public final String name;
+
+        public Replica(String name) {
+            this.name = name;
+        }
+    }
+
+    @Service
+    public static class ReplicaService {
+
+        public final Replica read;
+
+        @Autowired
+        @Named("write")
+        public Replica write;
+
+        @Autowired
+        public Map<String, Replica> replicas;
+
+        @Autowired
+        public ReplicaService(@Named("read") Replica read) {
+            this.read = read;
+        }
+    }
+
+    public interface Store {
+
+    }
+
+    public interface Repository extends Store {
+
+    }
+
+    @Service
+    public static class FirstRepository implements Repository {
+
+    }
+
+    @Service
+    public static class SecondRepository implements Repository {
+
+    }
+
+    @Service
+    public static class RepositoryService {
+
+        @Autowired
+        public List<Repository> repositories;
+
+        @Autowired
+        public Map<String, Store> stores;
+    }
+
+    @Service
+    public static class IndexedStoreService {
+
+        @Autowired
+        public Map<Integer, Store> stores;
+    }
+
     @Service
     public static class ExampleService {
 
@@ -0,0 +1,132 @@
+package com.hakan.basicdi.provider;
+
+import com.hakan.basicdi.Injector;
+import com.hakan.basicdi.annotations.Autowired;
+import com.hakan.basicdi.annotations.Lazy;
+import com.hakan.basicdi.annotations.Provide;
+import com.hakan.basicdi.annotations.Service;
+import com.hakan.basicdi.module.Module;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LazyProviderTest {
+
+    @Test
+    void injectProvider() {
+        HeavyService.CREATED.set(0);
+        Injector injector = Injector.of(new ExampleModule()).create();
+        ExampleService service = injector.getInstance(ExampleService.class);
+
+        assertEquals(0, HeavyService.CREATED.get());
+        assertSame(service.heavyProvider.get(), service.heavyProvider.get());
+        assertSame(injector.getInstance(HeavyService.class), service.heavyProvider.get());
+        assertEquals(1, HeavyService.CREATED.get());
+    }
+
+    @Test
+    void injectLazyProxy() {
+        HeavyService.CREATED.set(0);
+        Injector injector = Injector.of(new ExampleModule()).create();
+        ExampleService service = injector.getInstance(ExampleService.class);
+
+        assertEquals(0, HeavyService.CREATED.get());
+        assertEquals(service.heavy, service.heavy);
+        assertEquals(System.identityHashCode(service.heavy), service.heavy.hashCode());
+        assertTrue(service.heavy.toString().startsWith("lazy "));
+        assertEquals(0, HeavyService.CREATED.get());
+        assertEquals("heavy", service.heavy.name());
+        assertEquals("heavy", service.heavy.name());
+        assertEquals(1, HeavyService.CREATED.get());
+    }
+
+    @Test
+    void injectSupplier() {
+        HeavyService.CREATED.set(0);
+        Injector injector = Injector.of(new ExampleModule()).create();
+
+        assertEquals(0, HeavyService.CREATED.get());
+        assertEquals("heavy:provided", injector.getInstance(ExampleConfig.class).name.get());
+        assertEquals(1, HeavyService.CREATED.get());
+    }
+
+    @Test
+    void lazyClassInjection() {
+        ExampleModule module = new ExampleModule();
+        assertThrows(RuntimeException.class, () -> module.bind(InvalidService.class));
+    }
+
+
+
+    public static class ExampleModule extends Module {
+
+        @Override
+        public void configure() {
+            this.bind(HeavyService.class);
+            this.bind(ExampleService.class);
+        }
+
+        @Provide
+        public ExampleConfig config(Supplier<HeavyService> heavy) {
+            return new ExampleConfig(() -> heavy.get().name() + ":provided");
+        }
+    }
+
+    public static class ExampleConfig {
+
+        private final Supplier<String> name;
+
+        public ExampleConfig(Supplier<String> name) {
+            this.name = name;
+        }
+    }
+
+    public interface Heavy {
+
+        String name();
+    }
+
+    @Lazy
+    @Service
+    public static class HeavyService implements Heavy {
+
+        private static final AtomicInteger CREATED = new AtomicInteger();
+
+        public HeavyService() {
+            CREATED.incrementAndGet();
+        }
+
+        @Override
+        public String name() {
+            return "heavy";
+        }
+    }
+
+    @Service
+    public static class ExampleService {
+
+        private final Heavy heavy;
+
+        @Autowired
+        private Provider<HeavyService> heavyProvider;
+
+        @Autowired
+        public ExampleService(@Lazy Heavy heavy) {
+            this.heavy = heavy;
+        }
+    }
+
+    @Service
+    public static class InvalidService {
+
+        @Lazy
+        @Autowired
+        private HeavyService heavy;
+    }
+}
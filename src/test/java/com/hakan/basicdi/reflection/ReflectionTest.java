@@ -5,12 +5,21 @@
 import org.junit.jupiter.api.Test;
 
 import javax.annotation.Nonnull;
+import java.io.IOException;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.stream.Stream;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @DisplayName("ReflectionTest")
@@ -75,6 +84,42 @@ void scanClasses2() {
     }
 
 
+    @Test
+    void scanClasses3() {
+        Set<Class<?>> classes = new Reflection("com.hakan.basicdi", DisplayName.class).getTypesAnnotatedWith(DisplayName.class);
+
+        assertFalse(classes.isEmpty());
+        assertTrue(classes.stream().anyMatch(clazz -> clazz.equals(this.getClass())));
+        assertFalse(classes.stream().anyMatch(clazz -> clazz.equals(Reflection.class)));
+    }
+
+    @Test
+    void scanAnnotatedOnly() {
+        Set<String> classNames = new HashSet<>(new ClassScanner().findClassNames("com.hakan.basicdi", ClassScanner.INJECTION_ANNOTATIONS));
+
+        assertTrue(classNames.contains("com.hakan.basicdi.InjectorTest$ExampleService"));
+        assertTrue(classNames.contains("com.hakan.basicdi.module.ModuleTest$ExampleModule"));
+        assertFalse(classNames.contains(ReflectionTest.class.getName()));
+        assertFalse(classNames.contains(Reflection.class.getName()));
+    }
+
+
+    @Test
+    void scanWithCache() throws IOException {
+        Path directory = Files.createTempDirectory("scan-cache");
+        ClassScanner scanner = new ClassScanner(this.getClass().getClassLoader(), new ScanCache(directory));
+
+        List<String> cold = scanner.findClassNames("com.hakan.basicdi", ClassScanner.INJECTION_ANNOTATIONS);
+        List<String> warm = scanner.findClassNames("com.hakan.basicdi", ClassScanner.INJECTION_ANNOTATIONS);
+
+        assertFalse(cold.isEmpty());
+        assertEquals(cold, warm);
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+
     @Test
     void scanConstructors1() {
         Set<Constructor<?>> constructors = this.reflection1.getConstructorsAnnotatedWith(Autowired.class);
@@ -89,4 +134,16 @@ void scanConstructors2() {
         assertFalse(constructors.isEmpty());
         assertTrue(constructors.stream().anyMatch(constructor -> constructor.getName().contains("ExampleService")));
     }
+
+
+    @Test
+    void metadataCache() {
+        ClassMetadata metadata = ClassMetadata.of(ReflectionTest.class);
+
+        assertSame(metadata, ClassMetadata.of(ReflectionTest.class));
+        assertSame(metadata.getMethodsAnnotatedWith(Test.class), metadata.getMethodsAnnotatedWith(Test.class));
+        assertTrue(metadata.getMethodsAnnotatedWith(Test.class).stream().anyMatch(method -> method.getName().equals("metadataCache")));
+        assertEquals(ReflectionTest.class.getDeclaredConstructors()[0], metadata.getInjectableConstructor());
+        assertNull(metadata.getComponentScope());
+    }
 }
@@ -0,0 +1,149 @@
+package com.hakan.basicdi.scope;
+
+import com.hakan.basicdi.Injector;
+import com.hakan.basicdi.annotations.Component;
+import com.hakan.basicdi.annotations.PoolSize;
+import com.hakan.basicdi.annotations.PostAcquire;
+import com.hakan.basicdi.annotations.PreDestroy;
+import com.hakan.basicdi.annotations.PreRelease;
+import com.hakan.basicdi.annotations.Service;
+import com.hakan.basicdi.entity.Scope;
+import com.hakan.basicdi.module.Module;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ObjectPoolTest {
+
+    private final Injector injector = Injector.of(new ExampleModule()).create();
+
+    @Test
+    void reuseInstances() {
+        ExampleBuffer buffer = this.injector.acquire(ExampleBuffer.class);
+        buffer.content.append("data");
+        assertEquals(1, buffer.acquired);
+
+        this.injector.release(ExampleBuffer.class, buffer);
+        assertEquals(0, buffer.content.length());
+
+        ExampleBuffer reused = this.injector.acquire(ExampleBuffer.class);
+        assertSame(buffer, reused);
+        assertEquals(2, reused.acquired);
+
+        ObjectPool pool = this.injector.getPool(ExampleBuffer.class);
+        assertEquals(1, pool.getHits());
+        assertEquals(1, pool.getMisses());
+    }
+
+    @Test
+    void discardWhenFull() {
+        ExampleBuffer first = this.injector.acquire(ExampleBuffer.class);
+        ExampleBuffer second = this.injector.acquire(ExampleBuffer.class);
+        ExampleBuffer third = this.injector.acquire(ExampleBuffer.class);
+        assertNotSame(first, second);
+
+        this.injector.release(ExampleBuffer.class, first);
+        this.injector.release(ExampleBuffer.class, second);
+        this.injector.release(ExampleBuffer.class, third);
+
+        ObjectPool pool = this.injector.getPool(ExampleBuffer.class);
+        assertEquals(2, pool.getIdle());
+        assertEquals(1, pool.getDiscards());
+        assertTrue(third.destroyed);
+    }
+
+    @Test
+    void releaseTwice() {
+        ExampleBuffer buffer = this.injector.acquire(ExampleBuffer.class);
+
+        this.injector.release(ExampleBuffer.class, buffer);
+        this.injector.release(ExampleBuffer.class, buffer);
+
+        ObjectPool pool = this.injector.getPool(ExampleBuffer.class);
+        assertEquals(1, pool.getIdle());
+        assertSame(buffer, this.injector.acquire(ExampleBuffer.class));
+        assertNotSame(buffer, this.injector.acquire(ExampleBuffer.class));
+        assertFalse(buffer.destroyed);
+    }
+
+    @Test
+    void concurrentAcquire() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < 1000; j++) {
+                        ExampleBuffer buffer = this.injector.acquire(ExampleBuffer.class);
+                        assertEquals(0, buffer.content.length());
+                        buffer.content.append(j);
+                        this.injector.release(ExampleBuffer.class, buffer);
+                    }
+                }));
+            }
+            for (Future<?> future : futures)
+                future.get();
+        } finally {
+            executor.shutdown();
+        }
+
+        ObjectPool pool = this.injector.getPool(ExampleBuffer.class);
+        assertEquals(8000, pool.getHits() + pool.getMisses());
+    }
+
+    @Test
+    void notPooled() {
+        assertThrows(RuntimeException.class, () -> this.injector.acquire(ExampleService.class));
+    }
+
+
+
+    public static class ExampleModule extends Module {
+
+        @Override
+        public void configure() {
+            this.bind(ExampleService.class);
+            this.bind(ExampleBuffer.class);
+        }
+    }
+
+    @Service
+    public static class ExampleService {
+
+    }
+
+    @PoolSize(2)
+    @Component(scope = Scope.POOLED)
+    public static class ExampleBuffer {
+
+        private final StringBuilder content = new StringBuilder();
+        private int acquired;
+        private boolean destroyed;
+
+        @PostAcquire
+        public void acquire() {
+            this.acquired++;
+        }
+
+        @PreRelease
+        public void reset() {
+            this.content.setLength(0);
+        }
+
+        @PreDestroy
+        public void destroy() {
+            this.destroyed = true;
+        }
+    }
+}
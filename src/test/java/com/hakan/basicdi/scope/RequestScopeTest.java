@@ -0,0 +1,101 @@
+package com.hakan.basicdi.scope;
+
+import com.hakan.basicdi.Injector;
+import com.hakan.basicdi.annotations.Autowired;
+import com.hakan.basicdi.annotations.Component;
+import com.hakan.basicdi.annotations.PreDestroy;
+import com.hakan.basicdi.annotations.Service;
+import com.hakan.basicdi.entity.Scope;
+import com.hakan.basicdi.module.Module;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RequestScopeTest {
+
+    private final Injector injector = Injector.of(new ExampleModule()).create();
+
+    @Test
+    void shareInstancesInScope() {
+        RequestHandler handler;
+        try (RequestScope scope = this.injector.enterScope()) {
+            handler = this.injector.getInstance(RequestHandler.class);
+
+            assertSame(handler, this.injector.getInstance(RequestHandler.class));
+            assertSame(handler.context, this.injector.getInstance(RequestContext.class));
+            assertSame(this.injector.getInstance(ExampleService.class), handler.service);
+        }
+
+        assertTrue(handler.context.destroyed);
+        assertNull(RequestScope.current());
+    }
+
+    @Test
+    void separateScopes() {
+        RequestContext first;
+        try (RequestScope scope = this.injector.enterScope()) {
+            first = this.injector.getInstance(RequestContext.class);
+
+            try (RequestScope nested = this.injector.enterScope()) {
+                assertNotSame(first, this.injector.getInstance(RequestContext.class));
+            }
+
+            assertSame(first, this.injector.getInstance(RequestContext.class));
+        }
+
+        try (RequestScope scope = this.injector.enterScope()) {
+            assertNotSame(first, this.injector.getInstance(RequestContext.class));
+        }
+    }
+
+    @Test
+    void noScope() {
+        assertThrows(RuntimeException.class, () -> this.injector.getInstance(RequestContext.class));
+    }
+
+
+
+    public static class ExampleModule extends Module {
+
+        @Override
+        public void configure() {
+            this.bind(ExampleService.class);
+            this.bind(RequestContext.class);
+            this.bind(RequestHandler.class);
+        }
+    }
+
+    @Service
+    public static class ExampleService {
+
+    }
+
+    @Component(scope = Scope.REQUEST)
+    public static class RequestContext {
+
+        private boolean destroyed;
+
+        @PreDestroy
+        public void destroy() {
+            this.destroyed = true;
+        }
+    }
+
+    @Component(scope = Scope.REQUEST)
+    public static class RequestHandler {
+
+        private final RequestContext context;
+
+        @Autowired
+        private ExampleService service;
+
+        @Autowired
+        public RequestHandler(RequestContext context) {
+            this.context = context;
+        }
+    }
+}
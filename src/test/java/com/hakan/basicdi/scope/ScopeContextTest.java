@@ -0,0 +1,131 @@
+package com.hakan.basicdi.scope;
+
+import com.hakan.basicdi.Injector;
+import com.hakan.basicdi.annotations.Autowired;
+import com.hakan.basicdi.annotations.Component;
+import com.hakan.basicdi.annotations.PreDestroy;
+import com.hakan.basicdi.entity.Scope;
+import com.hakan.basicdi.module.Module;
+import com.hakan.basicdi.provider.Provider;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ScopeContextTest {
+
+    private final Injector injector = Injector.of(new ExampleModule()).create();
+
+    @Test
+    void threadScope() throws InterruptedException {
+        ThreadComponent component = this.injector.getInstance(ThreadComponent.class);
+        assertSame(component, this.injector.getInstance(ThreadComponent.class));
+
+        AtomicReference<Object> other = new AtomicReference<>();
+        Thread thread = new Thread(() -> other.set(this.injector.getInstance(ThreadComponent.class)));
+        thread.start();
+        thread.join();
+        assertNotSame(component, other.get());
+
+        this.injector.cleanupThread();
+        assertEquals(1, component.destroyed.get());
+        assertNotSame(component, this.injector.getInstance(ThreadComponent.class));
+    }
+
+    @Test
+    void contextScope() throws InterruptedException {
+        ContextComponent root = this.injector.getInstance(ContextComponent.class);
+        ContextComponent component;
+
+        try (ScopeContext context = ScopeContext.enter()) {
+            component = this.injector.getInstance(ContextComponent.class);
+            assertNotSame(root, component);
+            assertSame(component, this.injector.getInstance(ContextComponent.class));
+
+            AtomicReference<Object> outside = new AtomicReference<>();
+            Thread thread = new Thread(() -> outside.set(this.injector.getInstance(ContextComponent.class)));
+            thread.start();
+            thread.join();
+            assertSame(root, outside.get());
+
+            AtomicReference<Object> wrapped = new AtomicReference<>();
+            Thread other = new Thread(() -> {
+                try (ScopeContext ignored = ScopeContext.enter()) {
+                    context.wrap(() -> wrapped.set(this.injector.getInstance(ContextComponent.class))).run();
+                }
+            });
+            other.start();
+            other.join();
+            assertSame(component, wrapped.get());
+        }
+
+        assertEquals(1, component.destroyed.get());
+        assertSame(root, this.injector.getInstance(ContextComponent.class));
+        assertNotSame(root, Injector.of(new ExampleModule()).getInstance(ContextComponent.class));
+
+        this.injector.shutdown();
+        assertEquals(1, root.destroyed.get());
+    }
+
+    @Test
+    void contextScopeAcrossThreads() {
+        try (ScopeContext ignored = ScopeContext.enter()) {
+            ParallelComponent component = this.injector.getInstance(ParallelComponent.class);
+
+            assertSame(this.injector.getInstance(ContextComponent.class), component.other);
+        }
+    }
+
+
+
+    public static class ExampleModule extends Module {
+
+        @Override
+        public void configure() {
+            this.bind(ThreadComponent.class);
+            this.bind(ContextComponent.class);
+            this.bind(ParallelComponent.class);
+        }
+    }
+
+    @Component(scope = Scope.THREAD)
+    public static class ThreadComponent {
+
+        private final AtomicInteger destroyed = new AtomicInteger();
+
+        @PreDestroy
+        public void destroy() {
+            this.destroyed.incrementAndGet();
+        }
+    }
+
+    @Component(scope = Scope.CONTEXT)
+    public static class ParallelComponent {
+
+        private final ContextComponent other;
+
+        @Autowired
+        public ParallelComponent(Provider<ContextComponent> provider) throws Exception {
+            FutureTask<ContextComponent> task = new FutureTask<>(provider::get);
+            new Thread(ScopeContext.current().wrap(task)).start();
+            this.other = task.get(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Component(scope = Scope.CONTEXT)
+    public static class ContextComponent {
+
+        private final AtomicInteger destroyed = new AtomicInteger();
+
+        @PreDestroy
+        public void destroy() {
+            this.destroyed.incrementAndGet();
+        }
+    }
+}